@@ -16,8 +16,21 @@
 
 package com.google.inject;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.inject.internal.InternalInjectorCreator;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * The entry point to the Guice framework. Creates {@link Injector}s from {@link Module}s.
@@ -86,4 +99,92 @@ public final class Guice {
   public static Injector createInjector(Stage stage, Iterable<? extends Module> modules) {
     return new InternalInjectorCreator().stage(stage).addModules(modules).build();
   }
+
+  /**
+   * Creates an injector for the given set of modules in the background. This is equivalent to
+   * calling {@link #createInjectorAsync(Executor, Stage, Iterable)} with Stage.DEVELOPMENT.
+   *
+   * @since 4.2
+   */
+  public static Future<Injector> createInjectorAsync(Executor executor, Module... modules) {
+    return createInjectorAsync(executor, Stage.DEVELOPMENT, Arrays.asList(modules));
+  }
+
+  /**
+   * Creates an injector for the given set of modules, in a given development stage, in the
+   * background. Each module is configured in its own task on {@code executor}, so independent
+   * modules run their {@code configure} methods concurrently. Once all of them are done, their
+   * elements are combined in the order the modules were given and the injector is created by
+   * another task. Tasks the executor rejects run on the calling thread.
+   *
+   * <p>Because each module is configured on its own, modules installed by more than one of them are
+   * configured once for each, and {@link com.google.inject.spi.ModuleAnnotatedMethodScanner
+   * scanners} only apply within the module that registers them. Use {@link #createInjector} for
+   * modules that rely on either across modules.
+   *
+   * <p>If one or more errors occur, the returned future fails with a {@link CreationException}.
+   *
+   * @since 4.2
+   */
+  public static Future<Injector> createInjectorAsync(
+      final Executor executor, final Stage stage, Iterable<? extends Module> modules) {
+    List<ListenableFuture<List<Element>>> recordings = Lists.newArrayList();
+    for (final Module module : modules) {
+      ListenableFutureTask<List<Element>> recording =
+          ListenableFutureTask.create(
+              new Callable<List<Element>>() {
+                @Override
+                public List<Element> call() {
+                  return Elements.getElements(stage, module);
+                }
+              });
+      recordings.add(recording);
+      execute(executor, recording);
+    }
+
+    return Futures.transform(
+        Futures.allAsList(recordings),
+        new Function<List<List<Element>>, Injector>() {
+          @Override
+          public Injector apply(List<List<Element>> elements) {
+            return createInjector(stage, Elements.getModule(Iterables.concat(elements)));
+          }
+        },
+        new Executor() {
+          @Override
+          public void execute(Runnable command) {
+            Guice.execute(executor, command);
+          }
+        });
+  }
+
+  /**
+   * Creates a template for injectors that share the given set of modules. This is equivalent to
+   * calling {@link #createInjectorTemplate(Stage, Iterable)} with Stage.DEVELOPMENT.
+   *
+   * @since 4.2
+   */
+  public static InjectorTemplate createInjectorTemplate(Module... modules) {
+    return createInjectorTemplate(Stage.DEVELOPMENT, Arrays.asList(modules));
+  }
+
+  /**
+   * Creates a template for injectors that share the given set of modules, in a given development
+   * stage. The modules are configured right away; errors in them are reported when injectors are
+   * created from the template.
+   *
+   * @since 4.2
+   */
+  public static InjectorTemplate createInjectorTemplate(
+      Stage stage, Iterable<? extends Module> modules) {
+    return new InjectorTemplate(stage, modules);
+  }
+
+  private static void execute(Executor executor, Runnable command) {
+    try {
+      executor.execute(command);
+    } catch (RejectedExecutionException e) {
+      command.run();
+    }
+  }
 }
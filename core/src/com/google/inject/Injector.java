@@ -259,4 +259,46 @@ public interface Injector {
    * @since 3.0
    */
   Set<TypeConverterBinding> getTypeConverterBindings();
+
+  /**
+   * Freezes this injector, so that its bindings never change again. Freezing first creates the
+   * just-in-time bindings needed by this injector's bindings and their dependencies. After that,
+   * looking up bindings through {@link #getBinding} and {@link #getExistingBinding} no longer takes
+   * any locks, which helps applications that look up bindings reflectively from many threads.
+   *
+   * <p>A frozen injector doesn't create any more just-in-time bindings. Requesting an instance,
+   * provider or binding for a key that needs one fails with a {@link ConfigurationException}, as
+   * does injecting the members of a type whose dependencies need one. Keys of type {@code
+   * Provider<T>} are the exception: their bindings are still derived from the binding of {@code
+   * T}. Child injectors of a frozen injector keep the just-in-time bindings they need to
+   * themselves.
+   *
+   * <p>Parent injectors must be frozen before their children; freezing a child of an injector
+   * that isn't frozen throws an {@link IllegalStateException}. Freezing an injector that is
+   * already frozen has no effect.
+   *
+   * @since 4.2
+   */
+  void freeze();
+
+  /**
+   * Closes this injector. Singletons it created that implement {@link java.io.Closeable} are
+   * closed in the reverse order of their creation, so that objects are closed before the
+   * singletons they depend on. Exceptions thrown while closing them are logged. Closing also
+   * releases the just-in-time bindings and cached injectors that this injector built up over its
+   * lifetime. Classes that Guice generated are only weakly referenced by Guice, so they can be
+   * unloaded once the injector and the objects it created are unreachable.
+   *
+   * <p>A closed injector doesn't create any more just-in-time bindings, and requesting an instance,
+   * provider or binding for a key that needs one fails with a {@link ConfigurationException}. It
+   * doesn't provision or inject objects any more either: its providers, including those obtained
+   * before it was closed, throw a {@link ProvisionException}, and getting a members injector from
+   * it throws a {@link ConfigurationException}. Singletons whose provisioning was already under way
+   * when the injector was closed are closed as soon as they are created. Closing an injector
+   * doesn't close its child injectors, so close those first. Closing an injector that is already
+   * closed has no effect.
+   *
+   * @since 4.2
+   */
+  void close();
 }
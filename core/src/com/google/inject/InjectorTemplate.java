@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.inject.internal.InjectionPointCache;
+import com.google.inject.internal.InternalInjectorCreator;
+import com.google.inject.internal.RecordedModule;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates many similar injectors from a common set of modules, plus modules specific to each
+ * injector. Create templates with {@link Guice#createInjectorTemplate}.
+ *
+ * <p>The common modules are configured together once, when the template is created, and the
+ * bindings they recorded are replayed into each injector. Each injector still gets its own
+ * bindings, singletons and provider methods, just as if the modules had been passed to {@link
+ * Guice#createInjector}. Instances, providers, scopes, listeners and interceptors bound by the
+ * common modules are shared between the injectors, so they should not hold state specific to any
+ * one of them. The injectors also share the validated injection points of the classes they
+ * construct, rather than each scanning those classes again. Multibinders, map binders and optional
+ * binders of the common modules are replayed too, and collect each injector's own bindings.
+ *
+ * <p>If any common module hands itself something bound to the injector being configured, such as
+ * a provider it looks up with {@link Binder#getProvider} or an instance it requests injection of,
+ * the common modules are configured again for each injector. The same goes if any common module
+ * registers a {@link com.google.inject.spi.ModuleAnnotatedMethodScanner scanner}. Modules passed
+ * to {@link #createInjector} are always configured for each injector, and a module that they
+ * install is installed again even if a common module installed it.
+ *
+ * @since 4.2
+ */
+public final class InjectorTemplate {
+  private final Stage stage;
+  private final ImmutableList<Module> modules;
+  private final InjectionPointCache injectionPoints = new InjectionPointCache();
+
+  InjectorTemplate(Stage stage, Iterable<? extends Module> modules) {
+    this.stage = stage;
+    ImmutableList<Module> moduleList = ImmutableList.copyOf(modules);
+    List<Element> elements = Elements.getElements(stage, moduleList);
+    injectionPoints.addTargetsOf(elements);
+    RecordedModule recorded = RecordedModule.of(elements);
+    this.modules = recorded != null ? ImmutableList.<Module>of(recorded) : moduleList;
+  }
+
+  /**
+   * Creates an injector from the template's modules and {@code modules}.
+   *
+   * @throws CreationException if one or more errors occur during injector creation
+   */
+  public Injector createInjector(Module... modules) {
+    return createInjector(Arrays.asList(modules));
+  }
+
+  /**
+   * Creates an injector from the template's modules and {@code modules}.
+   *
+   * @throws CreationException if one or more errors occur during injector creation
+   */
+  public Injector createInjector(Iterable<? extends Module> modules) {
+    return new InternalInjectorCreator()
+        .stage(stage)
+        .injectionPoints(injectionPoints)
+        .addModules(Iterables.concat(this.modules, modules))
+        .build();
+  }
+}
@@ -183,7 +183,9 @@ public class Key<T> {
       return false;
     }
     Key<?> other = (Key<?>) o;
-    return annotationStrategy.equals(other.annotationStrategy)
+    // Comparing the cached hash codes first avoids comparing unequal types and annotations.
+    return hashCode == other.hashCode
+        && annotationStrategy.equals(other.annotationStrategy)
         && typeLiteral.equals(other.typeLiteral);
   }
 
@@ -132,7 +132,15 @@ public class TypeLiteral<T> {
 
   @Override
   public final boolean equals(Object o) {
-    return o instanceof TypeLiteral<?> && MoreTypes.equals(type, ((TypeLiteral) o).type);
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof TypeLiteral<?>)) {
+      return false;
+    }
+    TypeLiteral<?> other = (TypeLiteral<?>) o;
+    // Comparing the cached hash codes first avoids walking unequal parameterized types.
+    return hashCode == other.hashCode && MoreTypes.equals(type, other.type);
   }
 
   @Override
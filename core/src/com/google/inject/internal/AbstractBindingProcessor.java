@@ -142,7 +142,7 @@ abstract class AbstractBindingProcessor extends AbstractProcessor {
     Scoping scoping;
 
     Processor(BindingImpl<T> binding) {
-      source = binding.getSource();
+      source = CompactSource.forBinding(binding.getSource());
       key = binding.getKey();
       rawType = key.getTypeLiteral().getRawType();
       scoping = binding.getScoping();
@@ -250,7 +250,7 @@ final class BindingProcessor extends AbstractBindingProcessor {
     putBinding(
         new ExposedBindingImpl<T>(
             injector,
-            privateElements.getExposedSource(key),
+            CompactSource.forBinding(privateElements.getExposedSource(key)),
             key,
             exposedKeyFactory,
             privateElements));
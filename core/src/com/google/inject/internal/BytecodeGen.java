@@ -21,6 +21,7 @@ import static com.google.inject.internal.InternalFlags.getCustomClassLoadingOpti
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.MapMaker;
 import com.google.inject.internal.InternalFlags.CustomClassLoadingOption;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Member;
@@ -28,6 +29,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -59,6 +61,12 @@ import java.util.logging.Logger;
  *     owns the classes generated by Guice.
  * </ul>
  *
+ * <p>Generated classes aren't defined through a private {@code MethodHandles.Lookup}, even on JDKs
+ * that offer it. cglib 3.2 generates them through {@code net.sf.cglib.core.ReflectUtils}, whose
+ * static initializer makes {@code ClassLoader.defineClass} accessible reflectively. Defining the
+ * generated bytes through a lookup would still open {@code java.lang} reflectively, which fails on
+ * JDKs that enforce strong encapsulation.
+ *
  * @author mcculls@gmail.com (Stuart McCulloch)
  * @author jessewilson@google.com (Jesse Wilson)
  */
@@ -244,6 +252,12 @@ public final class BytecodeGen {
       // (so we can't use the bridge classloader to work around).  Bail out.
       return null;
     }
+    ConcurrentMap<Boolean, net.sf.cglib.reflect.FastClass> fastClasses =
+        FAST_CLASS_CACHE.getUnchecked(type);
+    net.sf.cglib.reflect.FastClass fastClass = fastClasses.get(publiclyCallable);
+    if (fastClass != null) {
+      return fastClass;
+    }
     net.sf.cglib.reflect.FastClass.Generator generator =
         new net.sf.cglib.reflect.FastClass.Generator();
     if (publiclyCallable) {
@@ -255,9 +269,31 @@ public final class BytecodeGen {
     if (logger.isLoggable(Level.FINE)) {
       logger.fine("Loading " + type + " FastClass with " + generator.getClassLoader());
     }
-    return generator.create();
+    fastClass = generator.create();
+    net.sf.cglib.reflect.FastClass existing = fastClasses.putIfAbsent(publiclyCallable, fastClass);
+    return existing != null ? existing : fastClass;
   }
 
+  /**
+   * FastClasses generated so far, by type and then by whether they were generated into the bridge
+   * class loader. All injectors in the JVM share these without going through cglib's own cache
+   * again. FastClasses are weakly referenced, so they can still be unloaded along with their type.
+   */
+  private static final LoadingCache<
+          Class<?>, ConcurrentMap<Boolean, net.sf.cglib.reflect.FastClass>>
+      FAST_CLASS_CACHE =
+          CacheBuilder.newBuilder()
+              .weakKeys()
+              .build(
+                  new CacheLoader<
+                      Class<?>, ConcurrentMap<Boolean, net.sf.cglib.reflect.FastClass>>() {
+                    @Override
+                    public ConcurrentMap<Boolean, net.sf.cglib.reflect.FastClass> load(
+                        Class<?> type) {
+                      return new MapMaker().weakValues().makeMap();
+                    }
+                  });
+
   /**
    * Returns true if the types classloader has the same version of cglib that BytecodeGen has. This
    * only returns false in strange OSGI situations, but it prevents us from using FastClass for non
@@ -309,6 +345,71 @@ public final class BytecodeGen {
     logger.fine("Loading " + type + " Enhancer with " + enhancer.getClassLoader());
     return enhancer;
   }
+
+  /**
+   * Returns a circular dependency proxy for the interface {@code type}, or null if no proxy class
+   * can be generated for it. Unlike a {@link java.lang.reflect.Proxy}, the proxy's methods call the
+   * object returned by {@code handler} directly rather than through reflection.
+   */
+  static Object newCircularProxy(Class<?> type, final DelegatingInvocationHandler<?> handler) {
+    Class<?> proxyClass = getCircularProxyClass(type);
+    if (proxyClass == null) {
+      return null;
+    }
+    net.sf.cglib.proxy.Callback[] callbacks = {
+      new net.sf.cglib.proxy.Dispatcher() {
+        @Override
+        public Object loadObject() {
+          return handler.getDelegate();
+        }
+      },
+      net.sf.cglib.proxy.NoOp.INSTANCE
+    };
+    net.sf.cglib.proxy.Enhancer.registerCallbacks(proxyClass, callbacks);
+    try {
+      return net.sf.cglib.core.ReflectUtils.newInstance(proxyClass);
+    } finally {
+      net.sf.cglib.proxy.Enhancer.registerCallbacks(proxyClass, null);
+    }
+  }
+
+  private static Class<?> getCircularProxyClass(Class<?> type) {
+    Class<?> proxyClass = CIRCULAR_PROXY_CLASSES.get(type);
+    if (proxyClass != null) {
+      return proxyClass;
+    }
+    Visibility visibility = Visibility.forType(type);
+    for (Method method : type.getMethods()) {
+      visibility = visibility.and(Visibility.forMember(method));
+    }
+    ClassLoader classLoader = type.getClassLoader();
+    if (visibility == Visibility.SAME_PACKAGE
+        && (classLoader == null || !hasSameVersionOfCglib(classLoader))) {
+      // The proxy class must be defined next to the type, where our cglib can't be seen.  Bail out.
+      return null;
+    }
+    net.sf.cglib.proxy.Enhancer enhancer = newEnhancer(type, visibility);
+    enhancer.setInterfaces(new Class<?>[] {type, CircularDependencyProxy.class});
+    enhancer.setCallbackFilter(CIRCULAR_PROXY_CALLBACK_FILTER);
+    enhancer.setCallbackTypes(
+        new Class<?>[] {net.sf.cglib.proxy.Dispatcher.class, net.sf.cglib.proxy.NoOp.class});
+    proxyClass = enhancer.createClass();
+    Class<?> existing = CIRCULAR_PROXY_CLASSES.putIfAbsent(type, proxyClass);
+    return existing != null ? existing : proxyClass;
+  }
+
+  /** Circular proxy classes generated so far, by the interface they implement. */
+  private static final ConcurrentMap<Class<?>, Class<?>> CIRCULAR_PROXY_CLASSES =
+      new MapMaker().weakKeys().weakValues().makeMap();
+
+  /** Dispatches public methods to the delegate and leaves {@code Object.finalize()} alone. */
+  private static final net.sf.cglib.proxy.CallbackFilter CIRCULAR_PROXY_CALLBACK_FILTER =
+      new net.sf.cglib.proxy.CallbackFilter() {
+        @Override
+        public int accept(Method method) {
+          return Modifier.isPublic(method.getModifiers()) ? 0 : 1;
+        }
+      };
   /*end[AOP]*/
 
   /**
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+/**
+ * Describes which classes a class matcher can match, as keys that classes can be looked up by:
+ * the class itself, its supertypes, its package and its annotations. This lets injectors index
+ * class matchers by these keys and only try the matchers that could match each class, rather than
+ * every matcher.
+ */
+public final class ClassIndexKeys {
+  private ClassIndexKeys() {}
+
+  /** Implemented by matchers that only match classes having one of some keys. */
+  public interface Source {
+    /**
+     * Returns the keys of which a class must have at least one to match, or null if this matcher
+     * could match classes without any particular key.
+     */
+    ImmutableSet<Object> classIndexKeys();
+  }
+
+  /**
+   * Returns the keys of which a class must have at least one to match {@code matcher}, or null if
+   * that isn't known. Matchers that require annotations match classes carrying them.
+   */
+  public static ImmutableSet<Object> of(Object matcher) {
+    if (matcher instanceof Source) {
+      return ((Source) matcher).classIndexKeys();
+    }
+    ImmutableSet<Class<? extends Annotation>> annotationTypes = RequiredAnnotations.of(matcher);
+    if (annotationTypes == null) {
+      return null;
+    }
+    ImmutableSet.Builder<Object> keys = ImmutableSet.builder();
+    for (Class<? extends Annotation> annotationType : annotationTypes) {
+      keys.add(annotatedWith(annotationType));
+    }
+    return keys.build();
+  }
+
+  /** Returns the keys required to match both {@code a} and {@code b}. */
+  public static ImmutableSet<Object> forAnd(Object a, Object b) {
+    ImmutableSet<Object> fromA = of(a);
+    ImmutableSet<Object> fromB = of(b);
+    if (fromA == null) {
+      return fromB;
+    }
+    // Either side's requirement holds for both, so prefer the narrower one.
+    return fromB != null && fromB.size() < fromA.size() ? fromB : fromA;
+  }
+
+  /** Returns the keys required to match either {@code a} or {@code b}. */
+  public static ImmutableSet<Object> forOr(Object a, Object b) {
+    ImmutableSet<Object> fromA = of(a);
+    ImmutableSet<Object> fromB = of(b);
+    if (fromA == null || fromB == null) {
+      return null;
+    }
+    return Sets.union(fromA, fromB).immutableCopy();
+  }
+
+  /** Returns the key of classes that are equal to {@code value}. */
+  public static Object equalTo(Object value) {
+    return new Key(Kind.EQUAL_TO, value);
+  }
+
+  /** Returns the key of classes that are {@code type} or one of its subtypes. */
+  public static Object subtypeOf(Class<?> type) {
+    return new Key(Kind.SUBTYPE_OF, type);
+  }
+
+  /** Returns the key of classes in {@code targetPackage}. */
+  public static Object inPackage(Package targetPackage) {
+    return new Key(Kind.IN_PACKAGE, targetPackage);
+  }
+
+  /** Returns the key of classes in the package named {@code packageName} or its subpackages. */
+  public static Object inSubpackage(String packageName) {
+    return new Key(Kind.IN_SUBPACKAGE, packageName);
+  }
+
+  /** Returns the key of classes carrying an annotation of type {@code annotationType}. */
+  public static Object annotatedWith(Class<? extends Annotation> annotationType) {
+    return new Key(Kind.ANNOTATED_WITH, annotationType);
+  }
+
+  /** Returns all of the keys that {@code clazz} has. */
+  public static Set<Object> keysOf(Class<?> clazz) {
+    Set<Object> keys = Sets.newHashSet();
+    keys.add(equalTo(clazz));
+    addSupertypeKeys(clazz, keys);
+    // Interfaces are assignable to Object too, though it isn't their superclass.
+    keys.add(subtypeOf(Object.class));
+    Package classPackage = clazz.getPackage();
+    if (classPackage != null) {
+      keys.add(inPackage(classPackage));
+      String packageName = classPackage.getName();
+      for (int dot = packageName.length(); dot != -1; dot = packageName.lastIndexOf('.', dot - 1)) {
+        keys.add(inSubpackage(packageName.substring(0, dot)));
+      }
+    }
+    for (Annotation annotation : clazz.getAnnotations()) {
+      keys.add(annotatedWith(annotation.annotationType()));
+    }
+    return keys;
+  }
+
+  private static void addSupertypeKeys(Class<?> type, Set<Object> keys) {
+    if (type == null || !keys.add(subtypeOf(type))) {
+      return;
+    }
+    addSupertypeKeys(type.getSuperclass(), keys);
+    for (Class<?> implemented : type.getInterfaces()) {
+      addSupertypeKeys(implemented, keys);
+    }
+  }
+
+  private enum Kind {
+    EQUAL_TO,
+    SUBTYPE_OF,
+    IN_PACKAGE,
+    IN_SUBPACKAGE,
+    ANNOTATED_WITH
+  }
+
+  private static final class Key {
+    final Kind kind;
+    final Object value;
+
+    Key(Kind kind, Object value) {
+      this.kind = kind;
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && ((Key) o).kind == kind && Objects.equal(((Key) o).value, value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(kind, value);
+    }
+
+    @Override
+    public String toString() {
+      return kind + "(" + value + ")";
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.inject.internal.InternalFlags.BindingMetadataOption;
+import com.google.inject.internal.util.StackTraceElements;
+import com.google.inject.spi.ElementSource;
+import java.lang.reflect.Member;
+
+/**
+ * The source of a binding, reduced to what error messages show of it: where it was declared and
+ * through which modules. Injectors keep these instead of {@link ElementSource}s when the {@link
+ * BindingMetadataOption#COMPACT compact} binding metadata option is set, so they don't hold on to
+ * module sources and call stacks. Equal sources are shared between injectors, which helps when
+ * many injectors are created from the same modules.
+ */
+final class CompactSource {
+  private static final boolean COMPACT =
+      InternalFlags.getBindingMetadataOption() == BindingMetadataOption.COMPACT;
+
+  private static final Interner<Object> interner = Interners.newWeakInterner();
+
+  private final Object declaringSource;
+
+  /** The modules the source was declared in, formatted as in error messages, or "". */
+  private final String modules;
+
+  private CompactSource(Object declaringSource, String modules) {
+    this.declaringSource = declaringSource;
+    this.modules = modules;
+  }
+
+  /** Returns the source for an injector to keep for a binding declared at {@code source}. */
+  static Object forBinding(Object source) {
+    return COMPACT ? compact(source) : source;
+  }
+
+  /**
+   * Returns a source that is formatted in error messages just like {@code source}, but that doesn't
+   * reference its module sources or call stacks. Sources that aren't declared at a stack trace
+   * element, member or class are returned as is.
+   */
+  static Object compact(Object source) {
+    if (!(source instanceof ElementSource)) {
+      return source;
+    }
+    ElementSource elementSource = (ElementSource) source;
+    Object declaringSource = elementSource.getDeclaringSource();
+    if (!(declaringSource instanceof StackTraceElement
+        || declaringSource instanceof Member
+        || declaringSource instanceof Class)) {
+      return source;
+    }
+    declaringSource = interner.intern(declaringSource);
+    String modules = Errors.moduleSourceString(elementSource);
+    return modules.isEmpty()
+        ? declaringSource
+        : interner.intern(new CompactSource(declaringSource, modules));
+  }
+
+  /** Returns the modules this source was declared in, formatted as in error messages. */
+  String getModules() {
+    return modules;
+  }
+
+  Object getDeclaringSource() {
+    return declaringSource;
+  }
+
+  /** Returns where the source was declared, formatted as in error messages. */
+  Object getLocation() {
+    if (declaringSource instanceof Class) {
+      return StackTraceElements.forType((Class<?>) declaringSource);
+    } else if (declaringSource instanceof Member) {
+      return StackTraceElements.forMember((Member) declaringSource);
+    }
+    return declaringSource;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof CompactSource)) {
+      return false;
+    }
+    CompactSource other = (CompactSource) obj;
+    return declaringSource.equals(other.declaringSource) && modules.equals(other.modules);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(declaringSource, modules);
+  }
+
+  @Override
+  public String toString() {
+    return declaringSource.toString();
+  }
+}
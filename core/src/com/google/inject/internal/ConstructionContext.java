@@ -74,6 +74,14 @@ final class ConstructionContext<T> {
     DelegatingInvocationHandler<T> invocationHandler = new DelegatingInvocationHandler<T>();
     invocationHandlers.add(invocationHandler);
 
+    /*if[AOP]*/
+    // prefer a generated class, which calls the delegate without reflection once it's set
+    Object circularProxy = BytecodeGen.newCircularProxy(expectedType, invocationHandler);
+    if (circularProxy != null) {
+      return expectedType.cast(circularProxy);
+    }
+    /*end[AOP]*/
+
     // TODO: if I create a proxy which implements all the interfaces of
     // the implementation type, I'll be able to get away with one proxy
     // instance (as opposed to one per caller).
@@ -112,7 +112,7 @@ final class ConstructorBindingImpl<T> extends BindingImpl<T>
     // Find a constructor annotated @Inject
     if (constructorInjector == null) {
       try {
-        constructorInjector = InjectionPoint.forConstructorOf(key.getTypeLiteral());
+        constructorInjector = injector.injectionPoints.forConstructorOf(key.getTypeLiteral());
         if (failIfNotExplicit && !hasAtInject((Constructor) constructorInjector.getMember())) {
           errors.atInjectRequired(rawType);
         }
@@ -20,6 +20,7 @@ import static com.google.common.collect.Iterables.concat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.inject.spi.InjectionPoint;
+import java.util.List;
 
 /**
  * Constructor injectors by type.
@@ -38,6 +39,11 @@ final class ConstructorInjectorStore {
         }
       };
 
+  /*if[AOP]*/
+  /** The injector's method aspects by the classes they could apply to; lazy. */
+  private volatile MethodAspectIndex aspectIndex;
+  /*end[AOP]*/
+
   ConstructorInjectorStore(InjectorImpl injector) {
     this.injector = injector;
   }
@@ -61,6 +67,11 @@ final class ConstructorInjectorStore {
     return cache.remove(ip);
   }
 
+  /** Purges all constructor injectors, for when the injector is closed. */
+  void clear() {
+    cache.clear();
+  }
+
   private <T> ConstructorInjector<T> createConstructor(InjectionPoint injectionPoint, Errors errors)
       throws ErrorsException {
     int numErrorsBefore = errors.size();
@@ -74,8 +85,9 @@ final class ConstructorInjectorStore {
             injector.membersInjectorStore.get(injectionPoint.getDeclaringType(), errors);
 
     /*if[AOP]*/
-    ImmutableList<MethodAspect> injectorAspects = injector.state.getMethodAspects();
-    ImmutableList<MethodAspect> methodAspects =
+    List<MethodAspect> injectorAspects =
+        getAspectIndex().candidates(injectionPoint.getMember().getDeclaringClass());
+    List<MethodAspect> methodAspects =
         membersInjector.getAddedAspects().isEmpty()
             ? injectorAspects
             : ImmutableList.copyOf(concat(injectorAspects, membersInjector.getAddedAspects()));
@@ -93,4 +105,20 @@ final class ConstructorInjectorStore {
         constructorParameterInjectors,
         membersInjector);
   }
+
+  /*if[AOP]*/
+  /**
+   * Returns the index of the injector's method aspects. Aspects are only ever added, before
+   * bindings are processed, so the index is rebuilt if their number changed since it was built.
+   */
+  private MethodAspectIndex getAspectIndex() {
+    ImmutableList<MethodAspect> aspects = injector.state.getMethodAspects();
+    MethodAspectIndex index = aspectIndex;
+    if (index == null || index.size() != aspects.size()) {
+      index = new MethodAspectIndex(aspects);
+      aspectIndex = index;
+    }
+    return index;
+  }
+  /*end[AOP]*/
 }
@@ -30,24 +30,10 @@ class DelegatingInvocationHandler<T> implements InvocationHandler {
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     try {
-      // checking volatile field for synchronization
-      Preconditions.checkState(
-          initialized,
-          "This is a proxy used to support"
-              + " circular references. The object we're"
-              + " proxying is not constructed yet. Please wait until after"
-              + " injection has completed to use this object.");
-      Preconditions.checkNotNull(
-          delegate,
-          "This is a proxy used to support"
-              + " circular references. The object we're "
-              + " proxying is initialized to null."
-              + " No methods can be called.");
-
       // TODO: method.setAccessible(true); ?
       // this would fix visibility errors when we proxy a
       // non-public interface.
-      return method.invoke(delegate, args);
+      return method.invoke(getDelegate(), args);
     } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     } catch (IllegalArgumentException e) {
@@ -57,6 +43,24 @@ class DelegatingInvocationHandler<T> implements InvocationHandler {
     }
   }
 
+  /** Returns the object to call, failing if it hasn't been constructed or is null. */
+  T getDelegate() {
+    // checking volatile field for synchronization
+    Preconditions.checkState(
+        initialized,
+        "This is a proxy used to support"
+            + " circular references. The object we're"
+            + " proxying is not constructed yet. Please wait until after"
+            + " injection has completed to use this object.");
+    Preconditions.checkNotNull(
+        delegate,
+        "This is a proxy used to support"
+            + " circular references. The object we're "
+            + " proxying is initialized to null."
+            + " No methods can be called.");
+    return delegate;
+  }
+
   void setDelegate(T delegate) {
     this.delegate = delegate;
     initialized = true;
@@ -266,6 +266,21 @@ public final class Errors implements Serializable {
     return addMessage("Explicit bindings are required and %s is not explicitly bound.", key);
   }
 
+  public Errors jitDisabledByFreezing(Key<?> key) {
+    return addMessage(
+        "The injector is frozen and %s has no existing binding.%n"
+            + "Please add an explicit binding for it, or look it up before freezing the injector.",
+        key);
+  }
+
+  public Errors jitDisabledByClosing(Key<?> key) {
+    return addMessage("The injector is closed, so no binding can be created for %s.", key);
+  }
+
+  public Errors injectorClosed() {
+    return addMessage("The injector is closed, so it can no longer provision or inject objects.");
+  }
+
   public Errors jitDisabledInParent(Key<?> key) {
     return addMessage(
         "Explicit bindings are required and %s would be bound in a parent injector.%n"
@@ -483,7 +498,7 @@ public final class Errors implements Serializable {
       if (source == null) {
         allSources.format("%n    (bound by a just-in-time binding)");
       } else {
-        allSources.format("%n    bound at %s", source);
+        allSources.format("%n    bound at %s", convert(source));
       }
     }
     Errors errors =
@@ -901,6 +916,9 @@ public final class Errors implements Serializable {
     if (o instanceof ElementSource) {
       source = (ElementSource) o;
       o = source.getDeclaringSource();
+    } else if (o instanceof CompactSource) {
+      CompactSource compactSource = (CompactSource) o;
+      return convert(compactSource.getDeclaringSource(), null) + compactSource.getModules();
     }
     return convert(o, source);
   }
@@ -923,7 +941,7 @@ public final class Errors implements Serializable {
     }
   }
 
-  private static String moduleSourceString(ElementSource elementSource) {
+  static String moduleSourceString(ElementSource elementSource) {
     // if we only have one module (or don't know what they are), then don't bother
     // reporting it, because the source already is going to report exactly that module.
     if (elementSource == null) {
@@ -960,6 +978,10 @@ public final class Errors implements Serializable {
     if (source instanceof ElementSource) {
       elementSource = (ElementSource) source;
       source = elementSource.getDeclaringSource();
+    } else if (source instanceof CompactSource) {
+      CompactSource compactSource = (CompactSource) source;
+      formatter.format("  at %s%s%n", compactSource.getLocation(), compactSource.getModules());
+      return;
     }
     formatSource(formatter, source, elementSource);
   }
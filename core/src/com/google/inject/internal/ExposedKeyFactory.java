@@ -27,7 +27,12 @@ import com.google.inject.spi.PrivateElements;
 final class ExposedKeyFactory<T> implements InternalFactory<T>, CreationListener {
   private final Key<T> key;
   private final PrivateElements privateElements;
-  private BindingImpl<T> delegate;
+
+  /**
+   * The factory of the binding in the child injector, or of the binding that one exposes in turn
+   * from a nested private environment, once that's known.
+   */
+  private InternalFactory<? extends T> targetFactory;
 
   ExposedKeyFactory(Key<T> key, PrivateElements privateElements) {
     this.key = key;
@@ -47,12 +52,29 @@ final class ExposedKeyFactory<T> implements InternalFactory<T>, CreationListener
       return;
     }
 
-    this.delegate = explicitBinding;
+    this.targetFactory = explicitBinding.getInternalFactory();
+  }
+
+  /**
+   * Returns the factory that provides the exposed binding, past any further exposures, or null if
+   * this isn't yet notified.
+   */
+  InternalFactory<? extends T> getTargetFactory() {
+    InternalFactory<? extends T> localTarget = targetFactory;
+    if (localTarget instanceof ExposedKeyFactory) {
+      // Skip exposures from nested private environments for good, once they're notified.
+      InternalFactory<? extends T> nestedTarget =
+          ((ExposedKeyFactory<? extends T>) localTarget).getTargetFactory();
+      if (nestedTarget != null) {
+        targetFactory = localTarget = nestedTarget;
+      }
+    }
+    return localTarget;
   }
 
   @Override
   public T get(Errors errors, InternalContext context, Dependency<?> dependency, boolean linked)
       throws ErrorsException {
-    return delegate.getInternalFactory().get(errors, context, dependency, linked);
+    return getTargetFactory().get(errors, context, dependency, linked);
   }
 }
@@ -17,13 +17,22 @@
 package com.google.inject.internal;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.inject.Key;
 import com.google.inject.internal.InjectorImpl.JitLimitation;
 import com.google.inject.spi.Dependency;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A placeholder which enables us to swap in the real factory once the injector is created. Used for
  * a linked binding, so that getting the linked binding returns the link's factory.
+ *
+ * <p>When the target is itself an unscoped linked binding, or a binding exposed from a private
+ * environment, this proxy provides straight from the factory at the end of that chain. It still
+ * records each link it skips in the context and errors, so error messages are the same as if each
+ * link had been followed in turn.
  */
 final class FactoryProxy<T> implements InternalFactory<T>, CreationListener {
 
@@ -34,6 +43,9 @@ final class FactoryProxy<T> implements InternalFactory<T>, CreationListener {
 
   private InternalFactory<? extends T> targetFactory;
 
+  /** The chain of links from this proxy, which is resolved when first needed. */
+  private Chain<T> chain;
+
   FactoryProxy(InjectorImpl injector, Key<T> key, Key<? extends T> targetKey, Object source) {
     this.injector = injector;
     this.key = key;
@@ -55,15 +67,54 @@ final class FactoryProxy<T> implements InternalFactory<T>, CreationListener {
   @Override
   public T get(Errors errors, InternalContext context, Dependency<?> dependency, boolean linked)
       throws ErrorsException {
-    Key<? extends T> localTargetKey = targetKey;
-    context.pushState(localTargetKey, source);
+    Chain<T> localChain = chain;
+    if (localChain == null) {
+      chain = localChain = resolveChain();
+    }
+    Key<?>[] keys = localChain.keys;
+    Object[] sources = localChain.sources;
+    for (int i = 0; i < keys.length; i++) {
+      context.pushState(keys[i], sources[i]);
+      errors = errors.withSource(keys[i]);
+    }
     try {
-    return targetFactory.get(errors.withSource(localTargetKey), context, dependency, true);
+      return localChain.factory.get(errors, context, dependency, true);
     } finally {
-      context.popState();
+      for (int i = 0; i < keys.length; i++) {
+        context.popState();
+      }
     }
   }
 
+  /**
+   * Follows the links from this proxy through unscoped linked bindings and exposed bindings, up to
+   * a factory that does the actual work, or one that isn't yet notified of its target.
+   */
+  @SuppressWarnings("unchecked") // each link provides a subtype of the key it's linked from
+  private Chain<T> resolveChain() {
+    List<Key<?>> keys = Lists.newArrayList();
+    List<Object> sources = Lists.newArrayList();
+    // A cycle of links is left in place, so that following it fails like it did before.
+    Set<FactoryProxy<?>> visited = Sets.newIdentityHashSet();
+    FactoryProxy<?> proxy = this;
+    InternalFactory<?> factory;
+    do {
+      visited.add(proxy);
+      keys.add(proxy.targetKey);
+      sources.add(proxy.source);
+      factory = proxy.targetFactory;
+      while (factory instanceof ExposedKeyFactory
+          && ((ExposedKeyFactory<?>) factory).getTargetFactory() != null) {
+        factory = ((ExposedKeyFactory<?>) factory).getTargetFactory();
+      }
+      proxy = factory instanceof FactoryProxy ? (FactoryProxy<?>) factory : null;
+    } while (proxy != null && proxy.targetFactory != null && !visited.contains(proxy));
+    return new Chain<T>(
+        keys.toArray(new Key<?>[keys.size()]),
+        sources.toArray(),
+        (InternalFactory<? extends T>) factory);
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(FactoryProxy.class)
@@ -71,4 +122,17 @@ final class FactoryProxy<T> implements InternalFactory<T>, CreationListener {
         .add("provider", targetFactory)
         .toString();
   }
+
+  /** The keys and sources of a chain of links, and the factory it ends at. */
+  private static final class Chain<T> {
+    final Key<?>[] keys;
+    final Object[] sources;
+    final InternalFactory<? extends T> factory;
+
+    Chain(Key<?>[] keys, Object[] sources, InternalFactory<? extends T> factory) {
+      this.keys = keys;
+      this.sources = sources;
+      this.factory = factory;
+    }
+  }
 }
@@ -62,4 +62,8 @@ public abstract class FailableCache<K, V> {
   boolean remove(K key) {
     return delegate.asMap().remove(key) != null;
   }
+
+  void clear() {
+    delegate.invalidateAll();
+  }
 }
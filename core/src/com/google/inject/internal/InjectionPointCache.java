@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.common.collect.MapMaker;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.PrivateElements;
+import com.google.inject.spi.UntargettedBinding;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The validated injection points of types, shared by injectors that are created from the same
+ * modules. Types whose injection points are invalid aren't cached, so that each injector reports
+ * their errors.
+ */
+public final class InjectionPointCache {
+  /** Finds injection points each time, for injectors that don't share them. */
+  static final InjectionPointCache NONE = new InjectionPointCache(false);
+
+  private final ConcurrentMap<TypeLiteral<?>, InjectionPoint> constructors;
+  private final ConcurrentMap<TypeLiteral<?>, Set<InjectionPoint>> instanceMembers;
+
+  public InjectionPointCache() {
+    this(true);
+  }
+
+  private InjectionPointCache(boolean enabled) {
+    constructors = enabled ? new MapMaker().<TypeLiteral<?>, InjectionPoint>makeMap() : null;
+    instanceMembers =
+        enabled ? new MapMaker().<TypeLiteral<?>, Set<InjectionPoint>>makeMap() : null;
+  }
+
+  /**
+   * Finds the injection points of the types that {@code elements} bind to their constructors, so
+   * that injectors don't need to.
+   */
+  public void addTargetsOf(List<Element> elements) {
+    for (Element element : elements) {
+      if (element instanceof PrivateElements) {
+        addTargetsOf(((PrivateElements) element).getElements());
+      } else if (element instanceof UntargettedBinding) {
+        addTarget(((UntargettedBinding<?>) element).getKey());
+      } else if (element instanceof LinkedKeyBinding) {
+        addTarget(((LinkedKeyBinding<?>) element).getLinkedKey());
+      }
+    }
+  }
+
+  private void addTarget(Key<?> key) {
+    try {
+      forConstructorOf(key.getTypeLiteral());
+      forInstanceMethodsAndFields(key.getTypeLiteral());
+    } catch (ConfigurationException e) {
+      // Not constructable, or the injectors report why.
+    }
+  }
+
+  /** Returns {@link InjectionPoint#forConstructorOf(TypeLiteral)}. */
+  InjectionPoint forConstructorOf(TypeLiteral<?> type) {
+    if (constructors == null) {
+      return InjectionPoint.forConstructorOf(type);
+    }
+    InjectionPoint result = constructors.get(type);
+    if (result == null) {
+      result = InjectionPoint.forConstructorOf(type);
+      constructors.putIfAbsent(type, result);
+    }
+    return result;
+  }
+
+  /** Returns {@link InjectionPoint#forInstanceMethodsAndFields(TypeLiteral)}. */
+  Set<InjectionPoint> forInstanceMethodsAndFields(TypeLiteral<?> type) {
+    if (instanceMembers == null) {
+      return InjectionPoint.forInstanceMethodsAndFields(type);
+    }
+    Set<InjectionPoint> result = instanceMembers.get(type);
+    if (result == null) {
+      result = InjectionPoint.forInstanceMethodsAndFields(type);
+      instanceMembers.putIfAbsent(type, result);
+    }
+    return result;
+  }
+}
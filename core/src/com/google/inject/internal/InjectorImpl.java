@@ -16,12 +16,16 @@
 
 package com.google.inject.internal;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.inject.Binder;
@@ -48,16 +52,22 @@ import com.google.inject.spi.InstanceBinding;
 import com.google.inject.spi.ProviderBinding;
 import com.google.inject.spi.TypeConverterBinding;
 import com.google.inject.util.Providers;
+import java.io.Closeable;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.Collections;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Default {@link Injector} implementation.
@@ -67,6 +77,8 @@ import java.util.Set;
 final class InjectorImpl implements Injector, Lookups {
   public static final TypeLiteral<String> STRING_TYPE = TypeLiteral.get(String.class);
 
+  private static final Logger logger = Logger.getLogger(InjectorImpl.class.getName());
+
   /** Options that control how the injector behaves. */
   static class InjectorOptions {
     final Stage stage;
@@ -112,17 +124,32 @@ final class InjectorImpl implements Injector, Lookups {
 
   final State state;
   final InjectorImpl parent;
-  final BindingsMultimap bindingsMultimap = new BindingsMultimap();
+  /** This injector's explicit bindings by type, set by {@link #index()}. */
+  private ImmutableListMultimap<TypeLiteral<?>, Binding<?>> bindingsByType =
+      ImmutableListMultimap.of();
   final InjectorOptions options;
 
   /** Just-in-time binding cache. Guarded by state.lock() */
   final Map<Key<?>, BindingImpl<?>> jitBindings = Maps.newHashMap();
+  /**
+   * Snapshot returned by {@link #getAllBindings}, or null if it must be rebuilt. Cleared under
+   * state.lock() whenever {@link #jitBindings} changes.
+   */
+  private volatile ImmutableMap<Key<?>, Binding<?>> allBindings;
   /**
    * Cache of Keys that we were unable to create JIT bindings for, so we don't keep trying. Also
    * guarded by state.lock().
    */
   final Set<Key<?>> failedJitBindings = Sets.newHashSet();
 
+  /** Immutable lookup tables, set once this injector is frozen. Written under state.lock(). */
+  private volatile FrozenBindings frozenBindings;
+
+  /** Set once this injector is closed. Written under state.lock(). */
+  private volatile boolean closed;
+  /** Closeable singletons this injector created, in order of creation. Guarded by itself. */
+  private final List<Closeable> closeableSingletons = Lists.newArrayList();
+
   Lookups lookups = new DeferredLookups(this);
 
   InjectorImpl(InjectorImpl parent, State state, InjectorOptions injectorOptions) {
@@ -142,18 +169,18 @@ final class InjectorImpl implements Injector, Lookups {
 
   /** Indexes bindings by type. */
   void index() {
+    ImmutableListMultimap.Builder<TypeLiteral<?>, Binding<?>> builder =
+        ImmutableListMultimap.builder();
     for (Binding<?> binding : state.getExplicitBindingsThisLevel().values()) {
-      index(binding);
+      builder.put(binding.getKey().getTypeLiteral(), binding);
     }
-  }
-
-  <T> void index(Binding<T> binding) {
-    bindingsMultimap.put(binding.getKey().getTypeLiteral(), binding);
+    bindingsByType = builder.build();
   }
 
   @Override
+  @SuppressWarnings("unchecked") // safe because we only index bindings under their own type
   public <T> List<Binding<T>> findBindingsByType(TypeLiteral<T> type) {
-    return bindingsMultimap.getAll(type);
+    return (List<Binding<T>>) (List) bindingsByType.get(type);
   }
 
   /** Returns the binding for {@code key} */
@@ -176,13 +203,21 @@ final class InjectorImpl implements Injector, Lookups {
     if (explicitBinding != null) {
       return explicitBinding;
     }
-    synchronized (state.lock()) {
-      // See if any jit bindings have been created for this key.
-      for (InjectorImpl injector = this; injector != null; injector = injector.parent) {
-        @SuppressWarnings("unchecked")
-        BindingImpl<T> jitBinding = (BindingImpl<T>) injector.jitBindings.get(key);
-        if (jitBinding != null) {
-          return jitBinding;
+    FrozenBindings frozen = frozenBindings;
+    if (frozen != null) {
+      BindingImpl<T> jitBinding = frozen.getJitBinding(key);
+      if (jitBinding != null) {
+        return jitBinding;
+      }
+    } else {
+      synchronized (state.lock()) {
+        // See if any jit bindings have been created for this key.
+        for (InjectorImpl injector = this; injector != null; injector = injector.parent) {
+          @SuppressWarnings("unchecked")
+          BindingImpl<T> jitBinding = (BindingImpl<T>) injector.jitBindings.get(key);
+          if (jitBinding != null) {
+            return jitBinding;
+          }
         }
       }
     }
@@ -253,6 +288,17 @@ final class InjectorImpl implements Injector, Lookups {
       throws ErrorsException {
 
     boolean jitOverride = isProvider(key) || isTypeLiteral(key) || isMembersInjector(key);
+    FrozenBindings frozen = frozenBindings;
+    if (frozen != null) {
+      BindingImpl<T> binding = frozen.getJitBinding(key);
+      if (binding == null && isProvider(key)) {
+        binding = getFrozenProviderBinding(frozen, key, errors);
+      }
+      if (binding == null) {
+        throw errors.jitDisabledByFreezing(key).toException();
+      }
+      return checkExistingJitBinding(key, binding, errors, jitType, jitOverride);
+    }
     synchronized (state.lock()) {
       // first try to find a JIT binding that we've already created
       for (InjectorImpl injector = this; injector != null; injector = injector.parent) {
@@ -260,16 +306,7 @@ final class InjectorImpl implements Injector, Lookups {
         BindingImpl<T> binding = (BindingImpl<T>) injector.jitBindings.get(key);
 
         if (binding != null) {
-          // If we found a JIT binding and we don't allow them,
-          // fail.  (But allow bindings created through TypeConverters.)
-          if (options.jitDisabled
-              && jitType == JitLimitation.NO_JIT
-              && !jitOverride
-              && !(binding instanceof ConvertedConstantBindingImpl)) {
-            throw errors.jitDisabled(key).toException();
-          } else {
-            return binding;
-          }
+          return checkExistingJitBinding(key, binding, errors, jitType, jitOverride);
         }
       }
 
@@ -294,6 +331,24 @@ final class InjectorImpl implements Injector, Lookups {
     } // end synchronized(state.lock())
   }
 
+  private <T> BindingImpl<T> checkExistingJitBinding(
+      Key<T> key,
+      BindingImpl<T> binding,
+      Errors errors,
+      JitLimitation jitType,
+      boolean jitOverride)
+      throws ErrorsException {
+    // If we found a JIT binding and we don't allow them,
+    // fail.  (But allow bindings created through TypeConverters.)
+    if (options.jitDisabled
+        && jitType == JitLimitation.NO_JIT
+        && !jitOverride
+        && !(binding instanceof ConvertedConstantBindingImpl)) {
+      throw errors.jitDisabled(key).toException();
+    }
+    return binding;
+  }
+
   /** Returns true if the key type is Provider (but not a subclass of Provider). */
   private static boolean isProvider(Key<?> key) {
     return key.getTypeLiteral().getRawType().equals(Provider.class);
@@ -350,6 +405,24 @@ final class InjectorImpl implements Injector, Lookups {
         membersInjector);
   }
 
+  /**
+   * Returns the synthetic binding to a {@code Provider<T>} key of a frozen injector, creating it
+   * from {@code Binding<T>} if necessary. This needs no new state, so frozen injectors support
+   * provider keys that weren't looked up before freezing.
+   */
+  private <T> BindingImpl<T> getFrozenProviderBinding(
+      FrozenBindings frozen, Key<T> key, Errors errors) throws ErrorsException {
+    BindingImpl<T> binding = frozen.getProviderBinding(key);
+    if (binding == null) {
+      // These casts are safe. We know T extends Provider<X> and that given Key<Provider<X>>,
+      // createProviderBinding() will return BindingImpl<Provider<X>>.
+      @SuppressWarnings({"unchecked", "cast"})
+      BindingImpl<T> created = (BindingImpl<T>) createProviderBinding((Key) key, errors);
+      binding = frozen.putProviderBinding(key, created);
+    }
+    return binding;
+  }
+
   /**
    * Creates a synthetic binding to {@code Provider<T>}, i.e. a binding to the provider from {@code
    * Binding<T>}.
@@ -592,6 +665,7 @@ final class InjectorImpl implements Injector, Lookups {
     if (binding instanceof DelayedInitialize) {
       Key<T> key = binding.getKey();
       jitBindings.put(key, binding);
+      allBindings = null;
       boolean successful = false;
       DelayedInitialize delayed = (DelayedInitialize) binding;
       try {
@@ -650,6 +724,7 @@ final class InjectorImpl implements Injector, Lookups {
   private void removeFailedJitBinding(Binding<?> binding, InjectionPoint ip) {
     failedJitBindings.add(binding.getKey());
     jitBindings.remove(binding.getKey());
+    allBindings = null;
     membersInjectorStore.remove(binding.getKey().getTypeLiteral());
     provisionListenerStore.remove(binding);
     if (ip != null) {
@@ -842,6 +917,13 @@ final class InjectorImpl implements Injector, Lookups {
       }
     }
 
+    if (closed) {
+      throw errors.jitDisabledByClosing(key).toException();
+    }
+    if (frozenBindings != null) {
+      throw errors.jitDisabledByFreezing(key).toException();
+    }
+
     // Retrieve the sources before checking for blacklisting to guard against sources becoming null
     // due to a full GC happening after calling state.isBlacklisted and
     // state.getSourcesForBlacklistedKey.
@@ -855,6 +937,7 @@ final class InjectorImpl implements Injector, Lookups {
     BindingImpl<T> binding = createJustInTimeBinding(key, errors, jitDisabled, jitType);
     state.parent().blacklist(key, state, binding.getSource());
     jitBindings.put(key, binding);
+    allBindings = null;
     return binding;
   }
 
@@ -948,45 +1031,173 @@ final class InjectorImpl implements Injector, Lookups {
 
   @Override
   public Map<Key<?>, Binding<?>> getAllBindings() {
+    ImmutableMap<Key<?>, Binding<?>> result = allBindings;
+    if (result != null) {
+      return result;
+    }
     synchronized (state.lock()) {
-      return new ImmutableMap.Builder<Key<?>, Binding<?>>()
-          .putAll(state.getExplicitBindingsThisLevel())
-          .putAll(jitBindings)
-          .build();
+      result = allBindings;
+      if (result == null) {
+        result =
+            new ImmutableMap.Builder<Key<?>, Binding<?>>()
+                .putAll(state.getExplicitBindingsThisLevel())
+                .putAll(jitBindings)
+                .build();
+        allBindings = result;
+      }
+      return result;
     }
   }
 
   @Override
-  public Map<Class<? extends Annotation>, Scope> getScopeBindings() {
-    return ImmutableMap.copyOf(state.getScopes());
+  public void freeze() {
+    if (frozenBindings != null) {
+      return;
+    }
+    synchronized (state.lock()) {
+      if (frozenBindings != null) {
+        return;
+      }
+      FrozenBindings parentBindings = parent != null ? parent.frozenBindings : null;
+      checkState(
+          parent == null || parentBindings != null,
+          "Freeze the parent injector before freezing its child injectors.");
+      // The parent is frozen, so the bindings this needs are created here.
+      createJitBindingsForDependencies();
+      Map<Key<?>, BindingImpl<?>> allJitBindings = Maps.newLinkedHashMap(jitBindings);
+      if (parentBindings != null) {
+        allJitBindings.putAll(parentBindings.jitBindings);
+      }
+      frozenBindings = new FrozenBindings(ImmutableMap.copyOf(allJitBindings));
+    }
   }
 
-  @Override
-  public Set<TypeConverterBinding> getTypeConverterBindings() {
-    return ImmutableSet.copyOf(state.getConvertersThisLevel());
+  /**
+   * Creates the just-in-time bindings needed by this injector's bindings, their dependencies, and
+   * so on. Keys that can't be bound are left for the lookups that need them to report.
+   */
+  private void createJitBindingsForDependencies() {
+    Deque<Binding<?>> pending = new ArrayDeque<Binding<?>>();
+    pending.addAll(state.getExplicitBindingsThisLevel().values());
+    pending.addAll(jitBindings.values());
+    Set<Key<?>> visited = Sets.newHashSet();
+    for (Binding<?> binding : pending) {
+      visited.add(binding.getKey());
+    }
+    Binding<?> binding;
+    while ((binding = pending.poll()) != null) {
+      if (!(binding instanceof HasDependencies)) {
+        continue;
+      }
+      for (Dependency<?> dependency : ((HasDependencies) binding).getDependencies()) {
+        if (visited.add(dependency.getKey())) {
+          try {
+            pending.add(getBindingOrThrow(dependency.getKey(), new Errors(), JitLimitation.NO_JIT));
+          } catch (ErrorsException ignored) {
+          }
+        }
+      }
+    }
+  }
+
+  /** The bindings of a frozen injector, which no longer change. */
+  private static final class FrozenBindings {
+    /** Just-in-time bindings of the injector and all of its ancestors. */
+    final ImmutableMap<Key<?>, BindingImpl<?>> jitBindings;
+
+    /** Synthetic bindings to provider keys that weren't looked up before freezing. */
+    final ConcurrentMap<Key<?>, BindingImpl<?>> providerBindings = new MapMaker().makeMap();
+
+    FrozenBindings(ImmutableMap<Key<?>, BindingImpl<?>> jitBindings) {
+      this.jitBindings = jitBindings;
+    }
+
+    @SuppressWarnings("unchecked") // we only store bindings that match their key
+    <T> BindingImpl<T> getJitBinding(Key<T> key) {
+      return (BindingImpl<T>) jitBindings.get(key);
+    }
+
+    @SuppressWarnings("unchecked") // we only store bindings that match their key
+    <T> BindingImpl<T> getProviderBinding(Key<T> key) {
+      return (BindingImpl<T>) providerBindings.get(key);
+    }
+
+    /** Stores {@code binding} unless another thread got there first, and returns the winner. */
+    @SuppressWarnings("unchecked") // we only store bindings that match their key
+    <T> BindingImpl<T> putProviderBinding(Key<T> key, BindingImpl<T> binding) {
+      BindingImpl<?> existing = providerBindings.putIfAbsent(key, binding);
+      return existing != null ? (BindingImpl<T>) existing : binding;
+    }
   }
 
-  private static class BindingsMultimap {
-    final Map<TypeLiteral<?>, List<Binding<?>>> multimap = Maps.newHashMap();
+  @Override
+  public void close() {
+    synchronized (state.lock()) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      frozenBindings = null;
+      jitBindings.clear();
+      allBindings = null;
+      failedJitBindings.clear();
+      constructors.clear();
+      membersInjectorStore.clear();
+      provisionListenerStore.clear();
+    }
+    if (parent == null) {
+      // Other threads' entries go once the thread local itself is collected with this injector.
+      localContext.remove();
+    }
+
+    List<Closeable> toClose;
+    synchronized (closeableSingletons) {
+      toClose = Lists.reverse(ImmutableList.copyOf(closeableSingletons));
+      closeableSingletons.clear();
+    }
+    for (Closeable closeable : toClose) {
+      closeQuietly(closeable);
+    }
+  }
 
-    <T> void put(TypeLiteral<T> type, Binding<T> binding) {
-      List<Binding<?>> bindingsForType = multimap.get(type);
-      if (bindingsForType == null) {
-        bindingsForType = Lists.newArrayList();
-        multimap.put(type, bindingsForType);
+  /**
+   * Called by the {@link SingletonScope} provider once it created {@code instance} for one of this
+   * injector's bindings, so that it can be closed along with the injector.
+   */
+  void singletonCreated(Object instance) {
+    if (!(instance instanceof Closeable)) {
+      return;
+    }
+    synchronized (closeableSingletons) {
+      if (!closed) {
+        closeableSingletons.add((Closeable) instance);
+        return;
       }
-      bindingsForType.add(binding);
     }
+    // The provision started before this injector was closed, and nothing would close it later.
+    closeQuietly((Closeable) instance);
+  }
 
-    @SuppressWarnings("unchecked") // safe because we only put matching entries into the map
-    <T> List<Binding<T>> getAll(TypeLiteral<T> type) {
-      List<Binding<?>> bindings = multimap.get(type);
-      return bindings != null
-          ? Collections.<Binding<T>>unmodifiableList((List) multimap.get(type))
-          : ImmutableList.<Binding<T>>of();
+  private static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to close " + closeable, e);
+    } catch (RuntimeException e) {
+      logger.log(Level.WARNING, "Failed to close " + closeable, e);
     }
   }
 
+  @Override
+  public Map<Class<? extends Annotation>, Scope> getScopeBindings() {
+    return ImmutableMap.copyOf(state.getScopes());
+  }
+
+  @Override
+  public Set<TypeConverterBinding> getTypeConverterBindings() {
+    return ImmutableSet.copyOf(state.getConvertersThisLevel());
+  }
+
   /** Returns parameter injectors, or {@code null} if there are no parameters. */
   SingleParameterInjector<?>[] getParametersInjectors(List<Dependency<?>> parameters, Errors errors)
       throws ErrorsException {
@@ -1028,6 +1239,9 @@ final class InjectorImpl implements Injector, Lookups {
   /** Cached field and method injectors for each type. */
   MembersInjectorStore membersInjectorStore;
 
+  /** Injection points of types, possibly shared with other injectors. */
+  InjectionPointCache injectionPoints;
+
   /** Cached provision listener callbacks for each key. */
   ProvisionListenerCallbackStore provisionListenerStore;
 
@@ -1041,6 +1255,10 @@ final class InjectorImpl implements Injector, Lookups {
   @Override
   public <T> MembersInjector<T> getMembersInjector(TypeLiteral<T> typeLiteral) {
     Errors errors = new Errors(typeLiteral);
+    if (closed) {
+      // Don't refill the cache that closing emptied.
+      throw new ConfigurationException(errors.injectorClosed().getMessages());
+    }
     try {
       return membersInjectorStore.get(typeLiteral, errors);
     } catch (ErrorsException e) {
@@ -1137,8 +1355,14 @@ final class InjectorImpl implements Injector, Lookups {
     return (InternalContext) localContext.get()[0];
   }
 
-  /** Looks up thread local context. Creates (and removes) a new context if necessary. */
+  /**
+   * Looks up thread local context. Creates (and removes) a new context if necessary. Fails once
+   * this injector is closed, so a closed injector doesn't create any more objects.
+   */
   <T> T callInContext(ContextualCallable<T> callable) throws ErrorsException {
+    if (closed) {
+      throw new Errors().injectorClosed().toException();
+    }
     Object[] reference = localContext.get();
     if (reference == null) {
       reference = new Object[1];
@@ -35,6 +35,8 @@ import com.google.inject.spi.Dependency;
 import com.google.inject.spi.Element;
 import com.google.inject.spi.Elements;
 import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.LinkedKeyBinding;
 import com.google.inject.spi.ModuleAnnotatedMethodScannerBinding;
 import com.google.inject.spi.PrivateElements;
 import com.google.inject.spi.ProvisionListenerBinding;
@@ -53,9 +55,13 @@ final class InjectorShell {
   private final List<Element> elements;
   private final InjectorImpl injector;
 
+  /** null unless this exists in a {@link Binder#newPrivateBinder private environment} */
+  private final PrivateElementsImpl privateElements;
+
   private InjectorShell(Builder builder, List<Element> elements, InjectorImpl injector) {
     this.elements = elements;
     this.injector = injector;
+    this.privateElements = builder.privateElements;
   }
 
   InjectorImpl getInjector() {
@@ -66,6 +72,11 @@ final class InjectorShell {
     return elements;
   }
 
+  /** Returns the private environment of this shell's injector, or null if it has none. */
+  PrivateElementsImpl getPrivateElements() {
+    return privateElements;
+  }
+
   static class Builder {
     private final List<Element> elements = Lists.newArrayList();
     private final List<Module> modules = Lists.newArrayList();
@@ -80,6 +91,11 @@ final class InjectorShell {
     /** null unless this exists in a {@link Binder#newPrivateBinder private environment} */
     private PrivateElementsImpl privateElements;
 
+    private boolean recorded;
+
+    /** null to use the parent's, if any */
+    private InjectionPointCache injectionPoints;
+
     Builder stage(Stage stage) {
       this.stage = stage;
       return this;
@@ -93,6 +109,11 @@ final class InjectorShell {
       return this;
     }
 
+    Builder injectionPoints(InjectionPointCache injectionPoints) {
+      this.injectionPoints = injectionPoints;
+      return this;
+    }
+
     Builder privateElements(PrivateElements privateElements) {
       this.privateElements = (PrivateElementsImpl) privateElements;
       this.elements.addAll(privateElements.getElements());
@@ -114,6 +135,25 @@ final class InjectorShell {
       return getState().lock();
     }
 
+    /**
+     * Runs the modules and records their elements. This only runs user code and reads the parent's
+     * state, which no longer changes, so it can be done before synchronizing on the {@link #lock}.
+     * Otherwise, {@link #build} does it.
+     */
+    void recordElements() {
+      checkState(stage != null, "Stage not initialized");
+      checkState(!recorded, "Elements already recorded");
+      recorded = true;
+
+      // bind Singleton if this is a top-level injector
+      if (parent == null) {
+        modules.add(0, new RootModule());
+      } else {
+        modules.add(0, new InheritedScannersModule(parent.state));
+      }
+      elements.addAll(Elements.getElements(stage, modules));
+    }
+
     /**
      * Creates and returns the injector shells for the current modules. Multiple shells will be
      * returned if any modules contain {@link Binder#newPrivateBinder private environments}. The
@@ -128,20 +168,16 @@ final class InjectorShell {
       checkState(privateElements == null || parent != null, "PrivateElements with no parent");
       checkState(state != null, "no state. Did you remember to lock() ?");
 
-      // bind Singleton if this is a top-level injector
-      if (parent == null) {
-        modules.add(0, new RootModule());
-      } else {
-        modules.add(0, new InheritedScannersModule(parent.state));
+      if (!recorded) {
+        recordElements();
       }
-      elements.addAll(Elements.getElements(stage, modules));
 
       // Look for injector-changing options
       InjectorOptionsProcessor optionsProcessor = new InjectorOptionsProcessor(errors);
       optionsProcessor.process(null, elements);
       options = optionsProcessor.getOptions(stage, options);
 
-      InjectorImpl injector = new InjectorImpl(parent, state, options);
+      InjectorImpl injector = newInjector();
       if (privateElements != null) {
         privateElements.initInjector(injector);
       }
@@ -203,6 +239,72 @@ final class InjectorShell {
       return injectorShells;
     }
 
+    /**
+     * Returns true if this builds a child injector whose modules only bind keys, without scopes, to
+     * other keys or to instances without injectable members. {@link #buildLightweight} builds
+     * those injectors.
+     */
+    boolean isLightweight() {
+      checkState(recorded, "Elements not recorded");
+      if (parent == null || privateElements != null) {
+        return false;
+      }
+      for (Element element : elements) {
+        if (element instanceof InstanceBinding) {
+          InstanceBinding<?> binding = (InstanceBinding<?>) element;
+          if (!binding.getInjectionPoints().isEmpty()
+              || ((BindingImpl<?>) binding).getScoping() != Scoping.EAGER_SINGLETON) {
+            return false;
+          }
+        } else if (element instanceof LinkedKeyBinding) {
+          if (((BindingImpl<?>) element).getScoping() != Scoping.UNSCOPED) {
+            return false;
+          }
+        } else if (!(element instanceof ModuleAnnotatedMethodScannerBinding)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Creates and returns the shell of a {@link #isLightweight lightweight} child injector,
+     * skipping the processors that would find nothing to process. This only synchronizes on the
+     * {@link #lock} while the bindings are checked against the parent's and blacklisted there.
+     * Nothing else reads the new injector's state until it is built.
+     */
+    InjectorShell buildLightweight(
+        Initializer initializer, ProcessedBindingData bindingData, Errors errors) {
+      checkState(isLightweight(), "Not a lightweight child injector");
+
+      InjectorImpl injector = newInjector();
+      injector.membersInjectorStore =
+          new MembersInjectorStore(injector, state.getTypeListenerBindings());
+      injector.provisionListenerStore =
+          new ProvisionListenerCallbackStore(state.getProvisionListenerBindings());
+
+      bindStage(injector, stage);
+      bindInjector(injector);
+      bindLogger(injector);
+
+      new ModuleAnnotatedMethodScannerProcessor(errors).process(injector, elements);
+      synchronized (lock()) {
+        new BindingProcessor(errors, initializer, bindingData).process(injector, elements);
+      }
+      return new InjectorShell(this, elements, injector);
+    }
+
+    private InjectorImpl newInjector() {
+      InjectorImpl injector = new InjectorImpl(parent, state, options);
+      if (injectionPoints != null) {
+        injector.injectionPoints = injectionPoints;
+      } else {
+        injector.injectionPoints =
+            parent != null ? parent.injectionPoints : InjectionPointCache.NONE;
+      }
+      return injector;
+    }
+
     private State getState() {
       if (state == null) {
         state = new InheritingState(State.NONE);
@@ -36,6 +36,9 @@ public class InternalFlags {
   private static final NullableProvidesOption NULLABLE_PROVIDES
       = parseNullableProvidesOption(NullableProvidesOption.ERROR);
 
+  private static final BindingMetadataOption BINDING_METADATA
+      = parseBindingMetadataOption();
+
 
   /**
    * The options for Guice stack trace collection.
@@ -68,6 +71,21 @@ public class InternalFlags {
     ERROR
   }
 
+  /**
+   * The options for what Guice keeps of the metadata of bindings once an injector is created.
+   */
+  public enum BindingMetadataOption {
+    /** Keep element sources and recorded elements for the SPI (Default) */
+    FULL,
+    /**
+     * Keep only what error messages show of binding sources, shared between injectors, and drop
+     * the recorded elements of private modules. Bindings' sources are then no longer {@link
+     * com.google.inject.spi.ElementSource}s, and {@link
+     * com.google.inject.spi.PrivateElements#getElements} is empty once the injector is created.
+     */
+    COMPACT
+  }
+
   public static IncludeStackTraceOption getIncludeStackTraceOption() {
     return INCLUDE_STACK_TRACES;
   }
@@ -80,6 +98,10 @@ public class InternalFlags {
     return NULLABLE_PROVIDES;
   }
 
+  public static BindingMetadataOption getBindingMetadataOption() {
+    return BINDING_METADATA;
+  }
+
   private static IncludeStackTraceOption parseIncludeStackTraceOption() {
     return getSystemOption("guice_include_stack_traces",
         IncludeStackTraceOption.ONLY_FOR_DECLARING_SOURCE);
@@ -95,6 +117,10 @@ public class InternalFlags {
     return getSystemOption("guice_check_nullable_provides_params", defaultValue);
   }
 
+  private static BindingMetadataOption parseBindingMetadataOption() {
+    return getSystemOption("guice_binding_metadata", BindingMetadataOption.FULL);
+  }
+
   /**
    * Gets the system option indicated by the specified key; runs as a privileged action.
    *
@@ -27,6 +27,7 @@ import com.google.inject.Provider;
 import com.google.inject.Scope;
 import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
+import com.google.inject.internal.InternalFlags.BindingMetadataOption;
 import com.google.inject.internal.util.Stopwatch;
 import com.google.inject.spi.Dependency;
 import com.google.inject.spi.TypeConverterBinding;
@@ -88,6 +89,12 @@ public final class InternalInjectorCreator {
     return this;
   }
 
+  /** Shares the injection points found by {@code injectionPoints} with the new injector. */
+  public InternalInjectorCreator injectionPoints(InjectionPointCache injectionPoints) {
+    shellBuilder.injectionPoints(injectionPoints);
+    return this;
+  }
+
   public InternalInjectorCreator addModules(Iterable<? extends Module> modules) {
     shellBuilder.addModules(modules);
     return this;
@@ -98,6 +105,12 @@ public final class InternalInjectorCreator {
       throw new AssertionError("Already built, builders are not reusable.");
     }
 
+    // Run the modules first, so that other threads can use the parent injector meanwhile.
+    shellBuilder.recordElements();
+    if (shellBuilder.isLightweight()) {
+      return buildLightweight();
+    }
+
     // Synchronize while we're building up the bindings and other injector state. This ensures that
     // the JIT bindings in the parent injector don't change while we're being built
     synchronized (shellBuilder.lock()) {
@@ -109,6 +122,14 @@ public final class InternalInjectorCreator {
 
     injectDynamically();
 
+    if (InternalFlags.getBindingMetadataOption() == BindingMetadataOption.COMPACT) {
+      for (InjectorShell shell : shells) {
+        if (shell.getPrivateElements() != null) {
+          shell.getPrivateElements().compact();
+        }
+      }
+    }
+
     if (shellBuilder.getStage() == Stage.TOOL) {
       // wrap the primaryInjector in a ToolStageInjector
       // to prevent non-tool-friendy methods from being called.
@@ -118,6 +139,37 @@ public final class InternalInjectorCreator {
     }
   }
 
+  /**
+   * Builds a child injector whose modules only bind keys to other keys or to instances. This runs
+   * the same phases as {@link #build}, minus those with nothing to do, and only holds the lock
+   * while the child's bindings are added. Linked bindings are resolved afterwards, like bindings
+   * that are first used at runtime; the just-in-time bindings that this creates synchronize on
+   * their own.
+   */
+  private Injector buildLightweight() {
+    InjectorShell shell = shellBuilder.buildLightweight(initializer, bindingData, errors);
+    shells = ImmutableList.of(shell);
+    InjectorImpl injector = shell.getInjector();
+
+    injector.index();
+    bindingData.runCreationListeners(errors);
+    initializer.validateOustandingInjections(errors);
+    ((DeferredLookups) injector.lookups).initialize(errors);
+    if (!shell.getElements().isEmpty()) {
+      throw new AssertionError("Failed to execute " + shell.getElements());
+    }
+    errors.throwCreationExceptionIfErrorsExist();
+
+    initializer.injectAll(errors);
+    errors.throwCreationExceptionIfErrorsExist();
+    if (shellBuilder.getStage() == Stage.TOOL) {
+      return new ToolStageInjector(injector);
+    }
+    loadEagerSingletons(injector, shellBuilder.getStage(), errors);
+    errors.throwCreationExceptionIfErrorsExist();
+    return injector;
+  }
+
   /** Initialize and validate everything. */
   private void initializeStatically() {
     bindingData.initializeBindings();
@@ -312,6 +364,16 @@ public final class InternalInjectorCreator {
       return delegateInjector.getTypeConverterBindings();
     }
 
+    @Override
+    public void freeze() {
+      delegateInjector.freeze();
+    }
+
+    @Override
+    public void close() {
+      delegateInjector.close();
+    }
+
     @Override
     public <T> Provider<T> getProvider(Key<T> key) {
       throw new UnsupportedOperationException(
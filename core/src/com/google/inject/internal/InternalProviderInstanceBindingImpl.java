@@ -8,6 +8,7 @@ import com.google.inject.spi.Dependency;
 import com.google.inject.spi.HasDependencies;
 import com.google.inject.spi.InjectionPoint;
 import com.google.inject.spi.ProviderWithExtensionVisitor;
+import java.util.Map;
 
 /**
  * A {@link ProviderInstanceBindingImpl} for implementing 'native' guice extensions.
@@ -89,6 +90,16 @@ final class InternalProviderInstanceBindingImpl<T> extends ProviderInstanceBindi
       return source;
     }
 
+    /**
+     * Returns a new factory like this one, for use by another injector, or null if this factory
+     * can't be copied. Factories can only be initialized by one injector. {@code copies} maps each
+     * object already copied for the other injector to its copy, so that the copies of factories
+     * sharing some state share a copy of that state.
+     */
+    Factory<T> copy(Map<Object, Object> copies) {
+      return null;
+    }
+
     /**
      * A callback that allows for implementations to fetch dependencies on other bindings.
      *
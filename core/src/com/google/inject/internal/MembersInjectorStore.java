@@ -78,6 +78,11 @@ final class MembersInjectorStore {
     return cache.remove(type);
   }
 
+  /** Purges all members injectors, for when the injector is closed. */
+  void clear() {
+    cache.clear();
+  }
+
   /** Creates a new members injector and attaches both injection listeners and method aspects. */
   private <T> MembersInjectorImpl<T> createWithListeners(TypeLiteral<T> type, Errors errors)
       throws ErrorsException {
@@ -85,7 +90,7 @@ final class MembersInjectorStore {
 
     Set<InjectionPoint> injectionPoints;
     try {
-      injectionPoints = InjectionPoint.forInstanceMethodsAndFields(type);
+      injectionPoints = injector.injectionPoints.forInstanceMethodsAndFields(type);
     } catch (ConfigurationException e) {
       errors.merge(e.getErrorMessages());
       injectionPoints = e.getPartialValue();
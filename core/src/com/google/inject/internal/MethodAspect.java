@@ -18,7 +18,9 @@ package com.google.inject.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.matcher.Matcher;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
@@ -34,6 +36,8 @@ final class MethodAspect {
   private final Matcher<? super Class<?>> classMatcher;
   private final Matcher<? super Method> methodMatcher;
   private final List<MethodInterceptor> interceptors;
+  private final ImmutableSet<Class<? extends Annotation>> requiredAnnotationTypes;
+  private final ImmutableSet<Object> classIndexKeys;
 
   /**
    * @param classMatcher matches classes the interceptor should apply to. For example: {@code
@@ -49,6 +53,8 @@ final class MethodAspect {
     this.classMatcher = checkNotNull(classMatcher, "class matcher");
     this.methodMatcher = checkNotNull(methodMatcher, "method matcher");
     this.interceptors = checkNotNull(interceptors, "interceptors");
+    this.requiredAnnotationTypes = RequiredAnnotations.of(methodMatcher);
+    this.classIndexKeys = ClassIndexKeys.of(classMatcher);
   }
 
   MethodAspect(
@@ -66,6 +72,22 @@ final class MethodAspect {
     return methodMatcher.matches(method);
   }
 
+  /**
+   * Returns the annotation types of which a method must carry at least one to match, or null if
+   * the method matcher doesn't say.
+   */
+  ImmutableSet<Class<? extends Annotation>> requiredAnnotationTypes() {
+    return requiredAnnotationTypes;
+  }
+
+  /**
+   * Returns the {@link ClassIndexKeys keys} of which a class must have at least one to match, or
+   * null if the class matcher doesn't say.
+   */
+  ImmutableSet<Object> classIndexKeys() {
+    return classIndexKeys;
+  }
+
   List<MethodInterceptor> interceptors() {
     return interceptors;
   }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An injector's method aspects, indexed by the {@link ClassIndexKeys keys} their class matchers
+ * require. Aspects whose class matchers don't say are tried for every class.
+ */
+final class MethodAspectIndex {
+  private final ImmutableList<MethodAspect> aspects;
+
+  /** Positions of the aspects that must be tried for every class. */
+  private final BitSet unindexed = new BitSet();
+
+  /** Positions of the aspects that require each key. */
+  private final Map<Object, BitSet> indexed = Maps.newHashMap();
+
+  MethodAspectIndex(ImmutableList<MethodAspect> aspects) {
+    this.aspects = aspects;
+    for (int i = 0; i < aspects.size(); i++) {
+      Iterable<Object> keys = aspects.get(i).classIndexKeys();
+      if (keys == null) {
+        unindexed.set(i);
+        continue;
+      }
+      for (Object key : keys) {
+        BitSet positions = indexed.get(key);
+        if (positions == null) {
+          positions = new BitSet();
+          indexed.put(key, positions);
+        }
+        positions.set(i);
+      }
+    }
+  }
+
+  /** Returns the number of aspects in this index. */
+  int size() {
+    return aspects.size();
+  }
+
+  /**
+   * Returns the aspects whose class matchers could match {@code clazz}, in the order they were
+   * bound. Their class matchers still need to be tried.
+   */
+  List<MethodAspect> candidates(Class<?> clazz) {
+    if (indexed.isEmpty()) {
+      return aspects;
+    }
+    BitSet positions = (BitSet) unindexed.clone();
+    for (Object key : ClassIndexKeys.keysOf(clazz)) {
+      BitSet keyPositions = indexed.get(key);
+      if (keyPositions != null) {
+        positions.or(keyPositions);
+      }
+    }
+    List<MethodAspect> result = Lists.newArrayListWithCapacity(positions.cardinality());
+    for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+      result.add(aspects.get(i));
+    }
+    return result;
+  }
+}
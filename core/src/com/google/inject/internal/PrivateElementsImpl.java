@@ -106,6 +106,21 @@ public final class PrivateElementsImpl implements PrivateElements {
     return visitor.visit(this);
   }
 
+  /**
+   * Drops the recorded elements and compacts the sources of exposed keys, once the private
+   * injector has been created and doesn't need them anymore.
+   */
+  void compact() {
+    getExposedKeys(); // ensure exposedKeysToSources is populated
+    Map<Key<?>, Object> compactKeysToSources = Maps.newLinkedHashMap();
+    for (Map.Entry<Key<?>, Object> entry : exposedKeysToSources.entrySet()) {
+      compactKeysToSources.put(entry.getKey(), CompactSource.compact(entry.getValue()));
+    }
+    exposedKeysToSources = ImmutableMap.copyOf(compactKeysToSources);
+    elements = ImmutableList.of();
+    elementsMutable = null;
+  }
+
   public List<Element> getElementsMutable() {
     return elementsMutable;
   }
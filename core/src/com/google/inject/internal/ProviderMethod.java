@@ -36,6 +36,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -120,6 +121,16 @@ public abstract class ProviderMethod<T> extends InternalProviderInstanceBindingI
     this.annotation = annotation;
   }
 
+  private ProviderMethod(ProviderMethod<T> original) {
+    this(
+        original.key,
+        original.method,
+        original.instance,
+        original.dependencies,
+        original.scopeAnnotation,
+        original.annotation);
+  }
+
   @Override
   public Key<T> getKey() {
     return key;
@@ -161,6 +172,17 @@ public abstract class ProviderMethod<T> extends InternalProviderInstanceBindingI
     }
   }
 
+  /**
+   * Returns a new provider for the same method, for use by another injector. Providers can only be
+   * initialized by one injector.
+   */
+  abstract ProviderMethod<T> copy();
+
+  @Override
+  ProviderMethod<T> copy(Map<Object, Object> copies) {
+    return copy();
+  }
+
   @Override
   void initialize(InjectorImpl injector, Errors errors) throws ErrorsException {
     parameterInjectors = injector.getParametersInjectors(dependencies.asList(), errors);
@@ -255,6 +277,17 @@ public abstract class ProviderMethod<T> extends InternalProviderInstanceBindingI
       this.methodIndex = fc.getMethod(method).getIndex();
     }
 
+    FastClassProviderMethod(FastClassProviderMethod<T> original) {
+      super(original);
+      this.fastClass = original.fastClass;
+      this.methodIndex = original.methodIndex;
+    }
+
+    @Override
+    ProviderMethod<T> copy() {
+      return new FastClassProviderMethod<T>(this);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public T doProvision(Object[] parameters)
@@ -278,6 +311,15 @@ public abstract class ProviderMethod<T> extends InternalProviderInstanceBindingI
       super(key, method, instance, dependencies, scopeAnnotation, annotation);
     }
 
+    ReflectionProviderMethod(ReflectionProviderMethod<T> original) {
+      super(original);
+    }
+
+    @Override
+    ProviderMethod<T> copy() {
+      return new ReflectionProviderMethod<T>(this);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     T doProvision(Object[] parameters) throws IllegalAccessException, InvocationTargetException {
@@ -18,10 +18,15 @@ package com.google.inject.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.inject.Binder;
 import com.google.inject.Key;
@@ -38,6 +43,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Creates bindings to methods annotated with {@literal @}{@link Provides}. Use the scope and
@@ -48,14 +55,12 @@ import java.util.List;
  */
 public final class ProviderMethodsModule implements Module {
   private final Object delegate;
-  private final TypeLiteral<?> typeLiteral;
   private final boolean skipFastClassGeneration;
   private final ModuleAnnotatedMethodScanner scanner;
 
   private ProviderMethodsModule(
       Object delegate, boolean skipFastClassGeneration, ModuleAnnotatedMethodScanner scanner) {
     this.delegate = checkNotNull(delegate, "delegate");
-    this.typeLiteral = TypeLiteral.get(this.delegate.getClass());
     this.skipFastClassGeneration = skipFastClassGeneration;
     this.scanner = scanner;
   }
@@ -103,24 +108,79 @@ public final class ProviderMethodsModule implements Module {
   }
 
   public List<ProviderMethod<?>> getProviderMethods(Binder binder) {
-    List<ProviderMethod<?>> result = null;
+    ModuleScan scan = getModuleScan(delegate.getClass(), scanner);
+    if (scan.steps.isEmpty()) {
+      return ImmutableList.of();
+    }
+    List<ProviderMethod<?>> result = Lists.newArrayList();
+    DeclaredMethods declaredMethods = new DeclaredMethods(delegate.getClass());
+    for (ScanStep step : scan.steps) {
+      step.apply(this, binder, declaredMethods, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns what scanning {@code moduleClass} for methods claimed by {@code scanner} found. Scans
+   * are cached per class and scanner, so installing many instances of a module class reflects over
+   * it only once.
+   *
+   * <p>Scans identify the methods they found by name and parameter type names, and their errors
+   * are formatted up front, so they don't reference the module class or any other class. Both the
+   * classes and the scanners are weakly referenced, so caching a scan doesn't keep a class loader
+   * from being unloaded.
+   */
+  private static ModuleScan getModuleScan(
+      Class<?> moduleClass, ModuleAnnotatedMethodScanner scanner) {
+    ConcurrentMap<ModuleAnnotatedMethodScanner, ModuleScan> scans =
+        moduleScanCache.getUnchecked(moduleClass);
+    ModuleScan scan = scans.get(scanner);
+    if (scan == null) {
+      // Racing threads may each scan the class, but they all find the same thing.
+      scan = scanModule(TypeLiteral.get(moduleClass), scanner);
+      scans.put(scanner, scan);
+    }
+    return scan;
+  }
+
+  private static final LoadingCache<
+          Class<?>, ConcurrentMap<ModuleAnnotatedMethodScanner, ModuleScan>>
+      moduleScanCache =
+          CacheBuilder.newBuilder()
+              .weakKeys()
+              .build(
+                  new CacheLoader<
+                      Class<?>, ConcurrentMap<ModuleAnnotatedMethodScanner, ModuleScan>>() {
+                    @Override
+                    public ConcurrentMap<ModuleAnnotatedMethodScanner, ModuleScan> load(
+                        Class<?> moduleClass) {
+                      return new MapMaker().weakKeys().makeMap();
+                    }
+                  });
+
+  private static ModuleScan scanModule(
+      TypeLiteral<?> typeLiteral, ModuleAnnotatedMethodScanner scanner) {
+    Class<?> moduleClass = typeLiteral.getRawType();
+    List<ScanStep> steps = Lists.newArrayList();
+    Map<Method, Annotation> claimedMethods = null;
     // The highest class in the type hierarchy that contained a provider method definition.
-    Class<?> superMostClass = delegate.getClass();
-    for (Class<?> c = delegate.getClass(); c != Object.class; c = c.getSuperclass()) {
+    Class<?> superMostClass = moduleClass;
+    int depth = 0;
+    for (Class<?> c = moduleClass; c != Object.class; c = c.getSuperclass(), depth++) {
       for (Method method : c.getDeclaredMethods()) {
-        Annotation annotation = getAnnotation(binder, method);
+        Annotation annotation = getAnnotation(scanner, method, steps);
         if (annotation != null) {
-          if (result == null) {
-            result = Lists.newArrayList();
+          if (claimedMethods == null) {
+            claimedMethods = Maps.newLinkedHashMap();
           }
-          result.add(createProviderMethod(binder, method, annotation));
+          steps.add(new MethodStep(depth, method));
+          claimedMethods.put(method, annotation);
           superMostClass = c;
         }
       }
     }
-    if (result == null) {
-      // We didn't find anything
-      return ImmutableList.of();
+    if (claimedMethods == null) {
+      return new ModuleScan(steps);
     }
     // We have found some provider methods, now we need to check if any were overridden.
     // We do this as a separate pass to avoid calculating all the signatures when there are no
@@ -129,7 +189,7 @@ public final class ProviderMethodsModule implements Module {
     // We can stop scanning when we see superMostClass, since no superclass method can override
     // a method in a subclass.  Corrollary, if superMostClass == delegate.getClass(), there can be
     // no overrides of a provides method.
-    for (Class<?> c = delegate.getClass(); c != superMostClass; c = c.getSuperclass()) {
+    for (Class<?> c = moduleClass; c != superMostClass; c = c.getSuperclass()) {
       for (Method method : c.getDeclaredMethods()) {
         if (((method.getModifiers() & (Modifier.PRIVATE | Modifier.STATIC)) == 0)
             && !method.isBridge()
@@ -145,8 +205,8 @@ public final class ProviderMethodsModule implements Module {
       // we have found all the signatures and now need to identify if any were overridden
       // In the worst case this will have O(n^2) in the number of @Provides methods, but that is
       // only assuming that every method is an override, in general it should be very quick.
-      for (ProviderMethod<?> provider : result) {
-        Method method = provider.getMethod();
+      for (Map.Entry<Method, Annotation> provider : claimedMethods.entrySet()) {
+        Method method = provider.getKey();
         for (Method matchingSignature :
             methodsBySignature.get(new Signature(typeLiteral, method))) {
           // matching signature is in the same class or a super class, therefore method cannot be
@@ -157,28 +217,33 @@ public final class ProviderMethodsModule implements Module {
           // now we know matching signature is in a subtype of method.getDeclaringClass()
           if (overrides(matchingSignature, method)) {
             String annotationString =
-                provider.getAnnotation().annotationType() == Provides.class
+                provider.getValue().annotationType() == Provides.class
                     ? "@Provides"
-                    : "@" + provider.getAnnotation().annotationType().getCanonicalName();
-            binder.addError(
-                "Overriding "
-                    + annotationString
-                    + " methods is not allowed."
-                    + "\n\t"
-                    + annotationString
-                    + " method: %s\n\toverridden by: %s",
-                method,
-                matchingSignature);
+                    : "@" + provider.getValue().annotationType().getCanonicalName();
+            steps.add(
+                new ErrorStep(
+                    "Overriding "
+                        + annotationString
+                        + " methods is not allowed."
+                        + "\n\t"
+                        + annotationString
+                        + " method: %s\n\toverridden by: %s",
+                    method,
+                    matchingSignature));
             break;
           }
         }
       }
     }
-    return result;
+    return new ModuleScan(steps);
   }
 
-  /** Returns the annotation that is claimed by the scanner, or null if there is none. */
-  private Annotation getAnnotation(Binder binder, Method method) {
+  /**
+   * Returns the annotation that is claimed by the scanner, or null if there is none. Adds a step
+   * reporting an error to {@code steps} if the scanner claims more than one.
+   */
+  private static Annotation getAnnotation(
+      ModuleAnnotatedMethodScanner scanner, Method method, List<ScanStep> steps) {
     if (method.isBridge() || method.isSynthetic()) {
       return null;
     }
@@ -187,10 +252,12 @@ public final class ProviderMethodsModule implements Module {
       Annotation foundAnnotation = method.getAnnotation(annotationClass);
       if (foundAnnotation != null) {
         if (annotation != null) {
-          binder.addError(
-              "More than one annotation claimed by %s on method %s."
-                  + " Methods can only have one annotation claimed per scanner.",
-              scanner, method);
+          steps.add(
+              new ErrorStep(
+                  "More than one annotation claimed by %s on method %s."
+                      + " Methods can only have one annotation claimed per scanner.",
+                  scanner,
+                  method));
           return null;
         }
         annotation = foundAnnotation;
@@ -199,6 +266,117 @@ public final class ProviderMethodsModule implements Module {
     return annotation;
   }
 
+  /** The reflective findings about a module class, replayed each time an instance is installed. */
+  private static final class ModuleScan {
+    final ImmutableList<ScanStep> steps;
+
+    ModuleScan(List<ScanStep> steps) {
+      this.steps = ImmutableList.copyOf(steps);
+    }
+  }
+
+  /** Something found while scanning a module class, in the order it was found. */
+  private interface ScanStep {
+    void apply(
+        ProviderMethodsModule module,
+        Binder binder,
+        DeclaredMethods declaredMethods,
+        List<ProviderMethod<?>> result);
+  }
+
+  /**
+   * An error found while scanning, reported against each binder the module is installed in. The
+   * message is formatted right away, so that cached errors don't keep the classes or scanners
+   * they mention alive.
+   */
+  private static final class ErrorStep implements ScanStep {
+    final String message;
+
+    ErrorStep(String messageFormat, Object... arguments) {
+      this.message = Errors.format(messageFormat, arguments);
+    }
+
+    @Override
+    public void apply(
+        ProviderMethodsModule module,
+        Binder binder,
+        DeclaredMethods declaredMethods,
+        List<ProviderMethod<?>> result) {
+      binder.addError("%s", message);
+    }
+  }
+
+  /**
+   * A method claimed by the scanner. It's identified by the number of superclasses between the
+   * module class and the method's declaring class, its name and the names of its parameter types,
+   * rather than referenced.
+   */
+  private static final class MethodStep implements ScanStep {
+    final int depth;
+    final String name;
+    final ImmutableList<String> parameterTypes;
+
+    MethodStep(int depth, Method method) {
+      this.depth = depth;
+      this.name = method.getName();
+      this.parameterTypes = parameterTypeNames(method);
+    }
+
+    boolean matches(Method method) {
+      // Bridge methods share the name and parameters of the method they bridge to.
+      return !method.isBridge()
+          && !method.isSynthetic()
+          && method.getName().equals(name)
+          && parameterTypeNames(method).equals(parameterTypes);
+    }
+
+    @Override
+    public void apply(
+        ProviderMethodsModule module,
+        Binder binder,
+        DeclaredMethods declaredMethods,
+        List<ProviderMethod<?>> result) {
+      for (Method method : declaredMethods.atDepth(depth)) {
+        if (matches(method)) {
+          result.add(module.createProviderMethod(binder, declaredMethods.typeLiteral, method));
+          return;
+        }
+      }
+      throw new AssertionError("Scanned method " + name + " not found");
+    }
+
+    private static ImmutableList<String> parameterTypeNames(Method method) {
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (Class<?> parameterType : method.getParameterTypes()) {
+        names.add(parameterType.getName());
+      }
+      return names.build();
+    }
+  }
+
+  /** The declared methods of a module class and its superclasses, looked up as steps need them. */
+  private static final class DeclaredMethods {
+    final TypeLiteral<?> typeLiteral;
+    private final Map<Integer, Method[]> byDepth = Maps.newHashMap();
+
+    DeclaredMethods(Class<?> moduleClass) {
+      this.typeLiteral = TypeLiteral.get(moduleClass);
+    }
+
+    Method[] atDepth(int depth) {
+      Method[] methods = byDepth.get(depth);
+      if (methods == null) {
+        Class<?> c = typeLiteral.getRawType();
+        for (int i = 0; i < depth; i++) {
+          c = c.getSuperclass();
+        }
+        methods = c.getDeclaredMethods();
+        byDepth.put(depth, methods);
+      }
+      return methods;
+    }
+  }
+
   private static final class Signature {
     final Class<?>[] parameters;
     final String name;
@@ -250,9 +428,17 @@ public final class ProviderMethodsModule implements Module {
   }
 
   private <T> ProviderMethod<T> createProviderMethod(
-      Binder binder, Method method, Annotation annotation) {
+      Binder binder, TypeLiteral<?> typeLiteral, Method method) {
     binder = binder.withSource(method);
     Errors errors = new Errors(method);
+    // The scan found exactly one annotation claimed by the scanner.
+    Annotation annotation = null;
+    for (Class<? extends Annotation> annotationClass : scanner.annotationClasses()) {
+      annotation = method.getAnnotation(annotationClass);
+      if (annotation != null) {
+        break;
+      }
+    }
 
     // prepare the parameter providers
     InjectionPoint point = InjectionPoint.forMethod(method, typeLiteral);
@@ -279,7 +465,8 @@ public final class ProviderMethodsModule implements Module {
         annotation);
   }
 
-  <T> Key<T> getKey(Errors errors, TypeLiteral<T> type, Member member, Annotation[] annotations) {
+  static <T> Key<T> getKey(
+      Errors errors, TypeLiteral<T> type, Member member, Annotation[] annotations) {
     Annotation bindingAnnotation = Annotations.findBindingAnnotation(errors, member, annotations);
     return bindingAnnotation == null ? Key.get(type) : Key.get(type, bindingAnnotation);
   }
@@ -67,8 +67,9 @@ final class ProvisionListenerCallbackStore {
   @SuppressWarnings(
       "unchecked") // the ProvisionListenerStackCallback type always agrees with the passed type
   public <T> ProvisionListenerStackCallback<T> get(Binding<T> binding) {
-    // Never notify any listeners for internal bindings.
-    if (!INTERNAL_BINDINGS.contains(binding.getKey())) {
+    // Never notify any listeners for internal bindings. Without any listeners, don't cache
+    // callbacks either, as that would keep every binding passed in.
+    if (!listenerBindings.isEmpty() && !INTERNAL_BINDINGS.contains(binding.getKey())) {
       ProvisionListenerStackCallback<T> callback =
           (ProvisionListenerStackCallback<T>)
               cache.getUnchecked(new KeyBinding(binding.getKey(), binding));
@@ -90,6 +91,11 @@ final class ProvisionListenerCallbackStore {
     return cache.asMap().remove(type) != null;
   }
 
+  /** Purges all callbacks, for when the injector is closed. */
+  void clear() {
+    cache.invalidateAll();
+  }
+
   /**
    * Creates a new {@link ProvisionListenerStackCallback} with the correct listeners for the key.
    */
@@ -18,17 +18,29 @@ package com.google.inject.internal;
 
 import static com.google.inject.internal.BytecodeGen.newFastClassForMember;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.inject.spi.InjectionPoint;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.sf.cglib.core.MethodWrapper;
@@ -94,8 +106,19 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
 
     // Iterate over aspects and add interceptors for the methods they apply to
     boolean anyMatched = false;
+    ListMultimap<Class<? extends Annotation>, MethodInterceptorsPair> pairsByAnnotation = null;
     for (MethodAspect methodAspect : applicableAspects) {
-      for (MethodInterceptorsPair pair : methodInterceptorsPairs) {
+      Collection<MethodInterceptorsPair> candidates = methodInterceptorsPairs;
+      Set<Class<? extends Annotation>> requiredAnnotationTypes =
+          methodAspect.requiredAnnotationTypes();
+      if (requiredAnnotationTypes != null) {
+        // Only try the methods carrying an annotation that the aspect's matcher requires.
+        if (pairsByAnnotation == null) {
+          pairsByAnnotation = indexByAnnotation(methodInterceptorsPairs);
+        }
+        candidates = candidates(pairsByAnnotation, requiredAnnotationTypes);
+      }
+      for (MethodInterceptorsPair pair : candidates) {
         if (methodAspect.matches(pair.method)) {
           if (pair.method.isSynthetic()) {
             logger.log(
@@ -145,6 +168,31 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
             : ImmutableMap.<Method, List<MethodInterceptor>>of();
   }
 
+  private static ListMultimap<Class<? extends Annotation>, MethodInterceptorsPair>
+      indexByAnnotation(List<MethodInterceptorsPair> pairs) {
+    ListMultimap<Class<? extends Annotation>, MethodInterceptorsPair> result =
+        ArrayListMultimap.create();
+    for (MethodInterceptorsPair pair : pairs) {
+      for (Annotation annotation : pair.method.getAnnotations()) {
+        result.put(annotation.annotationType(), pair);
+      }
+    }
+    return result;
+  }
+
+  private static Collection<MethodInterceptorsPair> candidates(
+      ListMultimap<Class<? extends Annotation>, MethodInterceptorsPair> pairsByAnnotation,
+      Set<Class<? extends Annotation>> annotationTypes) {
+    if (annotationTypes.size() == 1) {
+      return pairsByAnnotation.get(Iterables.getOnlyElement(annotationTypes));
+    }
+    Set<MethodInterceptorsPair> result = Sets.newLinkedHashSet();
+    for (Class<? extends Annotation> annotationType : annotationTypes) {
+      result.addAll(pairsByAnnotation.get(annotationType));
+    }
+    return result;
+  }
+
   /** Returns the interceptors that apply to the constructed type. */
   public ImmutableMap<Method, List<MethodInterceptor>> getInterceptors() {
     return interceptors;
@@ -169,13 +217,48 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
     // Create the proxied class. We're careful to ensure that all enhancer state is not-specific
     // to this injector. Otherwise, the proxies for each injector will waste PermGen memory
     try {
+      return new ProxyConstructor<T>(
+          getEnhancedClass(callbackTypes), injectionPoint, callbacks, interceptors);
+    } catch (Throwable e) {
+      throw new Errors().errorEnhancingClass(declaringClass, e).toException();
+    }
+  }
+
+  /**
+   * Enhanced classes generated so far, by the class they extend and then by visibility and
+   * callback types. Since methods and so callback filters only depend on the extended class, this
+   * identifies the generated class, and all injectors in the JVM share it. Enhanced classes are
+   * weakly referenced, so they can still be unloaded along with the class they extend.
+   */
+  private static final LoadingCache<Class<?>, ConcurrentMap<List<Object>, Class<?>>>
+      ENHANCED_CLASSES =
+          CacheBuilder.newBuilder()
+              .weakKeys()
+              .build(
+                  new CacheLoader<Class<?>, ConcurrentMap<List<Object>, Class<?>>>() {
+                    @Override
+                    public ConcurrentMap<List<Object>, Class<?>> load(Class<?> declaringClass) {
+                      return new MapMaker().weakValues().makeMap();
+                    }
+                  });
+
+  private Class<?> getEnhancedClass(Class<? extends Callback>[] callbackTypes) {
+    List<Object> layout =
+        ImmutableList.builder().add(visibility).add((Object[]) callbackTypes).build();
+    ConcurrentMap<List<Object>, Class<?>> enhancedClasses =
+        ENHANCED_CLASSES.getUnchecked(declaringClass);
+    Class<?> enhanced = enhancedClasses.get(layout);
+    if (enhanced == null) {
       Enhancer enhancer = BytecodeGen.newEnhancer(declaringClass, visibility);
       enhancer.setCallbackFilter(new IndicesCallbackFilter(methods));
       enhancer.setCallbackTypes(callbackTypes);
-      return new ProxyConstructor<T>(enhancer, injectionPoint, callbacks, interceptors);
-    } catch (Throwable e) {
-      throw new Errors().errorEnhancingClass(declaringClass, e).toException();
+      enhanced = enhancer.createClass(); // this returns a cached class if possible
+      Class<?> existing = enhancedClasses.putIfAbsent(layout, enhanced);
+      if (existing != null) {
+        enhanced = existing;
+      }
     }
+    return enhanced;
   }
 
   private static class MethodInterceptorsPair {
@@ -246,11 +329,11 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
 
     @SuppressWarnings("unchecked") // the constructor promises to construct 'T's
     ProxyConstructor(
-        Enhancer enhancer,
+        Class<?> enhanced,
         InjectionPoint injectionPoint,
         Callback[] callbacks,
         ImmutableMap<Method, List<MethodInterceptor>> methodInterceptors) {
-      this.enhanced = enhancer.createClass(); // this returns a cached class if possible
+      this.enhanced = enhanced;
       this.injectionPoint = injectionPoint;
       this.constructor = (Constructor<T>) injectionPoint.getMember();
       this.callbacks = callbacks;
@@ -20,18 +20,22 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.collect.UnmodifiableIterator;
+import com.google.inject.AbstractModule;
 import com.google.inject.Binder;
 import com.google.inject.Binding;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.Provider;
+import com.google.inject.ProvisionException;
 import com.google.inject.TypeLiteral;
 import com.google.inject.binder.LinkedBindingBuilder;
 import com.google.inject.internal.InternalProviderInstanceBindingImpl.InitializationTiming;
 import com.google.inject.multibindings.MapBinderBinding;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.MultibindingsTargetVisitor;
+import com.google.inject.name.Names;
 import com.google.inject.spi.BindingTargetVisitor;
 import com.google.inject.spi.Dependency;
 import com.google.inject.spi.Element;
@@ -42,11 +46,17 @@ import com.google.inject.spi.ProviderWithDependencies;
 import com.google.inject.spi.ProviderWithExtensionVisitor;
 import com.google.inject.util.Types;
 import java.lang.annotation.Annotation;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * The actual mapbinder plays several roles:
@@ -271,6 +281,11 @@ public final class RealMapBinder<K, V> implements Module {
     binder.install(new MultimapBinder<K, V>(bindingSelection));
   }
 
+  public void lazy() {
+    checkConfiguration(!bindingSelection.isInitialized(), "MapBinder was already initialized");
+    binder.install(new LazyMapModule(bindingSelection.getLazyKey()));
+  }
+
   /** Adds a binding to the map for the given key. */
   Key<V> getKeyForNewValue(K key) {
     checkNotNull(key, "key");
@@ -373,6 +388,7 @@ public final class RealMapBinder<K, V> implements Module {
     private Key<Map<K, Collection<Provider<V>>>> providerCollectionMultimapKey;
     private Key<Map<K, Collection<javax.inject.Provider<V>>>> javaxProviderCollectionMultimapKey;
     private Key<Set<Map.Entry<K, javax.inject.Provider<V>>>> entrySetJavaxProviderKey;
+    private Key<Boolean> lazyKey;
 
     private final RealMultibinder<Map.Entry<K, Provider<V>>> entrySetBinder;
 
@@ -394,6 +410,13 @@ public final class RealMapBinder<K, V> implements Module {
      */
     private boolean permitsDuplicates;
 
+    /**
+     * Indicates if the {@code Map<K, V>} provisions its values on demand. Like {@link
+     * #permitsDuplicates}, any contributing module can request this, so it is read from the
+     * injector during initialization.
+     */
+    private boolean lazy;
+
     private BindingSelection(
         TypeLiteral<K> keyType,
         TypeLiteral<V> valueType,
@@ -406,6 +429,17 @@ public final class RealMapBinder<K, V> implements Module {
       this.initializationState = InitializationState.UNINITIALIZED;
     }
 
+    /** Returns the uninitialized copy of this selection in {@code copies}, adding it if absent. */
+    BindingSelection<K, V> copy(Map<Object, Object> copies) {
+      @SuppressWarnings("unchecked") // selections are only ever mapped to their own copies
+      BindingSelection<K, V> copy = (BindingSelection<K, V>) copies.get(this);
+      if (copy == null) {
+        copy = new BindingSelection<K, V>(keyType, valueType, mapKey, entrySetBinder);
+        copies.put(this, copy);
+      }
+      return copy;
+    }
+
     /**
      * Will initialize internal data structures.
      *
@@ -422,6 +456,7 @@ public final class RealMapBinder<K, V> implements Module {
       // Since permitDuplicates() may not have been called on this instance, we need to go
       // to the injector to see if permitDuplicates was set.
       permitsDuplicates = entrySetBinder.permitsDuplicates(injector);
+      lazy = injector.getBindings().containsKey(getLazyKey());
 
       // We now build the Map<K, Set<Binding<V>>> from the entrySetBinder.
       // The entrySetBinder contains all of the ProviderMapEntrys, and once
@@ -567,6 +602,7 @@ public final class RealMapBinder<K, V> implements Module {
           || key.equals(getJavaxProviderCollectionMultimapKey())
           || key.equals(entrySetBinder.getSetKey())
           || key.equals(getEntrySetJavaxProviderKey())
+          || key.equals(getLazyKey())
           || matchesValueKey(key);
     }
 
@@ -652,6 +688,14 @@ public final class RealMapBinder<K, V> implements Module {
       return local;
     }
 
+    private Key<Boolean> getLazyKey() {
+      Key<Boolean> local = lazyKey;
+      if (local == null) {
+        local = lazyKey = Key.get(Boolean.class, Names.named(mapKey + " is lazy"));
+      }
+      return local;
+    }
+
     private ImmutableMap<K, Binding<V>> getMapBindings() {
       checkConfiguration(isInitialized(), "MapBinder has not yet been initialized");
       return mapBindings;
@@ -696,6 +740,11 @@ public final class RealMapBinder<K, V> implements Module {
       }
     }
 
+    private boolean isLazy() {
+      checkConfiguration(isInitialized(), "MapBinder has not yet been initialized");
+      return lazy;
+    }
+
     @Override
     public boolean equals(Object o) {
       return o instanceof BindingSelection && ((BindingSelection<?, ?>) o).mapKey.equals(mapKey);
@@ -716,6 +765,11 @@ public final class RealMapBinder<K, V> implements Module {
       super(bindingSelection);
     }
 
+    @Override
+    RealProviderMapProvider<K, V> copy(Map<Object, Object> copies) {
+      return new RealProviderMapProvider<K, V>(bindingSelection.copy(copies));
+    }
+
     @Override
     public Set<Dependency<?>> getDependencies() {
       return dependencies;
@@ -755,10 +809,23 @@ public final class RealMapBinder<K, V> implements Module {
 
     private K[] keys;
 
+    /** True if every value is a singleton, so the map can be computed once and reused. */
+    private boolean constant;
+
+    private volatile Map<K, V> constantMap;
+
+    /** The keys and value providers backing each lazy map, or null if the map isn't lazy. */
+    private LazyMapLayout<K, V> lazyLayout;
+
     private RealMapProvider(BindingSelection<K, V> bindingSelection) {
       super(bindingSelection);
     }
 
+    @Override
+    RealMapProvider<K, V> copy(Map<Object, Object> copies) {
+      return new RealMapProvider<K, V>(bindingSelection.copy(copies));
+    }
+
     private BindingSelection<K, V> getBindingSelection() {
       return bindingSelection;
     }
@@ -787,6 +854,17 @@ public final class RealMapBinder<K, V> implements Module {
       SingleParameterInjector<V>[] typedInjectors =
           (SingleParameterInjector<V>[]) injector.getParametersInjectors(dependenciesList, errors);
       injectors = typedInjectors;
+      constant = RealMultibinder.allSingletons(bindingSelection.getMapBindings().values());
+
+      if (bindingSelection.isLazy()) {
+        @SuppressWarnings("unchecked")
+        Binding<V>[] bindings = (Binding<V>[]) new Binding<?>[keys.length];
+        for (int j = 0; j < keys.length; j++) {
+          bindings[j] = bindingSelection.getMapBindings().get(keys[j]);
+        }
+        lazyLayout =
+            new LazyMapLayout<K, V>(bindingSelection.getKeyType().getRawType(), keys, bindings);
+      }
     }
 
     @Override
@@ -797,7 +875,31 @@ public final class RealMapBinder<K, V> implements Module {
         // if injectors == null, then we have no bindings so return the empty map.
         return ImmutableMap.of();
       }
+      if (!constant) {
+        return newMap(localInjectors, errors, context);
+      }
+      // Racing threads may each build the map, but they all see the same singleton values.
+      Map<K, V> map = constantMap;
+      if (map == null) {
+        map = newMap(localInjectors, errors, context);
+        constantMap = map;
+      }
+      return map;
+    }
+
+    private Map<K, V> newMap(
+        SingleParameterInjector<V>[] localInjectors, Errors errors, InternalContext context)
+        throws ErrorsException {
+      LazyMapLayout<K, V> localLayout = lazyLayout;
+      if (localLayout != null) {
+        return new LazyMap<K, V>(localLayout);
+      }
+      return provisionMap(localInjectors, errors, context);
+    }
 
+    private ImmutableMap<K, V> provisionMap(
+        SingleParameterInjector<V>[] localInjectors, Errors errors, InternalContext context)
+        throws ErrorsException {
       ImmutableMap.Builder<K, V> resultBuilder = ImmutableMap.builder();
       K[] localKeys = keys;
       for (int i = 0; i < localInjectors.length; i++) {
@@ -979,6 +1081,173 @@ public final class RealMapBinder<K, V> implements Module {
     }
   }
 
+  /**
+   * The immutable part of a lazy map: its keys in binding order, the binding and provider of each
+   * key's value, and an index from keys to their slots. Enum keys are indexed by ordinal.
+   */
+  private static final class LazyMapLayout<K, V> {
+    private final K[] keys;
+    private final Binding<V>[] bindings;
+    private final Provider<V>[] providers;
+    private final ImmutableSet<K> keySet;
+
+    /** Slot of each enum constant by ordinal, or null if the key type isn't an enum. */
+    private final int[] ordinalSlots;
+
+    private final Class<?> keyType;
+
+    /** Slot of each key, or null if the key type is an enum. */
+    private final ImmutableMap<K, Integer> slots;
+
+    @SuppressWarnings("unchecked")
+    LazyMapLayout(Class<?> keyType, K[] keys, Binding<V>[] bindings) {
+      this.keyType = keyType;
+      this.keys = keys;
+      this.bindings = bindings;
+      this.providers = (Provider<V>[]) new Provider<?>[bindings.length];
+      for (int i = 0; i < bindings.length; i++) {
+        providers[i] = bindings[i].getProvider();
+      }
+      this.keySet = ImmutableSet.copyOf(keys);
+      if (keyType.isEnum()) {
+        ordinalSlots = new int[keyType.getEnumConstants().length];
+        Arrays.fill(ordinalSlots, -1);
+        for (int i = 0; i < keys.length; i++) {
+          ordinalSlots[((Enum<?>) keys[i]).ordinal()] = i;
+        }
+        slots = null;
+      } else {
+        ordinalSlots = null;
+        ImmutableMap.Builder<K, Integer> slotsBuilder = ImmutableMap.builder();
+        for (int i = 0; i < keys.length; i++) {
+          slotsBuilder.put(keys[i], i);
+        }
+        slots = slotsBuilder.build();
+      }
+    }
+
+    /** Returns the slot of {@code key}, or -1 if it isn't bound. */
+    int slotOf(Object key) {
+      if (ordinalSlots != null) {
+        return keyType.isInstance(key) ? ordinalSlots[((Enum<?>) key).ordinal()] : -1;
+      }
+      Integer slot = slots.get(key);
+      return slot != null ? slot : -1;
+    }
+  }
+
+  /**
+   * A read-only {@code Map<K, V>} that provisions each value the first time it is read and then
+   * keeps it, so the map doesn't change once observed. Values are obtained from their bindings'
+   * providers and so respect the scope of each binding.
+   */
+  private static final class LazyMap<K, V> extends AbstractMap<K, V> {
+    private final LazyMapLayout<K, V> layout;
+    private final AtomicReferenceArray<V> values;
+
+    LazyMap(LazyMapLayout<K, V> layout) {
+      this.layout = layout;
+      this.values = new AtomicReferenceArray<V>(layout.keys.length);
+    }
+
+    @Override
+    public V get(Object key) {
+      int slot = layout.slotOf(key);
+      return slot < 0 ? null : valueAt(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return layout.slotOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return layout.keys.length;
+    }
+
+    @Override
+    public Set<K> keySet() {
+      return layout.keySet;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      return new AbstractSet<Map.Entry<K, V>>() {
+        @Override
+        public int size() {
+          return layout.keys.length;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+          return new UnmodifiableIterator<Map.Entry<K, V>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+              return next < layout.keys.length;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              int slot = next++;
+              return Maps.immutableEntry(layout.keys[slot], valueAt(slot));
+            }
+          };
+        }
+      };
+    }
+
+    private V valueAt(int slot) {
+      V value = values.get(slot);
+      if (value == null) {
+        value = layout.providers[slot].get();
+        if (value == null) {
+          throw new ProvisionException(
+              createNullValueException(new Errors(), layout.keys[slot], layout.bindings[slot])
+                  .getErrors()
+                  .getMessages());
+        }
+        // Keep the first value published so every reader of this map sees the same one.
+        if (!values.compareAndSet(slot, null, value)) {
+          value = values.get(slot);
+        }
+      }
+      return value;
+    }
+  }
+
+  /**
+   * We install the lazy configuration as its own binding so that, as with permitDuplicates(), it
+   * applies to the map as a whole even if only one contributing module asks for it.
+   */
+  private static final class LazyMapModule extends AbstractModule {
+    private final Key<Boolean> key;
+
+    LazyMapModule(Key<Boolean> key) {
+      this.key = key;
+    }
+
+    @Override
+    protected void configure() {
+      bind(key).toInstance(true);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof LazyMapModule && ((LazyMapModule) o).key.equals(key);
+    }
+
+    @Override
+    public int hashCode() {
+      return getClass().hashCode() ^ key.hashCode();
+    }
+  }
+
   /**
    * Binds {@code Map<K, Set<V>>} and {{@code Map<K, Set<Provider<V>>>}.
    *
@@ -1046,6 +1315,11 @@ public final class RealMapBinder<K, V> implements Module {
         super(mapKey);
       }
 
+      @Override
+      RealProviderMultimapProvider<K, V> copy(Map<Object, Object> copies) {
+        return new RealProviderMultimapProvider<K, V>(mapKey);
+      }
+
       @Override
       public Set<Dependency<?>> getDependencies() {
         return dependencies;
@@ -1107,6 +1381,11 @@ public final class RealMapBinder<K, V> implements Module {
         super(mapKey);
       }
 
+      @Override
+      RealMultimapProvider<K, V> copy(Map<Object, Object> copies) {
+        return new RealMultimapProvider<K, V>(mapKey);
+      }
+
       @Override
       public Set<Dependency<?>> getDependencies() {
         return dependencies;
@@ -1195,6 +1474,14 @@ public final class RealMapBinder<K, V> implements Module {
       this.valueKey = valueKey;
     }
 
+    /**
+     * Returns a new entry like this one, whose value is looked up through {@code binder} rather
+     * than the binder this entry's value was looked up through.
+     */
+    ProviderMapEntry<K, V> copy(Binder binder) {
+      return new ProviderMapEntry<K, V>(key, binder.getProvider(valueKey), valueKey);
+    }
+
     @Override
     public Map.Entry<K, Provider<V>> get() {
       return this;
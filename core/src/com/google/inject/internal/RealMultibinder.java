@@ -10,6 +10,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.AbstractModule;
 import com.google.inject.Binder;
 import com.google.inject.Binding;
@@ -17,6 +18,7 @@ import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.Provider;
+import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.binder.LinkedBindingBuilder;
 import com.google.inject.internal.InternalProviderInstanceBindingImpl.InitializationTiming;
@@ -24,13 +26,20 @@ import com.google.inject.multibindings.MultibinderBinding;
 import com.google.inject.multibindings.MultibindingsTargetVisitor;
 import com.google.inject.spi.BindingTargetVisitor;
 import com.google.inject.spi.Dependency;
+import com.google.inject.spi.InstanceBinding;
 import com.google.inject.spi.ProviderInstanceBinding;
 import com.google.inject.spi.ProviderWithExtensionVisitor;
 import com.google.inject.util.Types;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * The actual multibinder plays several roles:
@@ -114,6 +123,11 @@ public final class RealMultibinder<T> implements Module {
     binder.install(new PermitDuplicatesModule(bindingSelection.getPermitDuplicatesKey()));
   }
 
+  public void provisionConcurrently(Executor executor) {
+    checkNotNull(executor, "executor");
+    binder.install(new ExecutorModule(bindingSelection.getExecutorKey(), executor));
+  }
+
   /** Adds a new entry to the set and returns the key for it. */
   Key<T> getKeyForNewItem() {
     checkConfiguration(!bindingSelection.isInitialized(), "Multibinder was already initialized");
@@ -148,6 +162,19 @@ public final class RealMultibinder<T> implements Module {
     return bindingSelection.containsElement(element);
   }
 
+  /**
+   * Returns true if every binding in {@code bindings} is a singleton (including instance bindings
+   * and links to singletons), so that a collection of their values never changes once built.
+   */
+  static boolean allSingletons(Iterable<? extends Binding<?>> bindings) {
+    for (Binding<?> binding : bindings) {
+      if (!Scopes.isSingleton(binding)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private static final class RealMultibinderProvider<T>
       extends InternalProviderInstanceBindingImpl.Factory<Set<T>>
       implements ProviderWithExtensionVisitor<Set<T>>, MultibinderBinding<Set<T>> {
@@ -156,6 +183,16 @@ public final class RealMultibinder<T> implements Module {
     private SingleParameterInjector<T>[] injectors;
     private boolean permitDuplicates;
 
+    /** True if every element is a singleton, so the set can be computed once and reused. */
+    private boolean constant;
+
+    /** Provisions the elements concurrently if non-null. */
+    private Executor executor;
+
+    private InjectorImpl injector;
+
+    private volatile ImmutableSet<T> constantSet;
+
     RealMultibinderProvider(BindingSelection<T> bindingSelection) {
       // While Multibinders only depend on bindings created in modules so we could theoretically
       // initialize eagerly, they also depend on
@@ -166,6 +203,11 @@ public final class RealMultibinder<T> implements Module {
       this.bindingSelection = bindingSelection;
     }
 
+    @Override
+    RealMultibinderProvider<T> copy(Map<Object, Object> copies) {
+      return new RealMultibinderProvider<T>(bindingSelection.copy(copies));
+    }
+
     @Override
     public Set<Dependency<?>> getDependencies() {
       return bindingSelection.getDependencies();
@@ -177,6 +219,9 @@ public final class RealMultibinder<T> implements Module {
       this.bindings = bindingSelection.getBindings();
       this.injectors = bindingSelection.getParameterInjectors();
       this.permitDuplicates = bindingSelection.permitsDuplicates();
+      this.constant = allSingletons(bindings);
+      this.executor = bindingSelection.getExecutor();
+      this.injector = injector;
     }
 
     @Override
@@ -187,10 +232,42 @@ public final class RealMultibinder<T> implements Module {
         // if localInjectors == null, then we have no bindings so return the empty set.
         return ImmutableSet.of();
       }
+      if (!constant) {
+        return provisionSet(localInjectors, errors, context);
+      }
+      // Racing threads may each build the set, but they all see the same singleton elements.
+      ImmutableSet<T> set = constantSet;
+      if (set == null) {
+        set = provisionSet(localInjectors, errors, context);
+        constantSet = set;
+      }
+      return set;
+    }
+
+    private ImmutableSet<T> provisionSet(
+        SingleParameterInjector<T>[] localInjectors, Errors errors, InternalContext context)
+        throws ErrorsException {
       // Ideally we would just add to an ImmutableSet.Builder, but if we did that and there were
       // duplicates we wouldn't be able to tell which one was the duplicate.  So to manage this we
       // first put everything into an array and then construct the set.  This way if something gets
       // dropped we can figure out what it is.
+      T[] values;
+      if (executor == null) {
+        values = injectSequentially(localInjectors, errors, context);
+      } else {
+        values = injectConcurrently(localInjectors, errors);
+      }
+      ImmutableSet<T> set = ImmutableSet.copyOf(values);
+      // There are fewer items in the set than the array.  Figure out which one got dropped.
+      if (!permitDuplicates && set.size() < values.length) {
+        throw newDuplicateValuesException(set, values, errors);
+      }
+      return set;
+    }
+
+    private T[] injectSequentially(
+        SingleParameterInjector<T>[] localInjectors, Errors errors, InternalContext context)
+        throws ErrorsException {
       @SuppressWarnings("unchecked")
       T[] values = (T[]) new Object[localInjectors.length];
       for (int i = 0; i < localInjectors.length; i++) {
@@ -201,12 +278,73 @@ public final class RealMultibinder<T> implements Module {
         }
         values[i] = newValue;
       }
-      ImmutableSet<T> set = ImmutableSet.copyOf(values);
-      // There are fewer items in the set than the array.  Figure out which one got dropped.
-      if (!permitDuplicates && set.size() < values.length) {
-        throw newDuplicateValuesException(set, values, errors);
+      return values;
+    }
+
+    /**
+     * Injects each element in a task on the configured executor, waits for all of them, and
+     * reports every element's errors together. Tasks the executor rejects run on this thread.
+     *
+     * <p>{@link Errors} isn't thread-safe, so each task collects its errors separately. They are
+     * merged into {@code errors} afterwards, which prefixes them with the caller's sources.
+     */
+    private T[] injectConcurrently(SingleParameterInjector<T>[] localInjectors, Errors errors)
+        throws ErrorsException {
+      List<FutureTask<T>> tasks = Lists.newArrayListWithCapacity(localInjectors.length);
+      final Errors[] taskErrors = new Errors[localInjectors.length];
+      for (int i = 0; i < localInjectors.length; i++) {
+        final SingleParameterInjector<T> parameterInjector = localInjectors[i];
+        final Errors elementErrors = taskErrors[i] = new Errors();
+        FutureTask<T> task =
+            new FutureTask<T>(
+                new Callable<T>() {
+                  @Override
+                  public T call() throws ErrorsException {
+                    // A worker thread has no context of its own, so this gets a fresh one.
+                    return injector.callInContext(
+                        new ContextualCallable<T>() {
+                          @Override
+                          public T call(InternalContext context) throws ErrorsException {
+                            return parameterInjector.inject(elementErrors, context);
+                          }
+                        });
+                  }
+                });
+        tasks.add(task);
+        try {
+          executor.execute(task);
+        } catch (RejectedExecutionException e) {
+          task.run();
+        }
       }
-      return set;
+
+      int numErrorsBefore = errors.size();
+      @SuppressWarnings("unchecked")
+      T[] values = (T[]) new Object[localInjectors.length];
+      for (int i = 0; i < values.length; i++) {
+        try {
+          T newValue = Uninterruptibles.getUninterruptibly(tasks.get(i));
+          if (newValue == null) {
+            errors.addMessage(
+                "Set injection failed due to null element bound at: %s",
+                bindings.get(i).getSource());
+          }
+          values[i] = newValue;
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          if (cause instanceof ErrorsException) {
+            taskErrors[i].merge(((ErrorsException) cause).getErrors());
+          } else {
+            // Keep going, so this element's failure is reported with the others.
+            taskErrors[i]
+                .withSource(bindings.get(i).getSource())
+                .errorInUserCode(cause, "Error injecting set element, %s", cause);
+          }
+        }
+        errors.merge(taskErrors[i]);
+      }
+      errors.throwIfNewErrors(numErrorsBefore);
+      return values;
     }
 
     private ErrorsException newNullEntryException(int i, Errors errors) {
@@ -319,6 +457,7 @@ public final class RealMultibinder<T> implements Module {
     private Key<Collection<Provider<T>>> collectionOfProvidersKey;
     private Key<Collection<javax.inject.Provider<T>>> collectionOfJavaxProvidersKey;
     private Key<Boolean> permitDuplicatesKey;
+    private Key<Executor> executorKey;
 
     private boolean isInitialized;
     /* a binding for each element in the set. null until initialization, non-null afterwards */
@@ -331,6 +470,9 @@ public final class RealMultibinder<T> implements Module {
     /** whether duplicates are allowed. Possibly configured by a different instance */
     private boolean permitDuplicates;
 
+    /** executor for concurrent provisioning, or null. Possibly configured by a different instance */
+    private Executor executor;
+
     private SingleParameterInjector<T>[] parameterinjectors;
 
     BindingSelection(Key<T> key) {
@@ -338,6 +480,17 @@ public final class RealMultibinder<T> implements Module {
       this.elementType = key.getTypeLiteral();
     }
 
+    /** Returns the uninitialized copy of this selection in {@code copies}, adding it if absent. */
+    BindingSelection<T> copy(Map<Object, Object> copies) {
+      @SuppressWarnings("unchecked") // selections are only ever mapped to their own copies
+      BindingSelection<T> copy = (BindingSelection<T>) copies.get(this);
+      if (copy == null) {
+        copy = new BindingSelection<T>(setKey.ofType(elementType));
+        copies.put(this, copy);
+      }
+      return copy;
+    }
+
     void initialize(InjectorImpl injector, Errors errors) throws ErrorsException {
       // This will be called multiple times, once by each Factory. We only want
       // to do the work to initialize everything once, so guard this code with
@@ -377,6 +530,10 @@ public final class RealMultibinder<T> implements Module {
       this.dependencies = ImmutableSet.copyOf(dependencies);
       this.providerDependencies = ImmutableSet.copyOf(providerDependencies);
       this.permitDuplicates = permitsDuplicates(injector);
+      Binding<?> executorBinding = injector.getBindings().get(getExecutorKey());
+      if (executorBinding instanceof InstanceBinding) {
+        this.executor = (Executor) ((InstanceBinding<?>) executorBinding).getInstance();
+      }
       // This is safe because all our dependencies are assignable to T and we never assign to
       // elements of this array.
       @SuppressWarnings("unchecked")
@@ -390,6 +547,11 @@ public final class RealMultibinder<T> implements Module {
       return injector.getBindings().containsKey(getPermitDuplicatesKey());
     }
 
+    Executor getExecutor() {
+      checkConfiguration(isInitialized, "not initialized");
+      return executor;
+    }
+
     ImmutableList<Binding<T>> getBindings() {
       checkConfiguration(isInitialized, "not initialized");
       return bindings;
@@ -425,6 +587,14 @@ public final class RealMultibinder<T> implements Module {
       return local;
     }
 
+    Key<Executor> getExecutorKey() {
+      Key<Executor> local = executorKey;
+      if (local == null) {
+        local = executorKey = Key.get(Executor.class, named(toString() + " provisioning executor"));
+      }
+      return local;
+    }
+
     Key<Collection<Provider<T>>> getCollectionOfProvidersKey() {
       Key<Collection<Provider<T>>> local = collectionOfProvidersKey;
       if (local == null) {
@@ -480,6 +650,7 @@ public final class RealMultibinder<T> implements Module {
         Binding<?> binding = (Binding<?>) element;
         return keyMatches(binding.getKey())
             || binding.getKey().equals(getPermitDuplicatesKey())
+            || binding.getKey().equals(getExecutorKey())
             || binding.getKey().equals(setKey)
             || binding.getKey().equals(collectionOfProvidersKey)
             || binding.getKey().equals(collectionOfJavaxProvidersKey);
@@ -539,6 +710,11 @@ public final class RealMultibinder<T> implements Module {
       this.bindingSelection = bindingSelection;
     }
 
+    @Override
+    RealMultibinderCollectionOfProvidersProvider<T> copy(Map<Object, Object> copies) {
+      return new RealMultibinderCollectionOfProvidersProvider<T>(bindingSelection.copy(copies));
+    }
+
     @Override
     void initialize(InjectorImpl injector, Errors errors) throws ErrorsException {
       bindingSelection.initialize(injector, errors);
@@ -603,4 +779,35 @@ public final class RealMultibinder<T> implements Module {
       return getClass().hashCode() ^ key.hashCode();
     }
   }
+
+  /**
+   * Like {@link PermitDuplicatesModule}, installs the executor for concurrent provisioning as its
+   * own binding so that it applies to the set no matter which of its users configured it.
+   */
+  private static class ExecutorModule extends AbstractModule {
+    private final Key<Executor> key;
+    private final Executor executor;
+
+    ExecutorModule(Key<Executor> key, Executor executor) {
+      this.key = key;
+      this.executor = executor;
+    }
+
+    @Override
+    protected void configure() {
+      bind(key).toInstance(executor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof ExecutorModule
+          && ((ExecutorModule) o).key.equals(key)
+          && ((ExecutorModule) o).executor == executor;
+    }
+
+    @Override
+    public int hashCode() {
+      return getClass().hashCode() ^ key.hashCode() ^ System.identityHashCode(executor);
+    }
+  }
 }
@@ -49,6 +49,7 @@ import java.lang.annotation.Retention;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Map;
 import java.util.Set;
 import javax.inject.Qualifier;
 
@@ -307,6 +308,11 @@ public final class RealOptionalBinder<T> implements Module {
       this.optionalKey = optionalKey;
     }
 
+    @Override
+    JavaOptionalProvider copy(Map copies) {
+      return new JavaOptionalProvider(bindingSelection.copy(copies), optionalKey);
+    }
+
     @Override
     void doInitialize() {
       if (bindingSelection.getBinding() != null) {
@@ -382,6 +388,11 @@ public final class RealOptionalBinder<T> implements Module {
       super(bindingSelection);
     }
 
+    @Override
+    JavaOptionalProviderProvider copy(Map copies) {
+      return new JavaOptionalProviderProvider(bindingSelection.copy(copies));
+    }
+
     @Override
     void doInitialize() {
       if (bindingSelection.getBinding() == null) {
@@ -413,6 +424,11 @@ public final class RealOptionalBinder<T> implements Module {
       super(bindingSelection);
     }
 
+    @Override
+    RealDirectTypeProvider<T> copy(Map<Object, Object> copies) {
+      return new RealDirectTypeProvider<T>(bindingSelection.copy(copies));
+    }
+
     @Override
     void doInitialize() {
       BindingImpl<T> targetBinding = bindingSelection.getBinding();
@@ -450,6 +466,11 @@ public final class RealOptionalBinder<T> implements Module {
       super(bindingSelection);
     }
 
+    @Override
+    RealOptionalProviderProvider<T> copy(Map<Object, Object> copies) {
+      return new RealOptionalProviderProvider<T>(bindingSelection.copy(copies));
+    }
+
     @Override
     void doInitialize() {
       if (bindingSelection.getBinding() == null) {
@@ -488,6 +509,11 @@ public final class RealOptionalBinder<T> implements Module {
       this.optionalKey = optionalKey;
     }
 
+    @Override
+    RealOptionalKeyProvider<T> copy(Map<Object, Object> copies) {
+      return new RealOptionalKeyProvider<T>(bindingSelection.copy(copies), optionalKey);
+    }
+
     @Override
     void doInitialize() {
       if (bindingSelection.getBinding() != null) {
@@ -590,6 +616,17 @@ public final class RealOptionalBinder<T> implements Module {
       this.key = key;
     }
 
+    /** Returns the uninitialized copy of this selection in {@code copies}, adding it if absent. */
+    BindingSelection<T> copy(Map<Object, Object> copies) {
+      @SuppressWarnings("unchecked") // selections are only ever mapped to their own copies
+      BindingSelection<T> copy = (BindingSelection<T>) copies.get(this);
+      if (copy == null) {
+        copy = new BindingSelection<T>(key);
+        copies.put(this, copy);
+      }
+      return copy;
+    }
+
     void checkNotInitialized() {
       checkConfiguration(!initialized, "already initialized");
     }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.inject.Binder;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.PrivateBinder;
+import com.google.inject.Provider;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.InjectionRequest;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.MembersInjectorLookup;
+import com.google.inject.spi.ModuleAnnotatedMethodScannerBinding;
+import com.google.inject.spi.PrivateElements;
+import com.google.inject.spi.ProviderInstanceBinding;
+import com.google.inject.spi.ProviderLookup;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A module that replays the elements recorded from other modules, so that many injectors can be
+ * created from it without running those modules again. Provider methods, and the factories of
+ * multibinders, map binders and optional binders, are copied for each injector, since they hold
+ * state of the injector that initialized them.
+ */
+public final class RecordedModule implements Module {
+  private final ImmutableList<Element> elements;
+
+  /**
+   * Returns a module that replays {@code elements}, recorded from some modules, or null if that
+   * isn't equivalent to running those modules again. That's the case for elements handing modules
+   * something bound to the injector they are used in, such as provider lookups and injection
+   * requests, and for all elements if any scan for annotated methods, which affects how all
+   * modules are recorded.
+   */
+  public static RecordedModule of(List<Element> elements) {
+    return isReplayable(elements) && !hasScannerBindings(elements)
+        ? new RecordedModule(ImmutableList.copyOf(elements))
+        : null;
+  }
+
+  private RecordedModule(ImmutableList<Element> elements) {
+    this.elements = elements;
+  }
+
+  private static boolean hasScannerBindings(List<Element> elements) {
+    for (Element element : elements) {
+      if (element instanceof ModuleAnnotatedMethodScannerBinding
+          || (element instanceof PrivateElements
+              && hasScannerBindings(((PrivateElements) element).getElements()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if replaying {@code elements} into another injector is equivalent to running the
+   * module that they were recorded from again.
+   */
+  private static boolean isReplayable(List<Element> elements) {
+    Set<Key<?>> mapEntryValueKeys = getMapEntryValueKeys(elements);
+    for (Element element : elements) {
+      if (element instanceof PrivateElements) {
+        if (!isReplayable(((PrivateElements) element).getElements())) {
+          return false;
+        }
+      } else if (element instanceof ProviderLookup) {
+        // Modules hold on to the providers they look up, which can't be pointed at another
+        // injector. Only map binders' entries are given a new lookup when they are replayed.
+        if (!mapEntryValueKeys.contains(((ProviderLookup<?>) element).getKey())) {
+          return false;
+        }
+      } else if (element instanceof MembersInjectorLookup || element instanceof InjectionRequest) {
+        return false;
+      } else if (element instanceof InstanceBinding) {
+        // Injecting the members of a shared instance from several injectors would be a race.
+        if (!((InstanceBinding<?>) element).getInjectionPoints().isEmpty()) {
+          return false;
+        }
+      } else if (element instanceof ProviderInstanceBinding) {
+        ProviderInstanceBinding<?> binding = (ProviderInstanceBinding<?>) element;
+        Object provider = binding.getUserSuppliedProvider();
+        if (provider instanceof InternalProviderInstanceBindingImpl.Factory) {
+          if (null
+              == ((InternalProviderInstanceBindingImpl.Factory<?>) provider)
+                  .copy(new IdentityHashMap<Object, Object>())) {
+            return false;
+          }
+        } else if (!binding.getInjectionPoints().isEmpty()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Returns the keys whose values the map binder entries among {@code elements} look up. */
+  private static Set<Key<?>> getMapEntryValueKeys(List<Element> elements) {
+    Set<Key<?>> keys = Sets.newHashSet();
+    for (Element element : elements) {
+      if (element instanceof ProviderInstanceBinding) {
+        Object provider = ((ProviderInstanceBinding<?>) element).getUserSuppliedProvider();
+        if (provider instanceof RealMapBinder.ProviderMapEntry) {
+          keys.add(((RealMapBinder.ProviderMapEntry<?, ?>) provider).getValueKey());
+        }
+      }
+    }
+    return keys;
+  }
+
+  @Override
+  public void configure(Binder binder) {
+    replay(binder, elements, new IdentityHashMap<Object, Object>());
+  }
+
+  private static void replay(Binder binder, List<Element> elements, Map<Object, Object> copies) {
+    for (Element element : elements) {
+      if (element instanceof PrivateElements) {
+        PrivateElements privateElements = (PrivateElements) element;
+        PrivateBinder privateBinder =
+            binder.withSource(privateElements.getSource()).newPrivateBinder();
+        replay(privateBinder, privateElements.getElements(), copies);
+        for (Key<?> key : privateElements.getExposedKeys()) {
+          privateBinder.withSource(privateElements.getExposedSource(key)).expose(key);
+        }
+      } else if (element instanceof ProviderLookup) {
+        // Only the lookups of map binder entries are replayable, and the entries redo them.
+      } else if (element instanceof ProviderInstanceBinding) {
+        replayProviderInstanceBinding(binder, (ProviderInstanceBindingImpl<?>) element, copies);
+      } else {
+        element.applyTo(binder);
+      }
+    }
+  }
+
+  private static <T> void replayProviderInstanceBinding(
+      Binder binder, ProviderInstanceBindingImpl<T> binding, Map<Object, Object> copies) {
+    Object provider = binding.getUserSuppliedProvider();
+    Binder sourcedBinder = binder.withSource(binding.getSource());
+    Object copy;
+    if (provider instanceof InternalProviderInstanceBindingImpl.Factory) {
+      // Factories bound to several keys are copied once, like the state they share.
+      copy = copies.get(provider);
+      if (copy == null) {
+        copy = ((InternalProviderInstanceBindingImpl.Factory<?>) provider).copy(copies);
+        copies.put(provider, copy);
+      }
+    } else if (provider instanceof RealMapBinder.ProviderMapEntry) {
+      copy = ((RealMapBinder.ProviderMapEntry<?, ?>) provider).copy(sourcedBinder);
+    } else {
+      binding.applyTo(binder);
+      return;
+    }
+
+    @SuppressWarnings("unchecked") // copies provide what their originals provide
+    Provider<T> typedCopy = (Provider<T>) copy;
+    binding.getScoping().applyTo(sourcedBinder.bind(binding.getKey()).toProvider(typedCopy));
+  }
+}
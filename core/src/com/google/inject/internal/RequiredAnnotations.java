@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.lang.annotation.Annotation;
+
+/**
+ * Describes which annotations an element must carry for a matcher to match it. This lets injectors
+ * index elements by annotation type and only try such matchers against elements they could match,
+ * rather than against every element.
+ */
+public final class RequiredAnnotations {
+  private RequiredAnnotations() {}
+
+  /** Implemented by matchers that only match elements carrying one of some annotations. */
+  public interface Source {
+    /**
+     * Returns the annotation types of which an element must carry at least one to match, or null
+     * if this matcher could match elements without any particular annotation.
+     */
+    ImmutableSet<Class<? extends Annotation>> requiredAnnotationTypes();
+  }
+
+  /**
+   * Returns the annotation types of which an element must carry at least one to match {@code
+   * matcher}, or null if that isn't known.
+   */
+  public static ImmutableSet<Class<? extends Annotation>> of(Object matcher) {
+    return matcher instanceof Source ? ((Source) matcher).requiredAnnotationTypes() : null;
+  }
+
+  /** Returns the annotation types required to match both {@code a} and {@code b}. */
+  public static ImmutableSet<Class<? extends Annotation>> forAnd(Object a, Object b) {
+    ImmutableSet<Class<? extends Annotation>> fromA = of(a);
+    ImmutableSet<Class<? extends Annotation>> fromB = of(b);
+    if (fromA == null) {
+      return fromB;
+    }
+    // Either side's requirement holds for both, so prefer the narrower one.
+    return fromB != null && fromB.size() < fromA.size() ? fromB : fromA;
+  }
+
+  /** Returns the annotation types required to match either {@code a} or {@code b}. */
+  public static ImmutableSet<Class<? extends Annotation>> forOr(Object a, Object b) {
+    ImmutableSet<Class<? extends Annotation>> fromA = of(a);
+    ImmutableSet<Class<? extends Annotation>> fromB = of(b);
+    if (fromA == null || fromB == null) {
+      return null;
+    }
+    return Sets.union(fromA, fromB).immutableCopy();
+  }
+}
@@ -163,6 +163,9 @@ public class SingletonScope implements Scope {
                     instance = providedNotNull;
                     constructionContext.setProxyDelegates(provided);
                   }
+                  if (injector != null) {
+                    injector.singletonCreated(provided);
+                  }
                 } else {
                   // safety assert in case instance was initialized
                   Preconditions.checkState(
@@ -101,7 +101,8 @@ final class WeakKeySet {
       sources = LinkedHashMultiset.create();
       backingMap.put(key, sources);
     }
-    Object convertedSource = Errors.convert(source);
+    // Compact sources are shared between injectors, so keep them rather than a copy per injector.
+    Object convertedSource = source instanceof CompactSource ? source : Errors.convert(source);
     sources.add(convertedSource);
 
     // Avoid all the extra work if we can.
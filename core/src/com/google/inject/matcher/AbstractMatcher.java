@@ -16,7 +16,11 @@
 
 package com.google.inject.matcher;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.internal.ClassIndexKeys;
+import com.google.inject.internal.RequiredAnnotations;
 import java.io.Serializable;
+import java.lang.annotation.Annotation;
 
 /**
  * Implements {@code and()} and {@code or()}.
@@ -35,7 +39,8 @@ public abstract class AbstractMatcher<T> implements Matcher<T> {
     return new OrMatcher<T>(this, other);
   }
 
-  private static class AndMatcher<T> extends AbstractMatcher<T> implements Serializable {
+  private static class AndMatcher<T> extends AbstractMatcher<T>
+      implements RequiredAnnotations.Source, ClassIndexKeys.Source, Serializable {
     private final Matcher<? super T> a, b;
 
     public AndMatcher(Matcher<? super T> a, Matcher<? super T> b) {
@@ -48,6 +53,16 @@ public abstract class AbstractMatcher<T> implements Matcher<T> {
       return a.matches(t) && b.matches(t);
     }
 
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> requiredAnnotationTypes() {
+      return RequiredAnnotations.forAnd(a, b);
+    }
+
+    @Override
+    public ImmutableSet<Object> classIndexKeys() {
+      return ClassIndexKeys.forAnd(a, b);
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof AndMatcher
@@ -68,7 +83,8 @@ public abstract class AbstractMatcher<T> implements Matcher<T> {
     private static final long serialVersionUID = 0;
   }
 
-  private static class OrMatcher<T> extends AbstractMatcher<T> implements Serializable {
+  private static class OrMatcher<T> extends AbstractMatcher<T>
+      implements RequiredAnnotations.Source, ClassIndexKeys.Source, Serializable {
     private final Matcher<? super T> a, b;
 
     public OrMatcher(Matcher<? super T> a, Matcher<? super T> b) {
@@ -81,6 +97,16 @@ public abstract class AbstractMatcher<T> implements Matcher<T> {
       return a.matches(t) || b.matches(t);
     }
 
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> requiredAnnotationTypes() {
+      return RequiredAnnotations.forOr(a, b);
+    }
+
+    @Override
+    public ImmutableSet<Object> classIndexKeys() {
+      return ClassIndexKeys.forOr(a, b);
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof OrMatcher
@@ -19,6 +19,9 @@ package com.google.inject.matcher;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.internal.ClassIndexKeys;
+import com.google.inject.internal.RequiredAnnotations;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Retention;
@@ -109,7 +112,7 @@ public class Matchers {
   }
 
   private static class AnnotatedWithType extends AbstractMatcher<AnnotatedElement>
-      implements Serializable {
+      implements RequiredAnnotations.Source, Serializable {
     private final Class<? extends Annotation> annotationType;
 
     public AnnotatedWithType(Class<? extends Annotation> annotationType) {
@@ -122,6 +125,11 @@ public class Matchers {
       return element.isAnnotationPresent(annotationType);
     }
 
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> requiredAnnotationTypes() {
+      return ImmutableSet.<Class<? extends Annotation>>of(annotationType);
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof AnnotatedWithType
@@ -147,7 +155,7 @@ public class Matchers {
   }
 
   private static class AnnotatedWith extends AbstractMatcher<AnnotatedElement>
-      implements Serializable {
+      implements RequiredAnnotations.Source, Serializable {
     private final Annotation annotation;
 
     public AnnotatedWith(Annotation annotation) {
@@ -161,6 +169,11 @@ public class Matchers {
       return fromElement != null && annotation.equals(fromElement);
     }
 
+    @Override
+    public ImmutableSet<Class<? extends Annotation>> requiredAnnotationTypes() {
+      return ImmutableSet.<Class<? extends Annotation>>of(annotation.annotationType());
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof AnnotatedWith
@@ -185,7 +198,8 @@ public class Matchers {
     return new SubclassesOf(superclass);
   }
 
-  private static class SubclassesOf extends AbstractMatcher<Class> implements Serializable {
+  private static class SubclassesOf extends AbstractMatcher<Class>
+      implements ClassIndexKeys.Source, Serializable {
     private final Class<?> superclass;
 
     public SubclassesOf(Class<?> superclass) {
@@ -197,6 +211,11 @@ public class Matchers {
       return superclass.isAssignableFrom(subclass);
     }
 
+    @Override
+    public ImmutableSet<Object> classIndexKeys() {
+      return ImmutableSet.of(ClassIndexKeys.subtypeOf(superclass));
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof SubclassesOf && ((SubclassesOf) other).superclass.equals(superclass);
@@ -220,7 +239,8 @@ public class Matchers {
     return new Only(value);
   }
 
-  private static class Only extends AbstractMatcher<Object> implements Serializable {
+  private static class Only extends AbstractMatcher<Object>
+      implements ClassIndexKeys.Source, Serializable {
     private final Object value;
 
     public Only(Object value) {
@@ -232,6 +252,11 @@ public class Matchers {
       return value.equals(other);
     }
 
+    @Override
+    public ImmutableSet<Object> classIndexKeys() {
+      return ImmutableSet.of(ClassIndexKeys.equalTo(value));
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof Only && ((Only) other).value.equals(value);
@@ -255,7 +280,8 @@ public class Matchers {
     return new IdenticalTo(value);
   }
 
-  private static class IdenticalTo extends AbstractMatcher<Object> implements Serializable {
+  private static class IdenticalTo extends AbstractMatcher<Object>
+      implements ClassIndexKeys.Source, Serializable {
     private final Object value;
 
     public IdenticalTo(Object value) {
@@ -267,6 +293,11 @@ public class Matchers {
       return value == other;
     }
 
+    @Override
+    public ImmutableSet<Object> classIndexKeys() {
+      return ImmutableSet.of(ClassIndexKeys.equalTo(value));
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof IdenticalTo && ((IdenticalTo) other).value == value;
@@ -293,7 +324,8 @@ public class Matchers {
     return new InPackage(targetPackage);
   }
 
-  private static class InPackage extends AbstractMatcher<Class> implements Serializable {
+  private static class InPackage extends AbstractMatcher<Class>
+      implements ClassIndexKeys.Source, Serializable {
     private final transient Package targetPackage;
     private final String packageName;
 
@@ -307,6 +339,11 @@ public class Matchers {
       return c.getPackage().equals(targetPackage);
     }
 
+    @Override
+    public ImmutableSet<Object> classIndexKeys() {
+      return ImmutableSet.of(ClassIndexKeys.inPackage(targetPackage));
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof InPackage && ((InPackage) other).targetPackage.equals(targetPackage);
@@ -339,7 +376,8 @@ public class Matchers {
     return new InSubpackage(targetPackageName);
   }
 
-  private static class InSubpackage extends AbstractMatcher<Class> implements Serializable {
+  private static class InSubpackage extends AbstractMatcher<Class>
+      implements ClassIndexKeys.Source, Serializable {
     private final String targetPackageName;
 
     public InSubpackage(String targetPackageName) {
@@ -353,6 +391,11 @@ public class Matchers {
           || classPackageName.startsWith(targetPackageName + ".");
     }
 
+    @Override
+    public ImmutableSet<Object> classIndexKeys() {
+      return ImmutableSet.of(ClassIndexKeys.inSubpackage(targetPackageName));
+    }
+
     @Override
     public boolean equals(Object other) {
       return other instanceof InSubpackage
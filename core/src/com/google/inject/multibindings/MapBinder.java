@@ -183,6 +183,32 @@ public class MapBinder<K, V> {
     return this;
   }
 
+  /**
+   * Configures the {@code MapBinder} to provision values on demand.
+   *
+   * <p>The injected {@code Map<K, V>} is read-only and provisions a value the first time it is read,
+   * either through {@link Map#get} or by iterating over the values or entries. That value is then
+   * kept for the life of that map instance. Asking for keys or the size never provisions anything.
+   * Each value is obtained from its binding and so honors that binding's scope. This is useful for
+   * large maps where only a few values are needed per use.
+   *
+   * <p>Values are provisioned through their bindings' {@linkplain com.google.inject.Binding#getProvider providers}
+   * when they are read, not while the map itself is injected. Provisioning errors, including a
+   * binding that provides null, are thrown as a {@link com.google.inject.ProvisionException} from
+   * the read, and don't mention where the map was injected. Circular dependencies on the map's
+   * values are not proxied through the map's own injection either.
+   *
+   * <p>When multiple modules contribute elements to the map, this configuration option impacts all
+   * of them.
+   *
+   * @return this map binder
+   * @since 4.2
+   */
+  public MapBinder<K, V> lazy() {
+    delegate.lazy();
+    return this;
+  }
+
   /**
    * Returns a binding builder used to add a new entry in the map. Each key must be distinct (and
    * non-null). Bound providers will be evaluated each time the map is injected.
@@ -26,6 +26,7 @@ import com.google.inject.internal.RealMultibinder;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * An API to bind multiple values separately, only to later inject them as a complete collection.
@@ -164,6 +165,25 @@ public class Multibinder<T> {
     return this;
   }
 
+  /**
+   * Configures the bound set to provision its elements concurrently on {@code executor}. Each
+   * element is provisioned in its own task, and the injecting thread waits for all of them. The
+   * set's iteration order is still the binding order, and errors from all elements are reported
+   * together. Tasks that the executor rejects run on the injecting thread.
+   *
+   * <p>This is intended for sets of slow, independent elements. Elements are not provisioned within
+   * the injecting thread's context, so avoid this option for elements that depend on each other or
+   * on objects that thread is still constructing. When multiple modules contribute elements to the
+   * set, this configuration option impacts all of them, and they must all use the same executor.
+   *
+   * @return this multibinder
+   * @since 4.2
+   */
+  public Multibinder<T> provisionConcurrently(Executor executor) {
+    delegate.provisionConcurrently(executor);
+    return this;
+  }
+
   /**
    * Returns a binding builder used to add a new element in the set. Each bound element must have a
    * distinct value. Bound providers will be evaluated each time the set is injected.
@@ -30,12 +30,14 @@ import com.google.inject.Module;
 import com.google.inject.PrivateBinder;
 import com.google.inject.PrivateModule;
 import com.google.inject.Scope;
+import com.google.inject.Stage;
 import com.google.inject.internal.Errors;
 import com.google.inject.spi.DefaultBindingScopingVisitor;
 import com.google.inject.spi.DefaultElementVisitor;
 import com.google.inject.spi.Element;
 import com.google.inject.spi.ElementVisitor;
 import com.google.inject.spi.Elements;
+import com.google.inject.spi.Message;
 import com.google.inject.spi.ModuleAnnotatedMethodScannerBinding;
 import com.google.inject.spi.PrivateElements;
 import com.google.inject.spi.ScopeBinding;
@@ -162,76 +164,99 @@ public final class Modules {
     private final ImmutableSet<Module> overrides;
     private final ImmutableSet<Module> baseModules;
 
+    /** The elements to bind, if they were computed already; otherwise null. */
+    private final OverriddenElements overridden;
+
     OverrideModule(Iterable<? extends Module> overrides, ImmutableSet<Module> baseModules) {
       this.overrides = ImmutableSet.copyOf(overrides);
       this.baseModules = baseModules;
+      this.overridden = null;
+    }
+
+    /** Creates a module that binds {@code overridden}, which another override module computed. */
+    private OverrideModule(OverriddenElements overridden) {
+      this.overrides = ImmutableSet.of();
+      this.baseModules = ImmutableSet.of();
+      this.overridden = overridden;
     }
 
     @Override
     public void configure() {
-      Binder baseBinder = binder();
-      List<Element> baseElements = Elements.getElements(currentStage(), baseModules);
+      OverriddenElements elements = overridden != null ? overridden : override(currentStage());
+      elements.writeTo(binder().skipSources(this.getClass()));
+    }
+
+    /**
+     * Returns the elements this module binds in {@code stage}. When overrides are stacked, the
+     * outer override module uses these rather than recording and copying everything that the inner
+     * one binds.
+     */
+    List<Element> getElements(Stage stage) {
+      OverriddenElements overridden = override(stage);
+      if (overridden.privateBase == null
+          && overridden.rewrites.isEmpty()
+          && overridden.errors.isEmpty()) {
+        return overridden.elements;
+      }
+      // Private environments and errors have to be written to a binder to get their sources.
+      return Elements.getElements(stage, new OverrideModule(overridden));
+    }
+
+    /**
+     * Computes the elements to bind from the recorded elements of the base and override modules.
+     * Recorded elements are reused as they are, except for private environments that expose
+     * overridden keys, which are rewritten when the elements are written to a binder.
+     */
+    private OverriddenElements override(Stage stage) {
+      List<Element> baseElements = Modules.getElements(stage, baseModules);
 
       // If the sole element was a PrivateElements, we want to override
-      // the private elements within that -- so refocus our elements
-      // and binder.
+      // the private elements within that -- so refocus our elements.
+      PrivateElements privateBase = null;
       if (baseElements.size() == 1) {
         Element element = Iterables.getOnlyElement(baseElements);
         if (element instanceof PrivateElements) {
-          PrivateElements privateElements = (PrivateElements) element;
-          PrivateBinder privateBinder =
-              baseBinder.newPrivateBinder().withSource(privateElements.getSource());
-          for (Key exposed : privateElements.getExposedKeys()) {
-            privateBinder.withSource(privateElements.getExposedSource(exposed)).expose(exposed);
-          }
-          baseBinder = privateBinder;
-          baseElements = privateElements.getElements();
+          privateBase = (PrivateElements) element;
+          baseElements = privateBase.getElements();
         }
       }
 
-      final Binder binder = baseBinder.skipSources(this.getClass());
       final LinkedHashSet<Element> elements = new LinkedHashSet<Element>(baseElements);
       final Module scannersModule = extractScanners(elements);
       final List<Element> overrideElements =
           Elements.getElements(
-              currentStage(),
+              stage,
               ImmutableList.<Module>builder().addAll(overrides).add(scannersModule).build());
 
       final Set<Key<?>> overriddenKeys = Sets.newHashSet();
       final Map<Class<? extends Annotation>, ScopeBinding> overridesScopeAnnotations =
           Maps.newHashMap();
-
-      // execute the overrides module, keeping track of which keys and scopes are bound
-      new ModuleWriter(binder) {
-        @Override
-        public <T> Void visit(Binding<T> binding) {
-          overriddenKeys.add(binding.getKey());
-          return super.visit(binding);
-        }
-
-        @Override
-        public Void visit(ScopeBinding scopeBinding) {
+      final List<Element> result = Lists.newArrayList();
+
+      // keep the overrides module, keeping track of which keys and scopes are bound
+      for (Element element : overrideElements) {
+        if (element instanceof Binding) {
+          overriddenKeys.add(((Binding<?>) element).getKey());
+        } else if (element instanceof ScopeBinding) {
+          ScopeBinding scopeBinding = (ScopeBinding) element;
           overridesScopeAnnotations.put(scopeBinding.getAnnotationType(), scopeBinding);
-          return super.visit(scopeBinding);
-        }
-
-        @Override
-        public Void visit(PrivateElements privateElements) {
-          overriddenKeys.addAll(privateElements.getExposedKeys());
-          return super.visit(privateElements);
+        } else if (element instanceof PrivateElements) {
+          overriddenKeys.addAll(((PrivateElements) element).getExposedKeys());
         }
-      }.writeAll(overrideElements);
+        result.add(element);
+      }
 
-      // execute the original module, skipping all scopes and overridden keys. We only skip each
+      // keep the original module, skipping all scopes and overridden keys. We only skip each
       // overridden binding once so things still blow up if the module binds the same thing
       // multiple times.
       final Map<Scope, List<Object>> scopeInstancesInUse = Maps.newHashMap();
       final List<ScopeBinding> scopeBindings = Lists.newArrayList();
-      new ModuleWriter(binder) {
-        @Override
-        public <T> Void visit(Binding<T> binding) {
+      final Map<PrivateElements, Set<Key<?>>> rewrites = Maps.newIdentityHashMap();
+      for (Element element : elements) {
+        if (element instanceof Binding) {
+          Binding<?> binding = (Binding<?>) element;
           if (!overriddenKeys.remove(binding.getKey())) {
-            super.visit(binding);
+            result.add(binding);
 
             // Record when a scope instance is used in a binding
             Scope scope = getScopeInstanceOrNull(binding);
@@ -244,76 +269,46 @@ public final class Modules {
               existing.add(binding.getSource());
             }
           }
-
-          return null;
-        }
-
-        void rewrite(Binder binder, PrivateElements privateElements, Set<Key<?>> keysToSkip) {
-          PrivateBinder privateBinder =
-              binder.withSource(privateElements.getSource()).newPrivateBinder();
-
-          Set<Key<?>> skippedExposes = Sets.newHashSet();
-
-          for (Key<?> key : privateElements.getExposedKeys()) {
-            if (keysToSkip.remove(key)) {
-              skippedExposes.add(key);
-            } else {
-              privateBinder.withSource(privateElements.getExposedSource(key)).expose(key);
-            }
-          }
-
-          for (Element element : privateElements.getElements()) {
-            if (element instanceof Binding && skippedExposes.remove(((Binding) element).getKey())) {
-              continue;
-            }
-            if (element instanceof PrivateElements) {
-              rewrite(privateBinder, (PrivateElements) element, skippedExposes);
-              continue;
-            }
-            element.applyTo(privateBinder);
+        } else if (element instanceof PrivateElements) {
+          PrivateElements privateElements = (PrivateElements) element;
+          Set<Key<?>> skippedExposes =
+              Sets.intersection(privateElements.getExposedKeys(), overriddenKeys).immutableCopy();
+          if (!skippedExposes.isEmpty()) {
+            overriddenKeys.removeAll(skippedExposes);
+            rewrites.put(privateElements, skippedExposes);
           }
+          result.add(privateElements);
+        } else if (element instanceof ScopeBinding) {
+          scopeBindings.add((ScopeBinding) element);
+        } else {
+          result.add(element);
         }
+      }
 
-        @Override
-        public Void visit(PrivateElements privateElements) {
-          rewrite(binder, privateElements, overriddenKeys);
-          return null;
-        }
-
-        @Override
-        public Void visit(ScopeBinding scopeBinding) {
-          scopeBindings.add(scopeBinding);
-          return null;
-        }
-      }.writeAll(elements);
-
-      // execute the scope bindings, skipping scopes that have been overridden. Any scope that
+      // keep the scope bindings, skipping scopes that have been overridden. Any scope that
       // is overridden and in active use will prompt an error
-      new ModuleWriter(binder) {
-        @Override
-        public Void visit(ScopeBinding scopeBinding) {
-          ScopeBinding overideBinding =
-              overridesScopeAnnotations.remove(scopeBinding.getAnnotationType());
-          if (overideBinding == null) {
-            super.visit(scopeBinding);
-          } else {
-            List<Object> usedSources = scopeInstancesInUse.get(scopeBinding.getScope());
-            if (usedSources != null) {
-              StringBuilder sb =
-                  new StringBuilder(
-                      "The scope for @%s is bound directly and cannot be overridden.");
-              sb.append("%n     original binding at " + Errors.convert(scopeBinding.getSource()));
-              for (Object usedSource : usedSources) {
-                sb.append("%n     bound directly at " + Errors.convert(usedSource) + "");
-              }
-              binder
-                  .withSource(overideBinding.getSource())
-                  .addError(sb.toString(), scopeBinding.getAnnotationType().getSimpleName());
+      List<Message> errors = Lists.newArrayList();
+      for (ScopeBinding scopeBinding : scopeBindings) {
+        ScopeBinding overideBinding =
+            overridesScopeAnnotations.remove(scopeBinding.getAnnotationType());
+        if (overideBinding == null) {
+          result.add(scopeBinding);
+        } else {
+          List<Object> usedSources = scopeInstancesInUse.get(scopeBinding.getScope());
+          if (usedSources != null) {
+            StringBuilder sb =
+                new StringBuilder("The scope for @%s is bound directly and cannot be overridden.");
+            sb.append("%n     original binding at " + Errors.convert(scopeBinding.getSource()));
+            for (Object usedSource : usedSources) {
+              sb.append("%n     bound directly at " + Errors.convert(usedSource) + "");
             }
+            String scopeName = scopeBinding.getAnnotationType().getSimpleName();
+            errors.add(
+                new Message(overideBinding.getSource(), Errors.format(sb.toString(), scopeName)));
           }
-          return null;
         }
-      }.writeAll(scopeBindings);
+      }
+      return new OverriddenElements(privateBase, result, rewrites, errors);
     }
 
     private Scope getScopeInstanceOrNull(Binding<?> binding) {
@@ -327,24 +322,95 @@ public final class Modules {
     }
   }
 
-  private static class ModuleWriter extends DefaultElementVisitor<Void> {
-    protected final Binder binder;
+  /** The elements an {@link OverrideModule} binds. */
+  private static final class OverriddenElements {
+    /**
+     * The sole private environment of the base modules, if its elements were overridden rather
+     * than those of the base modules. The overridden elements belong in a copy of it.
+     */
+    final PrivateElements privateBase;
+
+    final List<Element> elements;
+
+    /** The private environments among {@link #elements} whose overridden exposed keys to skip. */
+    final Map<PrivateElements, Set<Key<?>>> rewrites;
+
+    /** Errors to report, with the sources of the overrides they are about. */
+    final List<Message> errors;
+
+    OverriddenElements(
+        PrivateElements privateBase,
+        List<Element> elements,
+        Map<PrivateElements, Set<Key<?>>> rewrites,
+        List<Message> errors) {
+      this.privateBase = privateBase;
+      this.elements = elements;
+      this.rewrites = rewrites;
+      this.errors = errors;
+    }
 
-    ModuleWriter(Binder binder) {
-      this.binder = binder.skipSources(this.getClass());
+    void writeTo(Binder binder) {
+      if (privateBase != null) {
+        PrivateBinder privateBinder =
+            binder.newPrivateBinder().withSource(privateBase.getSource());
+        for (Key exposed : privateBase.getExposedKeys()) {
+          privateBinder.withSource(privateBase.getExposedSource(exposed)).expose(exposed);
+        }
+        binder = privateBinder;
+      }
+      for (Element element : elements) {
+        Set<Key<?>> keysToSkip = rewrites.get(element);
+        if (keysToSkip != null) {
+          rewrite(binder, (PrivateElements) element, Sets.newHashSet(keysToSkip));
+        } else {
+          element.applyTo(binder);
+        }
+      }
+      for (Message error : errors) {
+        binder.withSource(error.getSources().get(0)).addError("%s", error.getMessage());
+      }
     }
 
-    @Override
-    protected Void visitOther(Element element) {
-      element.applyTo(binder);
-      return null;
+    private static void rewrite(
+        Binder binder, PrivateElements privateElements, Set<Key<?>> keysToSkip) {
+      PrivateBinder privateBinder =
+          binder.withSource(privateElements.getSource()).newPrivateBinder();
+
+      Set<Key<?>> skippedExposes = Sets.newHashSet();
+
+      for (Key<?> key : privateElements.getExposedKeys()) {
+        if (keysToSkip.remove(key)) {
+          skippedExposes.add(key);
+        } else {
+          privateBinder.withSource(privateElements.getExposedSource(key)).expose(key);
+        }
+      }
+
+      for (Element element : privateElements.getElements()) {
+        if (element instanceof Binding && skippedExposes.remove(((Binding) element).getKey())) {
+          continue;
+        }
+        if (element instanceof PrivateElements) {
+          rewrite(privateBinder, (PrivateElements) element, skippedExposes);
+          continue;
+        }
+        element.applyTo(privateBinder);
+      }
     }
+  }
 
-    void writeAll(Iterable<? extends Element> elements) {
-      for (Element element : elements) {
-        element.acceptVisitor(this);
+  /**
+   * Records the elements of {@code modules}. The elements of a sole override module are computed
+   * from what it recorded itself, instead of being recorded again.
+   */
+  private static List<Element> getElements(Stage stage, Set<Module> modules) {
+    if (modules.size() == 1) {
+      Module module = Iterables.getOnlyElement(modules);
+      if (module instanceof OverrideModule) {
+        return ((OverrideModule) module).getElements(stage);
       }
     }
+    return Elements.getElements(stage, modules);
   }
 
   private static Module extractScanners(Iterable<Element> elements) {
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Binding;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Scopes;
+import com.google.inject.spi.ConstructorBinding;
+import com.google.inject.spi.DefaultBindingTargetVisitor;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.ProviderBinding;
+import com.google.inject.spi.ProviderKeyBinding;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Static utility methods for warming up an injector in the background.
+ *
+ * <p>The first request for a binding can pay for work that injector creation deferred: creating
+ * just-in-time bindings for its dependencies, initializing the classes involved and, outside of
+ * {@link com.google.inject.Stage#PRODUCTION}, constructing singletons. Warming up walks the
+ * injector's bindings and the bindings they depend on, doing that work ahead of time. Singletons
+ * are instantiated just as production stage would have done eagerly; nothing else is provisioned.
+ *
+ * <p>Problems found while warming up, such as missing bindings or failing class initializers, are
+ * logged and otherwise ignored; they are reported as usual when the binding is first used.
+ *
+ * @since 4.2
+ */
+public final class Warmup {
+  private static final Logger logger = Logger.getLogger(Warmup.class.getName());
+
+  /** The number of bindings each warm-up task starts from. */
+  private static final int BATCH_SIZE = 64;
+
+  private Warmup() {}
+
+  /**
+   * Warms up {@code injector} on a small pool of low-priority daemon threads, returning a future
+   * that completes once warming up is done.
+   */
+  public static Future<?> warmUp(Injector injector) {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(2, Runtime.getRuntime().availableProcessors()),
+            new ThreadFactoryBuilder()
+                .setNameFormat("guice-warmup-%d")
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .build());
+    try {
+      return warmUp(injector, executor);
+    } finally {
+      // Lets the queued tasks finish and then releases the threads.
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Warms up {@code injector} using tasks on {@code executor}, returning a future that completes
+   * once all of them are done. Tasks the executor rejects run on the calling thread.
+   */
+  public static Future<?> warmUp(final Injector injector, Executor executor) {
+    checkNotNull(injector, "injector");
+    checkNotNull(executor, "executor");
+    final Set<Key<?>> visited =
+        Collections.newSetFromMap(new ConcurrentHashMap<Key<?>, Boolean>());
+    List<Binding<?>> bindings = ImmutableList.copyOf(injector.getAllBindings().values());
+    List<ListenableFutureTask<Void>> tasks = Lists.newArrayList();
+    for (final List<Binding<?>> batch : Lists.partition(bindings, BATCH_SIZE)) {
+      ListenableFutureTask<Void> task =
+          ListenableFutureTask.create(
+              new Runnable() {
+                @Override
+                public void run() {
+                  new Walker(injector, visited).walk(batch);
+                }
+              },
+              null);
+      tasks.add(task);
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        task.run();
+      }
+    }
+    return Futures.allAsList(tasks);
+  }
+
+  /** Walks bindings and everything they link to or depend on, skipping visited keys. */
+  private static final class Walker extends DefaultBindingTargetVisitor<Object, Void> {
+    private final Injector injector;
+    private final Set<Key<?>> visited;
+    private final Deque<Binding<?>> pending = new ArrayDeque<Binding<?>>();
+
+    Walker(Injector injector, Set<Key<?>> visited) {
+      this.injector = injector;
+      this.visited = visited;
+    }
+
+    void walk(List<Binding<?>> bindings) {
+      for (Binding<?> binding : bindings) {
+        if (visited.add(binding.getKey())) {
+          pending.add(binding);
+        }
+      }
+      Binding<?> binding;
+      while ((binding = pending.poll()) != null) {
+        try {
+          binding.acceptTargetVisitor(this);
+          if (Scopes.isSingleton(binding)) {
+            binding.getProvider().get();
+          }
+          if (binding instanceof HasDependencies) {
+            for (Dependency<?> dependency : ((HasDependencies) binding).getDependencies()) {
+              follow(dependency.getKey());
+            }
+          }
+        } catch (RuntimeException e) {
+          logger.log(Level.FINE, "Failed to warm up " + binding, e);
+        } catch (LinkageError e) {
+          logger.log(Level.FINE, "Failed to warm up " + binding, e);
+        }
+      }
+    }
+
+    /** Looks up (and so creates, if necessary) the binding for {@code key} and queues it. */
+    private void follow(Key<?> key) {
+      if (!visited.add(key)) {
+        return;
+      }
+      try {
+        pending.add(injector.getBinding(key));
+      } catch (ConfigurationException e) {
+        logger.log(Level.FINE, "Failed to warm up " + key, e);
+      }
+    }
+
+    @Override
+    public Void visit(ConstructorBinding<?> binding) {
+      Class<?> type = binding.getConstructor().getDeclaringType().getRawType();
+      try {
+        // Loads and initializes the class without creating an instance.
+        Class.forName(type.getName(), true, type.getClassLoader());
+      } catch (ClassNotFoundException e) {
+        logger.log(Level.FINE, "Failed to initialize " + type, e);
+      }
+      return null;
+    }
+
+    @Override
+    public Void visit(LinkedKeyBinding<?> binding) {
+      follow(binding.getLinkedKey());
+      return null;
+    }
+
+    @Override
+    public Void visit(ProviderKeyBinding<?> binding) {
+      follow(binding.getProviderKey());
+      return null;
+    }
+
+    @Override
+    public Void visit(ProviderBinding<?> binding) {
+      follow(binding.getProvidedKey());
+      return null;
+    }
+  }
+}
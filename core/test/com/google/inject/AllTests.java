@@ -17,6 +17,7 @@
 package com.google.inject;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.inject.internal.CompactSourceTest;
 import com.google.inject.internal.MoreTypesTest;
 import com.google.inject.internal.UniqueAnnotationsTest;
 import com.google.inject.internal.WeakKeySetTest;
@@ -42,6 +43,7 @@ import com.google.inject.util.NoopOverrideTest;
 import com.google.inject.util.OverrideModuleTest;
 import com.google.inject.util.ProvidersTest;
 import com.google.inject.util.TypesTest;
+import com.google.inject.util.WarmupTest;
 import com.googlecode.guice.GuiceTck;
 import com.googlecode.guice.Jsr330Test;
 import java.util.Set;
@@ -71,6 +73,9 @@ public class AllTests {
     suite.addTestSuite(DuplicateBindingsTest.class);
     // ErrorHandlingTest.class is not a testcase
     suite.addTestSuite(EagerSingletonTest.class);
+    suite.addTestSuite(FrozenInjectorTest.class);
+    suite.addTestSuite(InjectorCloseTest.class);
+    suite.addTestSuite(InjectorTemplateTest.class);
     suite.addTestSuite(GenericInjectionTest.class);
     suite.addTestSuite(ImplicitBindingTest.class);
     suite.addTestSuite(TypeListenerTest.class);
@@ -106,6 +111,7 @@ public class AllTests {
     suite.addTestSuite(WeakKeySetTest.class);
 
     // internal
+    suite.addTestSuite(CompactSourceTest.class);
     suite.addTestSuite(LineNumbersTest.class);
     suite.addTestSuite(MoreTypesTest.class);
     suite.addTestSuite(UniqueAnnotationsTest.class);
@@ -139,6 +145,7 @@ public class AllTests {
     suite.addTestSuite(NoopOverrideTest.class);
     suite.addTestSuite(ProvidersTest.class);
     suite.addTestSuite(TypesTest.class);
+    suite.addTestSuite(WarmupTest.class);
 
     /*if[AOP]*/
     suite.addTestSuite(com.google.inject.internal.ProxyFactoryTest.class);
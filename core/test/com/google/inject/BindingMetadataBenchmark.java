@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.name.Names.named;
+
+import com.google.inject.internal.InternalFlags;
+import com.google.inject.name.Named;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap that child injectors retain per 10,000 bindings, as services creating an
+ * injector per tenant from the same modules do. Run it once as is and once with {@code
+ * -Dguice_binding_metadata=COMPACT} to compare the binding metadata options.
+ */
+public class BindingMetadataBenchmark {
+  static final int BINDINGS = 10000;
+  static final int INJECTORS = 20;
+
+  public static void main(String[] args) {
+    Injector parent = Guice.createInjector();
+    createInjectors(parent, 2); // warm up
+
+    long before = usedHeap();
+    List<Injector> injectors = createInjectors(parent, INJECTORS);
+    long retained = usedHeap() - before;
+
+    System.err.println(
+        "Binding metadata "
+            + InternalFlags.getBindingMetadataOption()
+            + ": "
+            + new DecimalFormat().format(retained / INJECTORS / 1024)
+            + " KiB per "
+            + new DecimalFormat().format(BINDINGS)
+            + " bindings");
+    if (injectors.size() != INJECTORS) {
+      throw new AssertionError();
+    }
+  }
+
+  static List<Injector> createInjectors(Injector parent, int count) {
+    List<Injector> injectors = new ArrayList<Injector>();
+    for (int i = 0; i < count; i++) {
+      injectors.add(parent.createChildInjector(new TenantModule()));
+    }
+    return injectors;
+  }
+
+  static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  static class Service {
+    @Inject
+    Service(@Named("0") String value) {}
+  }
+
+  /** Binds a mix of instances, linked bindings and privately bound, exposed instances. */
+  static class TenantModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      for (int i = 0; i < BINDINGS * 2 / 5; i++) {
+        bind(String.class).annotatedWith(named("" + i)).toInstance("value");
+        bind(Service.class).annotatedWith(named("" + i)).to(Service.class);
+      }
+      install(
+          new PrivateModule() {
+            @Override
+            protected void configure() {
+              for (int i = 0; i < BINDINGS / 5; i++) {
+                bind(Integer.class).annotatedWith(named("" + i)).toInstance(i);
+                expose(Integer.class).annotatedWith(named("" + i));
+              }
+            }
+          });
+    }
+  }
+}
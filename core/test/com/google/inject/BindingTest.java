@@ -468,6 +468,23 @@ public class BindingTest extends TestCase {
     assertEquals(injector, bindings.get(Key.get(Injector.class)).getProvider().get());
   }
 
+  public void testGetAllBindingsReusesSnapshotUntilJitBindingIsAdded() {
+    Injector injector = Guice.createInjector();
+    Map<Key<?>, Binding<?>> bindings = injector.getAllBindings();
+    assertSame(bindings, injector.getAllBindings());
+
+    // looking up an existing binding doesn't change anything
+    injector.getInstance(Injector.class);
+    assertSame(bindings, injector.getAllBindings());
+
+    // add a JIT binding
+    injector.getInstance(F.class);
+    Map<Key<?>, Binding<?>> bindings2 = injector.getAllBindings();
+    assertNotSame(bindings, bindings2);
+    assertTrue(bindings2.containsKey(Key.get(F.class)));
+    assertSame(bindings2, injector.getAllBindings());
+  }
+
   public void testGetAllServletBindings() throws Exception {
     Injector injector =
         Guice.createInjector(
@@ -646,4 +663,58 @@ public class BindingTest extends TestCase {
     @Inject
     ButterSandwitch(@Named("unsalted") Butter butter) {};
   }
+
+  interface Layer {}
+
+  interface MiddleLayer extends Layer {}
+
+  static class BottomLayer implements MiddleLayer {}
+
+  static class BrokenLayer implements MiddleLayer {
+    @Inject
+    BrokenLayer() {
+      throw new UnsupportedOperationException("broken");
+    }
+  }
+
+  public void testLinkedBindingChainsKeepTheScopeOfEachLink() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Layer.class).to(MiddleLayer.class);
+                bind(MiddleLayer.class).to(BottomLayer.class).in(Scopes.SINGLETON);
+              }
+            });
+
+    Layer layer = injector.getInstance(Layer.class);
+    assertSame(layer, injector.getInstance(Layer.class));
+    assertSame(layer, injector.getInstance(MiddleLayer.class));
+    assertNotSame(layer, injector.getInstance(BottomLayer.class));
+  }
+
+  public void testErrorsFromLinkedBindingChainsShowEachLink() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Layer.class).to(MiddleLayer.class);
+                bind(MiddleLayer.class).to(BrokenLayer.class);
+              }
+            });
+
+    try {
+      injector.getInstance(Layer.class);
+      fail();
+    } catch (ProvisionException expected) {
+      assertContains(
+          expected.getMessage(),
+          "UnsupportedOperationException: broken",
+          "while locating " + BrokenLayer.class.getName(),
+          "while locating " + MiddleLayer.class.getName(),
+          "while locating " + Layer.class.getName());
+    }
+  }
 }
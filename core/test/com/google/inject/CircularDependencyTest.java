@@ -24,6 +24,7 @@ import com.google.common.collect.Maps;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -788,4 +789,106 @@ public class CircularDependencyTest extends TestCase {
     @Inject
     void inject(K k) {}
   }
+
+  public interface Chicken {
+    Egg egg();
+  }
+
+  interface Egg {
+    Chicken chicken();
+  }
+
+  static class RealChicken implements Chicken {
+    final Egg egg;
+
+    @Inject
+    RealChicken(Egg egg) {
+      this.egg = egg;
+    }
+
+    @Override
+    public Egg egg() {
+      return egg;
+    }
+
+    @Override
+    public String toString() {
+      return "chicken";
+    }
+  }
+
+  static class RealEgg implements Egg {
+    final Chicken chicken;
+
+    @Inject
+    RealEgg(Chicken chicken) {
+      this.chicken = chicken;
+    }
+
+    @Override
+    public Chicken chicken() {
+      return chicken;
+    }
+  }
+
+  static class ImpatientEgg implements Egg {
+    @Inject
+    ImpatientEgg(Chicken chicken) {
+      chicken.egg();
+    }
+
+    @Override
+    public Chicken chicken() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  public void testCircularProxiesCallTheirDelegates() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Chicken.class).to(RealChicken.class);
+                bind(Egg.class).to(RealEgg.class);
+              }
+            });
+
+    Chicken chicken = injector.getInstance(Chicken.class);
+    Chicken chickenProxy = chicken.egg().chicken();
+    assertTrue(Scopes.isCircularProxy(chickenProxy));
+    /*if[AOP]*/
+    assertFalse(Proxy.isProxyClass(chickenProxy.getClass()));
+    /*end[AOP]*/
+    assertSame(chicken.egg(), chickenProxy.egg());
+    assertEquals("chicken", chickenProxy.toString());
+
+    Egg egg = injector.getInstance(Egg.class);
+    Egg eggProxy = egg.chicken().egg();
+    assertTrue(Scopes.isCircularProxy(eggProxy));
+    /*if[AOP]*/
+    assertFalse(Proxy.isProxyClass(eggProxy.getClass()));
+    /*end[AOP]*/
+    assertSame(egg.chicken(), eggProxy.chicken());
+  }
+
+  public void testCircularProxiesCannotBeUsedBeforeConstruction() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Chicken.class).to(RealChicken.class);
+                bind(Egg.class).to(ImpatientEgg.class);
+              }
+            });
+
+    try {
+      injector.getInstance(Chicken.class);
+      fail();
+    } catch (ProvisionException expected) {
+      assertTrue(expected.getCause() instanceof IllegalStateException);
+      assertContains(expected.getMessage(), "not constructed yet");
+    }
+  }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.text.DecimalFormat;
+
+/**
+ * Compares the cost of calls through the proxies Guice creates for circular dependencies with
+ * calls through a {@link Proxy} that invokes its delegate reflectively, as circular proxies used
+ * to, and with direct calls.
+ */
+public class CircularProxyBenchmark {
+  static final int CALLS = 10000000;
+  static final int ROUNDS = 5;
+
+  public static void main(String[] args) {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Counter.class).to(RealCounter.class).in(Scopes.SINGLETON);
+                bind(Holder.class).to(RealHolder.class).in(Scopes.SINGLETON);
+              }
+            });
+    Counter counter = injector.getInstance(Counter.class);
+    Counter circularProxy = injector.getInstance(Holder.class).counter();
+    if (!Scopes.isCircularProxy(circularProxy)) {
+      throw new AssertionError();
+    }
+    Counter reflectiveProxy = reflectiveProxy(counter);
+
+    for (int i = 0; i < ROUNDS; i++) {
+      System.err.println(
+          "direct: "
+              + time(counter)
+              + " ns/call, circular proxy: "
+              + time(circularProxy)
+              + " ns/call, reflective proxy: "
+              + time(reflectiveProxy)
+              + " ns/call");
+    }
+  }
+
+  static String time(Counter counter) {
+    long start = System.nanoTime();
+    int sum = 0;
+    for (int i = 0; i < CALLS; i++) {
+      sum += counter.next(i);
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sum == 42) {
+      System.err.println(); // keeps the loop from being optimized away
+    }
+    return new DecimalFormat("0.00").format((double) elapsed / CALLS);
+  }
+
+  static Counter reflectiveProxy(final Counter delegate) {
+    return (Counter)
+        Proxy.newProxyInstance(
+            Counter.class.getClassLoader(),
+            new Class<?>[] {Counter.class},
+            new InvocationHandler() {
+              @Override
+              public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                try {
+                  return method.invoke(delegate, args);
+                } catch (InvocationTargetException e) {
+                  throw e.getTargetException();
+                }
+              }
+            });
+  }
+
+  public interface Counter {
+    int next(int increment);
+  }
+
+  public interface Holder {
+    Counter counter();
+  }
+
+  static class RealCounter implements Counter {
+    int count;
+
+    @Inject
+    RealCounter(Holder holder) {}
+
+    @Override
+    public int next(int increment) {
+      return count += increment;
+    }
+  }
+
+  static class RealHolder implements Holder {
+    final Counter counter;
+
+    @Inject
+    RealHolder(Counter counter) {
+      this.counter = counter;
+    }
+
+    @Override
+    public Counter counter() {
+      return counter;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.Asserts.assertContains;
+
+import java.util.Map;
+import junit.framework.TestCase;
+
+/** Tests for {@link Injector#freeze()}. */
+public class FrozenInjectorTest extends TestCase {
+
+  private String frozenFailed(Class<?> clazz) {
+    return "The injector is frozen and " + clazz.getName() + " has no existing binding.";
+  }
+
+  interface Service {}
+
+  static class ServiceImpl implements Service {
+    @Inject
+    ServiceImpl(Dependency dependency) {}
+  }
+
+  static class Dependency {}
+
+  static class Unrelated {}
+
+  private final Module serviceModule =
+      new AbstractModule() {
+        @Override
+        protected void configure() {
+          bind(Service.class).to(ServiceImpl.class);
+        }
+      };
+
+  public void testExistingBindingsStillWork() {
+    Injector injector = Guice.createInjector(serviceModule);
+    injector.freeze();
+
+    assertTrue(injector.getInstance(Service.class) instanceof ServiceImpl);
+    assertNotNull(injector.getInstance(Dependency.class));
+    assertNotNull(injector.getExistingBinding(Key.get(Dependency.class)));
+    assertNotNull(injector.getBinding(ServiceImpl.class));
+    assertTrue(injector.getAllBindings().containsKey(Key.get(Dependency.class)));
+  }
+
+  public void testNewJustInTimeBindingsAreRejected() {
+    Injector injector = Guice.createInjector(serviceModule);
+    injector.freeze();
+
+    try {
+      injector.getInstance(Unrelated.class);
+      fail();
+    } catch (ConfigurationException expected) {
+      assertContains(expected.getMessage(), frozenFailed(Unrelated.class));
+    }
+    try {
+      injector.getBinding(Unrelated.class);
+      fail();
+    } catch (ConfigurationException expected) {
+      assertContains(expected.getMessage(), frozenFailed(Unrelated.class));
+    }
+    assertNull(injector.getExistingBinding(Key.get(Unrelated.class)));
+    assertFalse(injector.getAllBindings().containsKey(Key.get(Unrelated.class)));
+  }
+
+  public void testFreezingTwiceHasNoEffect() {
+    Injector injector = Guice.createInjector(serviceModule);
+    injector.freeze();
+    Map<Key<?>, Binding<?>> bindings = injector.getAllBindings();
+    injector.freeze();
+    assertSame(bindings, injector.getAllBindings());
+  }
+
+  public void testFreezingChildRequiresFrozenParent() {
+    Injector parent = Guice.createInjector();
+    Injector child = parent.createChildInjector(serviceModule);
+    try {
+      child.freeze();
+      fail();
+    } catch (IllegalStateException expected) {
+      assertContains(expected.getMessage(), "Freeze the parent injector");
+    }
+
+    // Neither injector was frozen.
+    assertNotNull(parent.getInstance(Unrelated.class));
+    assertNotNull(child.getInstance(Service.class));
+
+    parent.freeze();
+    child.freeze();
+    assertNotNull(child.getExistingBinding(Key.get(Dependency.class)));
+  }
+
+  public void testProviderBindingsAreDerivedAfterFreezing() {
+    Injector injector = Guice.createInjector(serviceModule);
+    injector.freeze();
+
+    Key<Provider<Service>> providerKey = new Key<Provider<Service>>() {};
+    Binding<Provider<Service>> binding = injector.getExistingBinding(providerKey);
+    assertNotNull(binding);
+    assertSame(binding, injector.getBinding(providerKey));
+    assertTrue(injector.getInstance(providerKey).get() instanceof ServiceImpl);
+
+    Key<Provider<Unrelated>> unrelatedKey = new Key<Provider<Unrelated>>() {};
+    assertNull(injector.getExistingBinding(unrelatedKey));
+    try {
+      injector.getInstance(unrelatedKey);
+      fail();
+    } catch (ConfigurationException expected) {
+      assertContains(expected.getMessage(), frozenFailed(Unrelated.class));
+    }
+  }
+
+  public void testChildOfFrozenInjectorKeepsJustInTimeBindings() {
+    Injector parent = Guice.createInjector();
+    parent.freeze();
+    Injector child = parent.createChildInjector();
+
+    assertNotNull(child.getInstance(Unrelated.class));
+    assertTrue(child.getAllBindings().containsKey(Key.get(Unrelated.class)));
+    assertNull(parent.getExistingBinding(Key.get(Unrelated.class)));
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.Asserts.assertContains;
+
+import com.google.common.collect.Lists;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import junit.framework.TestCase;
+
+/** Tests for {@link Injector#close()}. */
+public class InjectorCloseTest extends TestCase {
+
+  static final List<String> closed = Lists.newArrayList();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    closed.clear();
+  }
+
+  @Singleton
+  static class Database implements Closeable {
+    @Override
+    public void close() {
+      closed.add("database");
+    }
+  }
+
+  @Singleton
+  static class Service implements Closeable {
+    @Inject
+    Service(Database database) {}
+
+    @Override
+    public void close() throws IOException {
+      closed.add("service");
+      throw new IOException("logged and otherwise ignored");
+    }
+  }
+
+  static class Unscoped implements Closeable {
+    @Override
+    public void close() {
+      closed.add("unscoped");
+    }
+  }
+
+  static class Unrelated {}
+
+  public void testSingletonsAreClosedInReverseOrderOfCreation() {
+    Injector injector = Guice.createInjector();
+    injector.getInstance(Service.class);
+    injector.getInstance(Unscoped.class);
+    injector.close();
+    assertEquals(Lists.newArrayList("service", "database"), closed);
+  }
+
+  public void testSingletonsThatWereNeverCreatedAreNotClosed() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Service.class);
+              }
+            });
+    injector.getInstance(Database.class);
+    injector.close();
+    assertEquals(Lists.newArrayList("database"), closed);
+  }
+
+  public void testClosingTwiceHasNoEffect() {
+    Injector injector =
+        Guice.createInjector(
+            Stage.PRODUCTION,
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Database.class);
+              }
+            });
+    injector.close();
+    injector.close();
+    assertEquals(Lists.newArrayList("database"), closed);
+  }
+
+  public void testClosedInjectorCreatesNoJustInTimeBindings() {
+    Injector injector = Guice.createInjector();
+    injector.getInstance(Unrelated.class);
+    injector.close();
+
+    assertNull(injector.getExistingBinding(Key.get(Unrelated.class)));
+    try {
+      injector.getInstance(Unrelated.class);
+      fail();
+    } catch (ConfigurationException expected) {
+      assertContains(
+          expected.getMessage(),
+          "The injector is closed, so no binding can be created for " + Unrelated.class.getName());
+    }
+  }
+
+  public void testChildSingletonsBoundInParentAreClosedWithParent() {
+    Injector parent = Guice.createInjector();
+    Injector child = parent.createChildInjector();
+    child.getInstance(Database.class);
+    child.close();
+    assertTrue(closed.isEmpty());
+    parent.close();
+    assertEquals(Lists.newArrayList("database"), closed);
+  }
+
+  public void testClosedInjectorProvisionsAndInjectsNothing() {
+    Injector injector = Guice.createInjector();
+    Provider<Database> databaseProvider = injector.getProvider(Database.class);
+    injector.getInstance(Unrelated.class);
+    injector.close();
+
+    String closedMessage = "The injector is closed, so it can no longer provision or inject";
+    try {
+      databaseProvider.get();
+      fail();
+    } catch (ProvisionException expected) {
+      assertContains(expected.getMessage(), closedMessage);
+    }
+    try {
+      injector.injectMembers(new Unrelated());
+      fail();
+    } catch (ConfigurationException expected) {
+      assertContains(expected.getMessage(), closedMessage);
+    }
+    assertTrue(closed.isEmpty());
+  }
+
+  @Singleton
+  static class ClosesInjector implements Closeable {
+    @Inject
+    ClosesInjector(Injector injector) {
+      injector.close();
+    }
+
+    @Override
+    public void close() {
+      closed.add("closesInjector");
+    }
+  }
+
+  public void testSingletonsCreatedWhileClosingAreClosedRightAway() {
+    Injector injector = Guice.createInjector();
+    assertNotNull(injector.getInstance(ClosesInjector.class));
+    assertEquals(Lists.newArrayList("closesInjector"), closed);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.name.Names.named;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.multibindings.MapBinder;
+import com.google.inject.multibindings.Multibinder;
+import com.google.inject.multibindings.OptionalBinder;
+import java.text.DecimalFormat;
+
+/**
+ * A microbenchmark of creating many injectors sharing common modules that use multibinders, map
+ * binders and optional binders, with {@link Guice#createInjector} and with an {@link
+ * InjectorTemplate}.
+ */
+public class InjectorTemplateBenchmark {
+  static final int CONTRIBUTIONS = 200;
+  static final int COUNT = 200;
+
+  public static void main(String[] args) {
+    Module common = new CommonModule();
+    iterate(common, 20); // warm up
+    for (int i = 0; i < 5; i++) {
+      iterate(common, COUNT);
+    }
+  }
+
+  static void iterate(Module common, int count) {
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      Guice.createInjector(Stage.PRODUCTION, common, new TenantModule(i));
+    }
+    long createInjectorMicros = (System.nanoTime() - start) / 1000 / count;
+
+    start = System.nanoTime();
+    InjectorTemplate template =
+        Guice.createInjectorTemplate(Stage.PRODUCTION, ImmutableSet.of(common));
+    for (int i = 0; i < count; i++) {
+      template.createInjector(new TenantModule(i));
+    }
+    long templateMicros = (System.nanoTime() - start) / 1000 / count;
+
+    DecimalFormat format = new DecimalFormat();
+    System.err.println(
+        "createInjector: "
+            + format.format(createInjectorMicros)
+            + " us/injector, template: "
+            + format.format(templateMicros)
+            + " us/injector");
+  }
+
+  static class CommonModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      Multibinder<String> set = Multibinder.newSetBinder(binder(), String.class);
+      MapBinder<Integer, String> map =
+          MapBinder.newMapBinder(binder(), Integer.class, String.class);
+      for (int i = 0; i < CONTRIBUTIONS; i++) {
+        set.addBinding().toInstance("element" + i);
+        map.addBinding(i).toInstance("value" + i);
+        OptionalBinder.newOptionalBinder(binder(), Key.get(String.class, named("optional" + i)))
+            .setDefault()
+            .toInstance("default" + i);
+      }
+    }
+  }
+
+  static class TenantModule extends AbstractModule {
+    final int tenant;
+
+    TenantModule(int tenant) {
+      this.tenant = tenant;
+    }
+
+    @Override
+    protected void configure() {
+      bindConstant().annotatedWith(named("tenant")).to(tenant);
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.Asserts.assertContains;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.multibindings.MapBinder;
+import com.google.inject.multibindings.Multibinder;
+import com.google.inject.multibindings.OptionalBinder;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
+import com.google.inject.spi.ConstructorBinding;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+/** Tests for {@link InjectorTemplate}. */
+public class InjectorTemplateTest extends TestCase {
+
+  static class Tenant {
+    final String name;
+
+    Tenant(String name) {
+      this.name = name;
+    }
+  }
+
+  @Singleton
+  static class Cache {}
+
+  static class CommonModule extends AbstractModule {
+    final AtomicInteger configured = new AtomicInteger();
+
+    @Override
+    protected void configure() {
+      configured.incrementAndGet();
+      bind(Cache.class);
+      bind(String.class).annotatedWith(Names.named("greeting")).toInstance("Hello");
+    }
+
+    @Provides
+    @Singleton
+    Tenant provideTenant(@Named("greeting") String greeting, @Named("tenant") String name) {
+      return new Tenant(greeting + " " + name);
+    }
+  }
+
+  static class MultibindingModule extends AbstractModule {
+    final AtomicInteger configured = new AtomicInteger();
+
+    @Override
+    protected void configure() {
+      configured.incrementAndGet();
+      Multibinder.newSetBinder(binder(), String.class).addBinding().toInstance("a");
+      MapBinder<String, Cache> mapBinder =
+          MapBinder.newMapBinder(binder(), String.class, Cache.class).permitDuplicates();
+      mapBinder.addBinding("a").to(Cache.class);
+      OptionalBinder.newOptionalBinder(binder(), Integer.class).setDefault().toInstance(1);
+    }
+  }
+
+  static class ProviderLookupModule extends AbstractModule {
+    final AtomicInteger configured = new AtomicInteger();
+    Provider<Cache> cacheProvider;
+
+    @Override
+    protected void configure() {
+      configured.incrementAndGet();
+      cacheProvider = getProvider(Cache.class);
+    }
+  }
+
+  private static Module tenantModule(final String name) {
+    return new AbstractModule() {
+      @Override
+      protected void configure() {
+        bindConstant().annotatedWith(Names.named("tenant")).to(name);
+      }
+    };
+  }
+
+  public void testInjectorsHaveTheirOwnBindingsAndSingletons() {
+    CommonModule common = new CommonModule();
+    InjectorTemplate template = Guice.createInjectorTemplate(common);
+    Injector a = template.createInjector(tenantModule("a"));
+    Injector b = template.createInjector(tenantModule("b"));
+
+    assertEquals(1, common.configured.get());
+    assertEquals("Hello a", a.getInstance(Tenant.class).name);
+    assertEquals("Hello b", b.getInstance(Tenant.class).name);
+    assertSame(a.getInstance(Tenant.class), a.getInstance(Tenant.class));
+    assertSame(a.getInstance(Cache.class), a.getInstance(Cache.class));
+    assertNotSame(a.getInstance(Cache.class), b.getInstance(Cache.class));
+  }
+
+  public void testModulesUsingMultibindersAreConfiguredOnce() {
+    MultibindingModule multibinding = new MultibindingModule();
+    InjectorTemplate template =
+        Guice.createInjectorTemplate(Stage.PRODUCTION, ImmutableSet.of(multibinding));
+    Key<Set<String>> setKey = new Key<Set<String>>() {};
+    Key<Map<String, Cache>> mapKey = new Key<Map<String, Cache>>() {};
+    Key<Optional<Integer>> optionalKey = new Key<Optional<Integer>>() {};
+    Injector a = template.createInjector();
+    Injector b =
+        template.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                Multibinder.newSetBinder(binder(), String.class).addBinding().toInstance("b");
+                MapBinder.newMapBinder(binder(), String.class, Cache.class)
+                    .addBinding("b")
+                    .to(Cache.class);
+                OptionalBinder.newOptionalBinder(binder(), Integer.class)
+                    .setBinding()
+                    .toInstance(2);
+              }
+            });
+
+    assertEquals(1, multibinding.configured.get());
+    assertEquals(ImmutableSet.of("a"), a.getInstance(setKey));
+    assertEquals(ImmutableSet.of("a", "b"), b.getInstance(setKey));
+    assertEquals(ImmutableSet.of("a"), a.getInstance(mapKey).keySet());
+    assertEquals(ImmutableSet.of("a", "b"), b.getInstance(mapKey).keySet());
+    assertSame(a.getInstance(Cache.class), a.getInstance(mapKey).get("a"));
+    assertSame(b.getInstance(Cache.class), b.getInstance(mapKey).get("a"));
+    assertEquals(
+        ImmutableSet.of("a", "b"),
+        b.getInstance(new Key<Map<String, Set<Cache>>>() {}).keySet());
+    assertEquals(Optional.of(1), a.getInstance(optionalKey));
+    assertEquals(Optional.of(2), b.getInstance(optionalKey));
+  }
+
+  public void testModulesLookingUpProvidersAreConfiguredForEachInjector() {
+    ProviderLookupModule lookup = new ProviderLookupModule();
+    InjectorTemplate template = Guice.createInjectorTemplate(lookup);
+    Injector a = template.createInjector();
+    assertSame(a.getInstance(Cache.class), lookup.cacheProvider.get());
+    Injector b = template.createInjector();
+    assertSame(b.getInstance(Cache.class), lookup.cacheProvider.get());
+
+    assertEquals(3, lookup.configured.get());
+  }
+
+  public void testErrorsAreReportedForEachInjector() {
+    InjectorTemplate template = Guice.createInjectorTemplate(new CommonModule());
+    for (int i = 0; i < 2; i++) {
+      try {
+        template.createInjector();
+        fail();
+      } catch (CreationException expected) {
+        assertContains(expected.getMessage(), "No implementation for java.lang.String annotated");
+      }
+    }
+  }
+
+  public void testInjectorsShareInjectionPoints() {
+    InjectorTemplate template = Guice.createInjectorTemplate(new CommonModule());
+    ConstructorBinding<?> a =
+        (ConstructorBinding<?>) template.createInjector(tenantModule("a")).getBinding(Cache.class);
+    ConstructorBinding<?> b =
+        (ConstructorBinding<?>) template.createInjector(tenantModule("b")).getBinding(Cache.class);
+
+    assertSame(a.getConstructor(), b.getConstructor());
+  }
+
+  static class SharedPrivateModule extends PrivateModule {
+    @Override
+    protected void configure() {
+      bind(Cache.class);
+      expose(Cache.class);
+    }
+  }
+
+  public void testModulesInstalledByTwoCommonModulesAreInstalledOnce() {
+    final Module shared = new SharedPrivateModule();
+    Module first =
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            install(shared);
+          }
+        };
+    Module second =
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            install(shared);
+          }
+        };
+    InjectorTemplate template = Guice.createInjectorTemplate(first, second);
+    Injector injector = template.createInjector();
+
+    assertSame(injector.getInstance(Cache.class), injector.getInstance(Cache.class));
+  }
+}
@@ -20,6 +20,7 @@ import static com.google.inject.Asserts.assertContains;
 import static com.google.inject.Asserts.assertNotSerializable;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
+import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.util.concurrent.Callable;
@@ -453,4 +454,66 @@ public class InjectorTest extends TestCase {
   }
 
   static class JustInTime {}
+
+  public void testCreateInjectorAsync() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Injector> injector =
+          Guice.createInjectorAsync(
+              executor,
+              new AbstractModule() {
+                @Override
+                protected void configure() {
+                  bind(String.class).toInstance("first");
+                }
+              },
+              new AbstractModule() {
+                @Override
+                protected void configure() {
+                  bind(Integer.class).toInstance(2);
+                }
+
+                @Provides
+                Long provideLong(String first, Integer second) {
+                  return (long) first.length() + second;
+                }
+              });
+      assertEquals(7L, (long) injector.get().getInstance(Long.class));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testCreateInjectorAsyncReportsErrors() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Injector> injector =
+          Guice.createInjectorAsync(
+              executor,
+              Stage.PRODUCTION,
+              ImmutableList.of(
+                  new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                      bind(String.class).toInstance("first");
+                    }
+                  },
+                  new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                      bind(String.class).toInstance("second");
+                    }
+                  }));
+      try {
+        injector.get();
+        fail();
+      } catch (ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof CreationException);
+        assertContains(
+            expected.getCause().getMessage(), "A binding to java.lang.String was already configured");
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
@@ -25,6 +25,9 @@ import com.google.common.collect.Lists;
 import com.google.inject.matcher.AbstractMatcher;
 import com.google.inject.matcher.Matchers;
 import com.google.inject.spi.ConstructorBinding;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
@@ -394,6 +397,63 @@ public class MethodInterceptionTest extends TestCase {
     assertEquals(1, count.get());
   }
 
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Logged {}
+
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Audited {}
+
+  public static class Annotated {
+    @Logged
+    public void logged() {}
+
+    @Audited
+    public void audited() {}
+
+    public void plain() {}
+  }
+
+  public void testAnnotationMatchersAreOnlyTriedOnAnnotatedMethods() {
+    final List<String> callList = Lists.newArrayList();
+    final List<AnnotatedElement> matched = Lists.newArrayList();
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bindInterceptor(
+                    Matchers.only(Annotated.class),
+                    Matchers.annotatedWith(Logged.class)
+                        .and(
+                            new AbstractMatcher<AnnotatedElement>() {
+                              @Override
+                              public boolean matches(AnnotatedElement method) {
+                                matched.add(method);
+                                return true;
+                              }
+                            }),
+                    new NamedInterceptor("logged", callList));
+                bindInterceptor(
+                    Matchers.only(Annotated.class),
+                    Matchers.annotatedWith(Logged.class).or(Matchers.annotatedWith(Audited.class)),
+                    new NamedInterceptor("either", callList));
+              }
+            });
+
+    Annotated annotated = injector.getInstance(Annotated.class);
+    assertEquals(1, matched.size());
+    assertEquals("logged", ((Method) matched.get(0)).getName());
+
+    annotated.logged();
+    assertEquals(Arrays.asList("logged", "either"), callList);
+    callList.clear();
+    annotated.audited();
+    assertEquals(Arrays.asList("either"), callList);
+    callList.clear();
+    annotated.plain();
+    assertEquals(ImmutableList.of(), callList);
+  }
+
   public void testCallLater() {
     final Queue<Runnable> queue = Lists.newLinkedList();
     Injector injector =
@@ -437,4 +497,66 @@ public class MethodInterceptionTest extends TestCase {
       return null;
     }
   }
+
+  public static class Base {
+    public void run() {}
+  }
+
+  public static class Derived extends Base {}
+
+  @Logged
+  public static class LoggedClass {
+    public void run() {}
+  }
+
+  public static class Other {
+    public void run() {}
+  }
+
+  @SuppressWarnings("rawtypes") // subclassesOf() matches raw classes
+  public void testClassMatchersAreOnlyTriedOnIndexedClasses() {
+    final List<String> callList = Lists.newArrayList();
+    final List<Class> matched = Lists.newArrayList();
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bindInterceptor(
+                    Matchers.subclassesOf(Base.class)
+                        .and(
+                            new AbstractMatcher<Class>() {
+                              @Override
+                              public boolean matches(Class clazz) {
+                                matched.add(clazz);
+                                return true;
+                              }
+                            }),
+                    Matchers.returns(Matchers.only(void.class)),
+                    new NamedInterceptor("base", callList));
+                bindInterceptor(
+                    Matchers.annotatedWith(Logged.class),
+                    Matchers.returns(Matchers.only(void.class)),
+                    new NamedInterceptor("logged", callList));
+                bindInterceptor(
+                    Matchers.inPackage(Other.class.getPackage()).and(Matchers.only(Other.class)),
+                    Matchers.returns(Matchers.only(void.class)),
+                    new NamedInterceptor("other", callList));
+                bindInterceptor(
+                    Matchers.inSubpackage("com.google"),
+                    Matchers.returns(Matchers.only(void.class)),
+                    new NamedInterceptor("package", callList));
+              }
+            });
+
+    injector.getInstance(Derived.class).run();
+    assertEquals(Arrays.asList("base", "package"), callList);
+    callList.clear();
+    injector.getInstance(LoggedClass.class).run();
+    assertEquals(Arrays.asList("logged", "package"), callList);
+    callList.clear();
+    injector.getInstance(Other.class).run();
+    assertEquals(Arrays.asList("other", "package"), callList);
+    assertEquals(Arrays.<Class>asList(Derived.class), matched);
+  }
 }
@@ -29,6 +29,9 @@ import com.google.inject.spi.TypeConverter;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import junit.framework.TestCase;
 
 /** @author jessewilson@google.com (Jesse Wilson) */
@@ -299,6 +302,77 @@ public class ParentInjectorTest extends TestCase {
     }
   }
 
+  public void testChildModulesDoNotBlockParentJustInTimeBindings() throws Exception {
+    final Injector parent = Guice.createInjector();
+    final CountDownLatch configuring = new CountDownLatch(1);
+    final CountDownLatch parentUsed = new CountDownLatch(1);
+    final AtomicBoolean parentUsedWhileConfiguring = new AtomicBoolean();
+    Thread creator =
+        new Thread() {
+          @Override
+          public void run() {
+            parent.createChildInjector(
+                new AbstractModule() {
+                  @Override
+                  protected void configure() {
+                    configuring.countDown();
+                    try {
+                      parentUsedWhileConfiguring.set(parentUsed.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                      throw new RuntimeException(e);
+                    }
+                  }
+                });
+          }
+        };
+    creator.start();
+    configuring.await();
+    parent.getInstance(A.class);
+    parentUsed.countDown();
+    creator.join();
+    assertTrue(parentUsedWhileConfiguring.get());
+  }
+
+  public void testChildInjectorsWithOnlyLinkedAndInstanceBindings() {
+    Injector parent = Guice.createInjector(Stage.PRODUCTION);
+    Injector child =
+        parent.createChildInjector(
+            bindsB,
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(String.class).toInstance("child");
+              }
+            });
+
+    assertTrue(child.getInstance(B.class) instanceof RealB);
+    assertEquals("child", child.getInstance(String.class));
+    assertSame(child, child.getInstance(Injector.class));
+    assertEquals(Stage.PRODUCTION, child.getInstance(Stage.class));
+    assertNotNull(parent.getExistingBinding(Key.get(RealB.class)));
+    try {
+      parent.getInstance(String.class);
+      fail();
+    } catch (ConfigurationException expected) {
+    }
+  }
+
+  public void testChildInjectorsWithOnlyLinkedBindingsReportMissingTargets() {
+    Injector parent = Guice.createInjector();
+    try {
+      parent.createChildInjector(
+          new AbstractModule() {
+            @Override
+            protected void configure() {
+              bind(Object.class).to(B.class);
+            }
+          });
+      fail();
+    } catch (CreationException expected) {
+      assertContains(expected.getMessage(), "No implementation for " + B.class.getName());
+    }
+  }
+
   @Singleton
   static class A {}
 
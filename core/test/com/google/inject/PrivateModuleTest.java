@@ -328,6 +328,37 @@ public class PrivateModuleTest extends TestCase {
     assertEquals("nested", injector.getInstance(String.class));
   }
 
+  public void testLinkedBindingsToKeysExposedFromNestedPrivateInjectors() {
+    Injector injector =
+        Guice.createInjector(
+            new PrivateModule() {
+              @Override
+              public void configure() {
+                bind(CharSequence.class).to(String.class);
+                expose(CharSequence.class);
+
+                install(
+                    new PrivateModule() {
+                      @Override
+                      public void configure() {
+                        bind(String.class).annotatedWith(named("a")).toInstance("nested");
+                        bind(String.class).to(Key.get(String.class, named("a")));
+                        expose(String.class);
+                      }
+                    });
+              }
+            },
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Object.class).to(CharSequence.class);
+              }
+            });
+
+    assertEquals("nested", injector.getInstance(Object.class));
+    assertEquals("nested", injector.getInstance(CharSequence.class));
+  }
+
   public void testInstallingRegularModulesFromPrivateModules() {
     Injector injector =
         Guice.createInjector(
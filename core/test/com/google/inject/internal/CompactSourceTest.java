@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.ElementSource;
+import com.google.inject.spi.Elements;
+import java.util.Formatter;
+import java.util.List;
+import junit.framework.TestCase;
+
+/** Tests for {@link CompactSource}. */
+public class CompactSourceTest extends TestCase {
+
+  static class InnerModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      bind(String.class).toInstance("A");
+    }
+
+    @Provides
+    Integer provideInteger() {
+      return 1;
+    }
+  }
+
+  static class OuterModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      install(new InnerModule());
+      bind(Long.class).toInstance(1L);
+    }
+  }
+
+  public void testCompactSourcesAreFormattedLikeElementSources() {
+    for (Element element : Elements.getElements(new OuterModule())) {
+      Object source = element.getSource();
+      Object compact = CompactSource.compact(source);
+      assertFalse(compact instanceof ElementSource);
+      assertEquals(Errors.convert(source).toString(), Errors.convert(compact).toString());
+      assertEquals(format(source), format(compact));
+    }
+  }
+
+  public void testSourcesWithoutModuleChainsCompactToTheirDeclaringSource() {
+    Element element = Elements.getElements(new InnerModule()).get(0);
+    ElementSource source = (ElementSource) element.getSource();
+    assertEquals(source.getDeclaringSource(), CompactSource.compact(source));
+  }
+
+  public void testEqualSourcesAreShared() {
+    Module module = new OuterModule();
+    List<Element> first = Elements.getElements(module);
+    List<Element> second = Elements.getElements(module);
+    for (int i = 0; i < first.size(); i++) {
+      assertNotSame(first.get(i).getSource(), second.get(i).getSource());
+      assertSame(
+          CompactSource.compact(first.get(i).getSource()),
+          CompactSource.compact(second.get(i).getSource()));
+    }
+  }
+
+  public void testOtherSourcesAreUnchanged() {
+    Object source = "source";
+    assertSame(source, CompactSource.compact(source));
+  }
+
+  private static String format(Object source) {
+    Formatter formatter = new Formatter();
+    Errors.formatSource(formatter, source);
+    return formatter.toString();
+  }
+}
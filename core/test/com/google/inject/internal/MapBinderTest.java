@@ -27,6 +27,7 @@ import static com.google.inject.name.Names.named;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -46,6 +47,7 @@ import com.google.inject.Module;
 import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.ProvisionException;
+import com.google.inject.Scopes;
 import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
 import com.google.inject.internal.RealMapBinder.ProviderMapEntry;
@@ -69,6 +71,7 @@ import java.lang.annotation.Target;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -1511,6 +1514,158 @@ public class MapBinderTest extends TestCase {
     return null;
   }
 
+  public void testMapBinderOfSingletonsReturnsSameMap() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                MapBinder<String, Object> mapBinder =
+                    MapBinder.newMapBinder(binder(), String.class, Object.class);
+                mapBinder.addBinding("a").toInstance("A");
+                mapBinder.addBinding("b").to(ArrayList.class).in(Scopes.SINGLETON);
+              }
+            });
+    Map<String, Object> map = injector.getInstance(new Key<Map<String, Object>>() {});
+    assertEquals(2, map.size());
+    assertSame(map, injector.getInstance(new Key<Map<String, Object>>() {}));
+  }
+
+  public void testMapBinderWithUnscopedValueReturnsNewMaps() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                MapBinder<String, Object> mapBinder =
+                    MapBinder.newMapBinder(binder(), String.class, Object.class);
+                mapBinder.addBinding("a").toInstance("A");
+                mapBinder.addBinding("b").to(ArrayList.class);
+              }
+            });
+    Map<String, Object> first = injector.getInstance(new Key<Map<String, Object>>() {});
+    Map<String, Object> second = injector.getInstance(new Key<Map<String, Object>>() {});
+    assertEquals(first, second);
+    assertNotSame(first, second);
+  }
+
+  private enum Command {
+    START,
+    STOP,
+    STATUS
+  }
+
+  private static final class CountingProvider implements Provider<String> {
+    private final String value;
+    int count;
+
+    CountingProvider(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public String get() {
+      count++;
+      return value + count;
+    }
+  }
+
+  public void testLazyMapProvisionsValuesOnDemand() {
+    final CountingProvider start = new CountingProvider("start");
+    final CountingProvider stop = new CountingProvider("stop");
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                MapBinder<Command, String> mapBinder =
+                    MapBinder.newMapBinder(binder(), Command.class, String.class).lazy();
+                mapBinder.addBinding(Command.START).toProvider(start);
+                mapBinder.addBinding(Command.STOP).toProvider(stop);
+              }
+            });
+    Map<Command, String> map = injector.getInstance(new Key<Map<Command, String>>() {});
+    assertEquals(2, map.size());
+    assertEquals(ImmutableSet.of(Command.START, Command.STOP), map.keySet());
+    assertTrue(map.containsKey(Command.STOP));
+    assertFalse(map.containsKey(Command.STATUS));
+    assertFalse(map.containsKey("START"));
+    assertEquals(0, start.count);
+    assertEquals(0, stop.count);
+
+    assertEquals("start1", map.get(Command.START));
+    assertEquals("start1", map.get(Command.START));
+    assertNull(map.get(Command.STATUS));
+    assertEquals(1, start.count);
+    assertEquals(0, stop.count);
+
+    assertEquals(ImmutableMap.of(Command.START, "start1", Command.STOP, "stop1"), map);
+    assertEquals(1, stop.count);
+    try {
+      map.put(Command.STATUS, "status");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+
+    // Each injected map provisions unscoped values anew.
+    Map<Command, String> other = injector.getInstance(new Key<Map<Command, String>>() {});
+    assertEquals("start2", other.get(Command.START));
+    assertEquals("start1", map.get(Command.START));
+  }
+
+  public void testLazyMapRespectsValueScopes() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                MapBinder<String, Object> mapBinder =
+                    MapBinder.newMapBinder(binder(), String.class, Object.class);
+                mapBinder.addBinding("singleton").to(ArrayList.class).in(Scopes.SINGLETON);
+                mapBinder.addBinding("unscoped").to(HashMap.class);
+              }
+            },
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                // Any contributing module can make the map lazy.
+                MapBinder.newMapBinder(binder(), String.class, Object.class).lazy();
+              }
+            });
+    Map<String, Object> first = injector.getInstance(new Key<Map<String, Object>>() {});
+    Map<String, Object> second = injector.getInstance(new Key<Map<String, Object>>() {});
+    assertNotSame(first, second);
+    assertSame(first.get("singleton"), second.get("singleton"));
+    assertNotSame(first.get("unscoped"), second.get("unscoped"));
+    assertSame(first.get("unscoped"), first.get("unscoped"));
+  }
+
+  public void testLazyMapForbidsNullValues() {
+    Module m =
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            MapBinder<String, String> mapBinder =
+                MapBinder.newMapBinder(binder(), String.class, String.class).lazy();
+            mapBinder.addBinding("null").toProvider(Providers.<String>of(null));
+            mapBinder.addBinding("a").toInstance("A");
+          }
+        };
+    Map<String, String> map = Guice.createInjector(m).getInstance(Key.get(mapOfString));
+    assertEquals("A", map.get("a"));
+
+    try {
+      map.get("null");
+      fail();
+    } catch (ProvisionException expected) {
+      assertContains(
+          expected.getMessage(),
+          "1) Map injection failed due to null value for key \"null\", bound at: "
+              + m.getClass().getName()
+              + ".configure(");
+    }
+  }
+
   @SuppressWarnings("rawtypes")
   public void testGetEntriesMissingBindingForValue() {
     List<com.google.inject.spi.Element> elements =
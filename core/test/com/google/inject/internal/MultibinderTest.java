@@ -61,6 +61,7 @@ import com.google.inject.spi.Elements;
 import com.google.inject.spi.HasDependencies;
 import com.google.inject.spi.InstanceBinding;
 import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.Message;
 import com.google.inject.util.Modules;
 import com.google.inject.util.Providers;
 import com.google.inject.util.Types;
@@ -75,6 +76,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -82,6 +84,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import junit.framework.TestCase;
 
 /** @author jessewilson@google.com (Jesse Wilson) */
@@ -1491,6 +1498,180 @@ public class MultibinderTest extends TestCase {
         ImmutableList.of(), injector.getInstance(new Key<Collection<Provider<String>>>() {}));
   }
 
+  public void testMultibinderOfSingletonsReturnsSameSet() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Integer.class).toInstance(1);
+                Multibinder<Object> multibinder = Multibinder.newSetBinder(binder(), Object.class);
+                multibinder.addBinding().toInstance("A");
+                multibinder.addBinding().to(Integer.class);
+                multibinder.addBinding().to(ArrayList.class).in(Scopes.SINGLETON);
+              }
+            });
+    Set<Object> set = injector.getInstance(new Key<Set<Object>>() {});
+    assertEquals(3, set.size());
+    assertSame(set, injector.getInstance(new Key<Set<Object>>() {}));
+  }
+
+  public void testMultibinderWithUnscopedElementReturnsNewSets() {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                Multibinder<Object> multibinder = Multibinder.newSetBinder(binder(), Object.class);
+                multibinder.addBinding().toInstance("A");
+                multibinder.addBinding().to(ArrayList.class);
+              }
+            });
+    Set<Object> first = injector.getInstance(new Key<Set<Object>>() {});
+    Set<Object> second = injector.getInstance(new Key<Set<Object>>() {});
+    assertEquals(first, second);
+    assertNotSame(first, second);
+  }
+
+  /** Returns its value once {@code latch} shows that every element is being provisioned. */
+  private static final class AwaitingProvider implements Provider<String> {
+    private final String value;
+    private final CountDownLatch latch;
+
+    AwaitingProvider(String value, CountDownLatch latch) {
+      this.value = value;
+      this.latch = latch;
+    }
+
+    @Override
+    public String get() {
+      latch.countDown();
+      try {
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+        throw new AssertionError(e);
+      }
+      return value;
+    }
+  }
+
+  public void testMultibinderProvisionsConcurrently() {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      final CountDownLatch latch = new CountDownLatch(3);
+      final Executor finalExecutor = executor;
+      Injector injector =
+          Guice.createInjector(
+              new AbstractModule() {
+                @Override
+                protected void configure() {
+                  Multibinder<String> multibinder =
+                      Multibinder.newSetBinder(binder(), String.class)
+                          .provisionConcurrently(finalExecutor);
+                  multibinder.addBinding().toProvider(new AwaitingProvider("C", latch));
+                  multibinder.addBinding().toProvider(new AwaitingProvider("A", latch));
+                  multibinder.addBinding().toProvider(new AwaitingProvider("B", latch));
+                }
+              });
+      Set<String> set = injector.getInstance(Key.get(setOfString));
+      assertEquals(ImmutableList.of("C", "A", "B"), ImmutableList.copyOf(set));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testMultibinderProvisionsConcurrentlyAndReportsAllErrors() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Executor finalExecutor = executor;
+      Injector injector =
+          Guice.createInjector(
+              new AbstractModule() {
+                @Override
+                protected void configure() {
+                  Multibinder<String> multibinder =
+                      Multibinder.newSetBinder(binder(), String.class)
+                          .provisionConcurrently(finalExecutor);
+                  multibinder.addBinding().toProvider(Providers.<String>of(null));
+                  multibinder.addBinding().toInstance("A");
+                  multibinder
+                      .addBinding()
+                      .toProvider(
+                          new Provider<String>() {
+                            @Override
+                            public String get() {
+                              throw new IllegalStateException("broken element");
+                            }
+                          });
+                  multibinder.addBinding().toInstance("A");
+                }
+              });
+      try {
+        injector.getInstance(Key.get(setOfString));
+        fail();
+      } catch (ProvisionException expected) {
+        assertEquals(2, expected.getErrorMessages().size());
+        assertContains(expected.getMessage(), "null", "broken element");
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  static class ConcurrentSetHolder {
+    @Inject Set<String> strings;
+  }
+
+  public void testMultibinderProvisionsConcurrentlyAndKeepsErrorSources() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Executor finalExecutor = executor;
+      Injector injector =
+          Guice.createInjector(
+              new AbstractModule() {
+                @Override
+                protected void configure() {
+                  Multibinder<String> multibinder =
+                      Multibinder.newSetBinder(binder(), String.class)
+                          .provisionConcurrently(finalExecutor);
+                  multibinder
+                      .addBinding()
+                      .toProvider(
+                          new Provider<String>() {
+                            @Override
+                            public String get() {
+                              throw new AssertionError("failed assertion");
+                            }
+                          });
+                  multibinder
+                      .addBinding()
+                      .toProvider(
+                          new Provider<String>() {
+                            @Override
+                            public String get() {
+                              throw new IllegalStateException("broken element");
+                            }
+                          });
+                }
+              });
+      try {
+        injector.getInstance(ConcurrentSetHolder.class);
+        fail();
+      } catch (ProvisionException expected) {
+        assertEquals(2, expected.getErrorMessages().size());
+        StringBuilder messages = new StringBuilder();
+        for (Message message : expected.getErrorMessages()) {
+          assertContains(
+              message.getSources().toString(), ConcurrentSetHolder.class.getName() + ".strings");
+          messages.append(message.getMessage()).append('\n');
+        }
+        assertContains(messages.toString(), "failed assertion", "broken element");
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   private static final class ObjectWithInjectionPoint {
     boolean setterHasBeenCalled;
 
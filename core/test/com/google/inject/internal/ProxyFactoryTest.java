@@ -72,6 +72,34 @@ public class ProxyFactoryTest extends TestCase {
     }
   }
 
+  public void testProxyClassesAreSharedBetweenFactories() throws Exception {
+    InjectionPoint injectionPoint = InjectionPoint.forConstructorOf(Simple.class);
+    SimpleInterceptor first = new SimpleInterceptor();
+    SimpleInterceptor second = new SimpleInterceptor();
+
+    Simple one =
+        new ProxyFactory<Simple>(
+                injectionPoint, Lists.newArrayList(new MethodAspect(any(), any(), first)))
+            .create()
+            .newInstance();
+    Simple two =
+        new ProxyFactory<Simple>(
+                injectionPoint, Lists.newArrayList(new MethodAspect(any(), any(), second)))
+            .create()
+            .newInstance();
+
+    assertSame(one.getClass(), two.getClass());
+    one.invoke();
+    assertTrue(first.invoked);
+    assertFalse(second.invoked);
+  }
+
+  public void testFastClassesAreSharedPerType() throws Exception {
+    assertSame(
+        BytecodeGen.newFastClassForMember(Simple.class.getMethod("invoke")),
+        BytecodeGen.newFastClassForMember(Simple.class.getMethod("invoke")));
+  }
+
   public void testInterceptOneMethod()
       throws NoSuchMethodException, InvocationTargetException, ErrorsException {
     SimpleInterceptor interceptor = new SimpleInterceptor();
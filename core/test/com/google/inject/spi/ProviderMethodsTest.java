@@ -17,6 +17,7 @@
 package com.google.inject.spi;
 
 import static com.google.inject.Asserts.assertContains;
+import static com.google.inject.Asserts.awaitClear;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 import com.google.common.collect.ImmutableList;
@@ -51,7 +52,10 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -1082,6 +1086,92 @@ public class ProviderMethodsTest extends TestCase implements Module {
     }
   }
 
+  static class ValueModule extends AbstractModule {
+    final int value;
+
+    ValueModule(int value) {
+      this.value = value;
+    }
+
+    @Override
+    protected void configure() {}
+
+    @Provides
+    @Named("value")
+    Integer provideValue() {
+      return value;
+    }
+  }
+
+  public void testProviderMethodsOfSameModuleClassUseTheirOwnInstance() {
+    assertEquals(
+        1,
+        Guice.createInjector(new ValueModule(1))
+            .getInstance(Key.get(Integer.class, Names.named("value")))
+            .intValue());
+    assertEquals(
+        2,
+        Guice.createInjector(new ValueModule(2))
+            .getInstance(Key.get(Integer.class, Names.named("value")))
+            .intValue());
+  }
+
+  static class OverridingModule extends SuperClassModule {
+    @Override
+    @Provides
+    Number providerMethod() {
+      return 2D;
+    }
+  }
+
+  public void testProviderMethodErrorsAreReportedForEachInstall() {
+    for (int i = 0; i < 2; i++) {
+      try {
+        Guice.createInjector(new OverridingModule());
+        fail();
+      } catch (CreationException e) {
+        assertContains(e.getMessage(), "Overriding @Provides methods is not allowed.");
+      }
+    }
+  }
+
+  public static class ProvidesStringModule extends AbstractModule {
+    @Override
+    protected void configure() {}
+
+    @Provides
+    String provideString() {
+      return "loaded";
+    }
+  }
+
+  public void testScannedModuleClassesCanBeUnloaded() throws Exception {
+    awaitClear(installModuleFromNewClassLoader());
+  }
+
+  /** Installs a copy of {@link ProvidesStringModule} defined by a new class loader. */
+  private WeakReference<ClassLoader> installModuleFromNewClassLoader() throws Exception {
+    final String moduleClassName = ProvidesStringModule.class.getName();
+    URL location = ProvidesStringModule.class.getProtectionDomain().getCodeSource().getLocation();
+    ClassLoader classLoader =
+        new URLClassLoader(new URL[] {location}, getClass().getClassLoader()) {
+          @Override
+          protected Class<?> loadClass(String name, boolean resolve)
+              throws ClassNotFoundException {
+            if (name.equals(moduleClassName)) {
+              Class<?> loaded = findLoadedClass(name);
+              return loaded != null ? loaded : findClass(name);
+            }
+            return super.loadClass(name, resolve);
+          }
+        };
+    Class<?> moduleClass = classLoader.loadClass(moduleClassName);
+    assertNotSame(ProvidesStringModule.class, moduleClass);
+    Module module = (Module) moduleClass.newInstance();
+    assertEquals("loaded", Guice.createInjector(module).getInstance(String.class));
+    return new WeakReference<ClassLoader>(classLoader);
+  }
+
   private void runNullableTest(Injector injector, Dependency<?> dependency, Module module) {
     switch (InternalFlags.getNullableProvidesOption()) {
       case ERROR:
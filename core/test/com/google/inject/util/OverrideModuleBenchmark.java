@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.util;
+
+import static com.google.inject.name.Names.named;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Module;
+import com.google.inject.Stage;
+import java.text.DecimalFormat;
+
+/**
+ * A microbenchmark of creating injectors from modules that are overridden several times over, as
+ * test setups commonly do. Each layer overrides a few of the many bindings of the base module.
+ */
+public class OverrideModuleBenchmark {
+  static final int BINDINGS = 2000;
+  static final int OVERRIDES_PER_LAYER = 10;
+  static final int MAX_DEPTH = 4;
+  static final int COUNT = 50;
+
+  public static void main(String[] args) {
+    for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+      iterate(depth, 10); // warm up
+    }
+    for (int i = 0; i < 5; i++) {
+      for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+        iterate(depth, COUNT);
+      }
+      System.err.println();
+    }
+  }
+
+  static void iterate(int depth, int count) {
+    Module module = overridden(depth);
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      Guice.createInjector(Stage.TOOL, module);
+    }
+    long micros = (System.nanoTime() - start) / 1000 / count;
+    System.err.println(
+        "Overrides " + depth + " deep: " + new DecimalFormat().format(micros) + " us/injector");
+  }
+
+  static Module overridden(int depth) {
+    Module module = new BindingsModule(0, BINDINGS, "base");
+    for (int layer = 1; layer <= depth; layer++) {
+      Module overrides =
+          new BindingsModule(layer * OVERRIDES_PER_LAYER, OVERRIDES_PER_LAYER, "" + layer);
+      module = Modules.override(module).with(overrides);
+    }
+    return module;
+  }
+
+  static class BindingsModule extends AbstractModule {
+    final int first;
+    final int count;
+    final String value;
+
+    BindingsModule(int first, int count, String value) {
+      this.first = first;
+      this.count = count;
+      this.value = value;
+    }
+
+    @Override
+    protected void configure() {
+      for (int i = first; i < first + count; i++) {
+        bind(String.class).annotatedWith(named("" + i)).toInstance(value);
+      }
+    }
+  }
+}
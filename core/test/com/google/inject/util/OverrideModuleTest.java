@@ -51,6 +51,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.util.Date;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import junit.framework.TestCase;
 
@@ -518,6 +519,81 @@ public class OverrideModuleTest extends TestCase {
     assertEquals(5, reverse.getInstance(Integer.class).intValue());
   }
 
+  public void testOverrideOfOverrideWithPrivateModules() {
+    Module exposes5and6 =
+        new PrivateModule() {
+          @Override
+          protected void configure() {
+            bind(Integer.class).toInstance(5);
+            expose(Integer.class);
+            bind(Long.class).toInstance(6L);
+            expose(Long.class);
+          }
+        };
+    Module binds15 =
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(Integer.class).toInstance(15);
+          }
+        };
+    Module binds16 =
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(Long.class).toInstance(16L);
+          }
+        };
+
+    // the sole private module is refocused on by the inner override
+    Module overridden =
+        Modules.override(Modules.override(exposes5and6).with(binds15)).with(binds16);
+    Injector injector = Guice.createInjector(overridden);
+    assertEquals(15, injector.getInstance(Integer.class).intValue());
+    assertEquals(16L, injector.getInstance(Long.class).longValue());
+
+    // the private module's exposed bindings are rewritten by both overrides
+    Module rewritten =
+        Modules.override(Modules.override(exposes5and6, binds16).with(binds15)).with(binds16);
+    injector = Guice.createInjector(rewritten);
+    assertEquals(15, injector.getInstance(Integer.class).intValue());
+    assertEquals(16L, injector.getInstance(Long.class).longValue());
+  }
+
+  public void testOverrideOfOverrideConfiguresModulesOnce() {
+    final AtomicInteger configured = new AtomicInteger();
+    Module exposes5 =
+        new PrivateModule() {
+          @Override
+          protected void configure() {
+            configured.incrementAndGet();
+            bind(Integer.class).toInstance(5);
+            expose(Integer.class);
+          }
+        };
+    Module binds15 =
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(Integer.class).toInstance(15);
+          }
+        };
+    Module binds16 =
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(Long.class).toInstance(16L);
+          }
+        };
+
+    // the inner override rewrites the private module, so it has to be written to a binder
+    Module overridden =
+        Modules.override(Modules.override(exposes5, binds16).with(binds15)).with(binds16);
+    Injector injector = Guice.createInjector(overridden);
+    assertEquals(15, injector.getInstance(Integer.class).intValue());
+    assertEquals(1, configured.get());
+  }
+
   public void testOverrideDeepExpose() {
     final AtomicReference<Provider<Character>> charAProvider =
         new AtomicReference<Provider<Character>>();
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.util;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+public class WarmupTest extends TestCase {
+
+  interface Service {}
+
+  @Singleton
+  static class ServiceImpl implements Service {
+    static boolean initialized;
+    static int instances;
+
+    static {
+      initialized = true;
+    }
+
+    @Inject
+    ServiceImpl(Provider<Helper> helper) {
+      instances++;
+    }
+  }
+
+  static class Helper {
+    static int instances;
+
+    Helper() {
+      instances++;
+    }
+  }
+
+  public void testWarmUpInstantiatesOnlySingletons() throws Exception {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Service.class).to(ServiceImpl.class);
+              }
+            });
+    assertEquals(0, ServiceImpl.instances);
+
+    Warmup.warmUp(injector).get(10, TimeUnit.SECONDS);
+
+    assertTrue(ServiceImpl.initialized);
+    assertEquals(1, ServiceImpl.instances);
+    assertEquals(0, Helper.instances);
+
+    injector.getInstance(Service.class);
+    assertEquals(1, ServiceImpl.instances);
+  }
+
+  public void testWarmUpToleratesMissingBindings() throws Exception {
+    Injector injector =
+        Guice.createInjector(
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(Runnable.class).toProvider(Providers.<Runnable>of(null));
+              }
+            });
+    Warmup.warmUp(injector, MoreExecutors.directExecutor()).get(10, TimeUnit.SECONDS);
+  }
+}
@@ -16,9 +16,16 @@
 
 package com.google.inject.persist;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Binding;
 import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Singleton;
+import com.google.inject.util.Types;
 import java.io.IOException;
+import java.util.Set;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -36,9 +43,12 @@ import javax.servlet.ServletResponse;
  * filter <b>once</b> in your Guice {@code ServletModule}. It is important that you register this
  * filter before any other filter.
  *
- * <p>For multiple providers, you should register this filter once per provider, inside a private
- * module for each persist module installed (this must be the same private module where the specific
- * persist module is itself installed).
+ * <p>For multiple providers, install each persist module with its own binding annotation (see
+ * {@link com.google.inject.persist.jpa.JpaPersistModule#JpaPersistModule(String, Class)}) and
+ * register this filter once: it starts, stops, begins and ends the units of every persist module in
+ * the injector. Alternatively, register this filter once per provider, inside a private module for
+ * each persist module installed (this must be the same private module where the specific persist
+ * module is itself installed).
  *
  * <p>Example configuration:
  *
@@ -63,23 +73,48 @@ import javax.servlet.ServletResponse;
  */
 @Singleton
 public final class PersistFilter implements Filter {
-  private final UnitOfWork unitOfWork;
-  private final PersistService persistService;
+  private final ImmutableList<UnitOfWork> unitsOfWork;
+  private final ImmutableList<PersistService> persistServices;
 
-  @Inject
   public PersistFilter(UnitOfWork unitOfWork, PersistService persistService) {
-    this.unitOfWork = unitOfWork;
-    this.persistService = persistService;
+    this(ImmutableSet.of(unitOfWork), ImmutableSet.of(persistService));
+  }
+
+  /**
+   * Manages the units of every persist module installed in the injector or its parents. Without a
+   * persist module, manages the {@link UnitOfWork} and {@link PersistService} bound without an
+   * annotation instead.
+   */
+  @Inject
+  PersistFilter(Injector injector) {
+    this(getUnits(injector, UnitOfWork.class), getUnits(injector, PersistService.class));
+  }
+
+  private PersistFilter(Set<UnitOfWork> unitsOfWork, Set<PersistService> persistServices) {
+    this.unitsOfWork = ImmutableList.copyOf(unitsOfWork);
+    this.persistServices = ImmutableList.copyOf(persistServices);
+  }
+
+  private static <T> Set<T> getUnits(Injector injector, Class<T> type) {
+    @SuppressWarnings("unchecked") // a set of T's binding is a binding of a set of T's
+    Binding<Set<T>> units =
+        (Binding<Set<T>>)
+            injector.getExistingBinding(Key.get(Types.setOf(type), PersistUnits.class));
+    return null != units ? units.getProvider().get() : ImmutableSet.of(injector.getInstance(type));
   }
 
   @Override
   public void init(FilterConfig filterConfig) throws ServletException {
-    persistService.start();
+    for (PersistService persistService : persistServices) {
+      persistService.start();
+    }
   }
 
   @Override
   public void destroy() {
-    persistService.stop();
+    for (PersistService persistService : persistServices.reverse()) {
+      persistService.stop();
+    }
   }
 
   @Override
@@ -89,11 +124,27 @@ public final class PersistFilter implements Filter {
       final FilterChain filterChain)
       throws IOException, ServletException {
 
-    unitOfWork.begin();
+    int begun = 0;
     try {
+      for (UnitOfWork unitOfWork : unitsOfWork) {
+        unitOfWork.begin();
+        begun++;
+      }
       filterChain.doFilter(servletRequest, servletResponse);
     } finally {
-      unitOfWork.end();
+      endUnitsOfWork(begun);
+    }
+  }
+
+  /** Ends the first {@code count} units of work, even if ending one of them fails. */
+  private void endUnitsOfWork(int count) {
+    if (count == 0) {
+      return;
+    }
+    try {
+      unitsOfWork.get(count - 1).end();
+    } finally {
+      endUnitsOfWork(count - 1);
     }
   }
 }
@@ -19,8 +19,16 @@ package com.google.inject.persist;
 import static com.google.inject.matcher.Matchers.annotatedWith;
 import static com.google.inject.matcher.Matchers.any;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.Multibinder;
+import java.lang.annotation.Annotation;
+import java.util.Set;
 import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
 
 /**
  * Install this module to add guice-persist library support for JPA persistence providers.
@@ -28,24 +36,131 @@ import org.aopalliance.intercept.MethodInterceptor;
  * @author dhanji@gmail.com (Dhanji R. Prasanna)
  */
 public abstract class PersistModule extends AbstractModule {
-
   @Override
   protected final void configure() {
     configurePersistence();
 
-    requireBinding(PersistService.class);
-    requireBinding(UnitOfWork.class);
+    Class<? extends Annotation> annotation = getBindingAnnotation();
+    Key<PersistService> persistServiceKey =
+        null == annotation
+            ? Key.get(PersistService.class)
+            : Key.get(PersistService.class, annotation);
+    Key<UnitOfWork> unitOfWorkKey =
+        null == annotation ? Key.get(UnitOfWork.class) : Key.get(UnitOfWork.class, annotation);
+
+    requireBinding(persistServiceKey);
+    requireBinding(unitOfWorkKey);
+
+    // Let a single PersistFilter manage the units of every persist module.
+    Multibinder.newSetBinder(binder(), PersistService.class, PersistUnits.class)
+        .addBinding()
+        .to(persistServiceKey);
+    Multibinder.newSetBinder(binder(), UnitOfWork.class, PersistUnits.class)
+        .addBinding()
+        .to(unitOfWorkKey);
+
+    // Tell every persist module which annotations select other units.
+    Multibinder<Class<? extends Annotation>> unitAnnotations =
+        Multibinder.newSetBinder(
+            binder(), new TypeLiteral<Class<? extends Annotation>>() {}, PersistUnits.class);
+    if (null != annotation) {
+      unitAnnotations.addBinding().toInstance(annotation);
+    }
     /*if[AOP]*/
     // wrapping in an if[AOP] just to allow this to compile in NO_AOP -- it won't be used
 
-    // class-level @Transacational
-    bindInterceptor(annotatedWith(Transactional.class), any(), getTransactionInterceptor());
-    // method-level @Transacational
-    bindInterceptor(any(), annotatedWith(Transactional.class), getTransactionInterceptor());
+    MethodInterceptor transactionInterceptor =
+        new UnitTransactionInterceptor(annotation, getTransactionInterceptor());
+    requestInjection(transactionInterceptor);
+    if (null == annotation) {
+      // class-level @Transactional
+      bindInterceptor(annotatedWith(Transactional.class), any(), transactionInterceptor);
+      // method-level @Transactional
+      bindInterceptor(any(), annotatedWith(Transactional.class), transactionInterceptor);
+    } else {
+      // class-level @Transactional
+      bindInterceptor(
+          annotatedWith(Transactional.class).and(annotatedWith(annotation)),
+          any(),
+          transactionInterceptor);
+      // method-level @Transactional in a qualified class
+      bindInterceptor(
+          annotatedWith(annotation), annotatedWith(Transactional.class), transactionInterceptor);
+      // qualified method-level @Transactional
+      bindInterceptor(
+          any(),
+          annotatedWith(Transactional.class).and(annotatedWith(annotation)),
+          transactionInterceptor);
+    }
     /*end[AOP]*/
   }
 
+  /**
+   * Applies a module's transaction interceptor only to the methods of its unit, and lets calls to
+   * other units' methods through. Whether a method belongs to a unit depends on the annotations that
+   * the persist modules of the injector are bound with, which aren't known until injection, so it is
+   * decided when the method is called rather than by the interceptor's matchers. Other binding
+   * annotations on transactional methods and classes are ignored.
+   */
+  private static class UnitTransactionInterceptor implements MethodInterceptor {
+    private final Class<? extends Annotation> annotation;
+    private final MethodInterceptor delegate;
+    private Set<Class<? extends Annotation>> unitAnnotations = ImmutableSet.of();
+
+    UnitTransactionInterceptor(
+        Class<? extends Annotation> annotation, MethodInterceptor delegate) {
+      this.annotation = annotation;
+      this.delegate = delegate;
+    }
+
+    @Inject
+    void setUnitAnnotations(@PersistUnits Set<Class<? extends Annotation>> unitAnnotations) {
+      this.unitAnnotations = ImmutableSet.copyOf(unitAnnotations);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation methodInvocation) throws Throwable {
+      if (unitAnnotations.isEmpty() || annotation == getUnitAnnotation(methodInvocation)) {
+        return delegate.invoke(methodInvocation);
+      }
+      return methodInvocation.proceed();
+    }
+
+    /**
+     * Returns the unit annotation of a method, or else that of its class, or null if neither is
+     * annotated with one.
+     */
+    private Class<? extends Annotation> getUnitAnnotation(MethodInvocation methodInvocation) {
+      for (Class<? extends Annotation> unitAnnotation : unitAnnotations) {
+        if (methodInvocation.getMethod().isAnnotationPresent(unitAnnotation)) {
+          return unitAnnotation;
+        }
+      }
+      for (Class<?> c = methodInvocation.getThis().getClass(); c != null; c = c.getSuperclass()) {
+        for (Class<? extends Annotation> unitAnnotation : unitAnnotations) {
+          if (c.isAnnotationPresent(unitAnnotation)) {
+            return unitAnnotation;
+          }
+        }
+      }
+      return null;
+    }
+  }
+
   protected abstract void configurePersistence();
 
   protected abstract MethodInterceptor getTransactionInterceptor();
+
+  /**
+   * Returns the binding annotation of this module's {@link PersistService} and {@link UnitOfWork},
+   * or null if they are bound without one. When present, the transaction interceptor only applies
+   * to {@code @Transactional} methods that (or whose class) are also annotated with it, letting
+   * several persist modules share one injector. Otherwise it applies to {@code @Transactional}
+   * methods and classes that carry none of the other persist modules' binding annotations.
+   *
+   * @since 4.2
+   */
+  protected Class<? extends Annotation> getBindingAnnotation() {
+    return null;
+  }
 }
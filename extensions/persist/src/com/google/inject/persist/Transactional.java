@@ -55,4 +55,16 @@ public @interface Transactional {
    * take precedence over rollbackOn, but with subtype granularity.
    */
   Class<? extends Exception>[] ignore() default {};
+
+  /**
+   * Marks the transaction as read-only. A read-only transaction never flushes and is always rolled
+   * back rather than committed, so changes made within it are discarded. Persistence modules may
+   * also route read-only units of work to a separate persistence unit, such as a read replica.
+   * Read-only methods called from within an enclosing transaction simply join it. Calling a method
+   * that isn't read-only from within a read-only transaction throws an {@link
+   * IllegalStateException}, rather than silently discarding its changes.
+   *
+   * @since 4.2
+   */
+  boolean readOnly() default false;
 }
@@ -46,4 +46,57 @@ public @interface Finder {
    * subclass of {@code java.util.Collection}.
    */
   Class<? extends Collection> returnAs() default Collection.class;
+
+  /**
+   * Returns the number of results fetched per query when the finder method returns an {@link
+   * java.util.Iterator}. Results are then loaded lazily, one chunk of this size at a time, as the
+   * iterator advances, rather than materializing the whole result list up front.
+   *
+   * <p>Each chunk is queried through the entity manager of the unit of work the finder was called
+   * in, so the iterator must be consumed before that unit of work ends; advancing it afterwards
+   * fails. Outside transactions, that entity manager is cleared before each chunk after the first,
+   * so that the entities already iterated can be garbage collected. Entities loaded earlier in the
+   * unit of work are detached too, so iterate in a unit of work of its own. Within a transaction,
+   * where clearing would discard pending changes, every chunk stays managed until the transaction
+   * ends.
+   *
+   * <p>Queries ending in {@code order by} the id of the entities they return, such as {@code from
+   * Book b order by b.id}, and binding only named parameters are paged by id: each chunk after the first only queries the entities
+   * whose id follows the last one iterated. Other queries, including named queries, are paged by
+   * offset, which gets slower with every chunk. Those should specify an {@code order by} clause so
+   * consecutive chunks are stable. Even then, rows inserted or deleted while the iterator is being
+   * consumed can shift later chunks, so that rows are skipped or returned twice.
+   *
+   * @since 4.2
+   */
+  int fetchSize() default 100;
+
+  /**
+   * Returns how long, in seconds, the results of this finder are cached for a given set of
+   * arguments. Zero, the default, disables caching. Cached results are shared across units of
+   * work, and are neither read nor written while a transaction is active.
+   *
+   * <p>Entities are cached by id and found again in the entity manager of each caller, with one
+   * query per entity type, so callers never share entity instances. Results holding mutable values
+   * other than entities, or entities without a single {@code @Id} attribute, are not cached.
+   * Finders returning an {@link java.util.Iterator} cannot be cached.
+   *
+   * <p>Cached results are discarded when a {@code @Transactional} method commits changes to an
+   * entity type the finder's query names. Entity types are only known to be changed if {@link
+   * com.google.inject.persist.jpa.FinderCacheListener} is registered with the persistence unit;
+   * otherwise, and for named queries or queries navigating associations, every commit discards
+   * the results. Bulk updates and transactions committed through the entity manager directly
+   * aren't seen; call {@link FinderCacheStats#invalidateAll} after those.
+   *
+   * @since 4.2
+   */
+  int cacheSeconds() default 0;
+
+  /**
+   * Returns the maximum number of distinct argument sets whose results are cached when {@link
+   * #cacheSeconds} is positive.
+   *
+   * @since 4.2
+   */
+  int cacheSize() default 1000;
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2016 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.persist.finder;
+
+import com.google.common.cache.CacheStats;
+import java.lang.reflect.Method;
+
+/**
+ * Reports hit and miss statistics for dynamic finders whose results are cached (see {@link
+ * Finder#cacheSeconds}), and discards cached results on request. Inject this to export finder
+ * cache metrics, or to invalidate cached results after committing changes outside of {@code
+ * Transactional} methods.
+ *
+ * @since 4.2
+ */
+public interface FinderCacheStats {
+  /**
+   * Returns the cache statistics of the given finder method, or null if the method does not cache
+   * its results or has not been called yet.
+   */
+  CacheStats stats(Method finderMethod);
+
+  /**
+   * Discards the cached results of every finder. Transactions committed by {@code Transactional}
+   * methods discard the results they affect automatically; call this after bulk updates, or after
+   * committing through the entity manager directly.
+   */
+  void invalidateAll();
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.persist.jpa;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.util.Set;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * A JPA entity listener recording which entity types a {@code Transactional} method writes, so that
+ * committing it only discards the cached results of finders querying those types (see {@link
+ * com.google.inject.persist.finder.Finder#cacheSeconds}). Register it as a default entity listener
+ * in the persistence unit's {@code orm.xml}:
+ *
+ * <pre>
+ * &lt;persistence-unit-metadata&gt;
+ *   &lt;persistence-unit-defaults&gt;
+ *     &lt;entity-listeners&gt;
+ *       &lt;entity-listener class="com.google.inject.persist.jpa.FinderCacheListener"/&gt;
+ *     &lt;/entity-listeners&gt;
+ *   &lt;/persistence-unit-defaults&gt;
+ * &lt;/persistence-unit-metadata&gt;</pre>
+ *
+ * <p>Without it, every committed transaction discards the results of every cached finder.
+ *
+ * @since 4.2
+ */
+public final class FinderCacheListener {
+  /** The entity types written on each thread since its current transaction began. */
+  private static final ThreadLocal<Set<Class<?>>> writtenTypes = new ThreadLocal<Set<Class<?>>>();
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void written(Object entity) {
+    Set<Class<?>> types = writtenTypes.get();
+    if (null == types) {
+      types = Sets.newHashSet();
+      writtenTypes.set(types);
+    }
+    types.add(entity.getClass());
+  }
+
+  /** Returns the entity types written on this thread since this was last called. */
+  static Set<Class<?>> takeWrittenTypes() {
+    Set<Class<?>> types = writtenTypes.get();
+    writtenTypes.remove();
+    return null == types ? ImmutableSet.<Class<?>>of() : types;
+  }
+}
@@ -16,22 +16,49 @@
 
 package com.google.inject.persist.jpa;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import com.google.inject.Inject;
-import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.google.inject.persist.finder.Finder;
+import com.google.inject.persist.finder.FinderCacheStats;
 import com.google.inject.persist.finder.FirstResult;
 import com.google.inject.persist.finder.MaxResults;
+import java.beans.Introspector;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.persistence.Entity;
 import javax.persistence.EntityManager;
+import javax.persistence.Id;
 import javax.persistence.Query;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -42,42 +69,390 @@ import org.aopalliance.intercept.MethodInvocation;
  * @author Dhanji R. Prasanna (dhanji@gmail.com)
  */
 @Singleton
-class JpaFinderProxy implements MethodInterceptor {
-  private final Map<Method, FinderDescriptor> finderCache = new MapMaker().weakKeys().makeMap();
-  private final Provider<EntityManager> emProvider;
+class JpaFinderProxy implements MethodInterceptor, FinderCacheStats {
+  private final Map<Method, FinderDescriptor> finderCache = new MapMaker().makeMap();
+  private final JpaPersistService emProvider;
+
+  /** The id getter or field of each entity type whose instances were cached, if it has one. */
+  private final Map<Class<?>, Optional<AccessibleObject>> idMembers = new MapMaker().makeMap();
 
   @Inject
-  public JpaFinderProxy(Provider<EntityManager> emProvider) {
+  public JpaFinderProxy(JpaPersistService emProvider) {
     this.emProvider = emProvider;
   }
 
   @Override
   public Object invoke(MethodInvocation methodInvocation) throws Throwable {
-    EntityManager em = emProvider.get();
+    return invoke(
+        getFinderDescriptor(methodInvocation.getMethod()), methodInvocation.getArguments());
+  }
 
-    //obtain a cached finder descriptor (or create a new one)
-    JpaFinderProxy.FinderDescriptor finderDescriptor = getFinderDescriptor(methodInvocation);
+  /**
+   * Runs a finder method's query with the given arguments. Finder implementations resolve each
+   * method's descriptor once with {@link #getFinderDescriptor} and call this directly, sparing each
+   * call the descriptor lookup and the allocation of a {@link MethodInvocation}.
+   */
+  Object invoke(FinderDescriptor finderDescriptor, Object[] arguments) {
+    EntityManager em = emProvider.get();
 
-    Object result = null;
+    //only use cached results outside transactions, so uncommitted data is never seen or kept
+    Cache<List<Object>, Object> resultCache = finderDescriptor.resultCache;
+    List<Object> cacheKey = null;
+    long generation = 0;
+    if (null != resultCache && !em.getTransaction().isActive()) {
+      cacheKey = Arrays.asList(arguments.clone());
+      generation = finderDescriptor.cacheGeneration.get();
+      Object cached = resultCache.getIfPresent(cacheKey);
+      if (null != cached) {
+        Object results = fromCached(em, cached);
+        if (UNCACHEABLE != results) {
+          return decorateResults(finderDescriptor, results);
+        }
+        //an entity has since been removed, so run the query again
+        resultCache.invalidate(cacheKey);
+      }
+    }
 
     //execute as query (named params or otherwise)
     Query jpaQuery = finderDescriptor.createQuery(em);
     if (finderDescriptor.isBindAsRawParameters) {
-      bindQueryRawParameters(jpaQuery, finderDescriptor, methodInvocation.getArguments());
+      bindQueryRawParameters(jpaQuery, finderDescriptor, arguments);
     } else {
-      bindQueryNamedParameters(jpaQuery, finderDescriptor, methodInvocation.getArguments());
+      bindQueryNamedParameters(jpaQuery, finderDescriptor, arguments);
+    }
+
+    if (JpaFinderProxy.ReturnType.ITERATOR.equals(finderDescriptor.returnType)) {
+      return getAsIterator(finderDescriptor, em, jpaQuery, arguments);
+    }
+
+    Object results =
+        JpaFinderProxy.ReturnType.PLAIN.equals(finderDescriptor.returnType)
+            ? jpaQuery.getSingleResult()
+            : jpaQuery.getResultList();
+    if (null != cacheKey && null != results) {
+      cacheResults(finderDescriptor, cacheKey, generation, toCached(em, results));
+    }
+
+    return decorateResults(finderDescriptor, results);
+  }
+
+  /**
+   * Caches results queried in the given cache generation, unless the finder's cached results were
+   * invalidated since. The generation is checked again after caching, in case invalidation raced
+   * with us.
+   */
+  private void cacheResults(
+      FinderDescriptor finderDescriptor, List<Object> cacheKey, long generation, Object cached) {
+    AtomicLong cacheGeneration = finderDescriptor.cacheGeneration;
+    if (UNCACHEABLE == cached || generation != cacheGeneration.get()) {
+      return;
+    }
+    finderDescriptor.resultCache.put(cacheKey, cached);
+    if (generation != cacheGeneration.get()) {
+      finderDescriptor.resultCache.invalidate(cacheKey);
+    }
+  }
+
+  /**
+   * Returns what the result cache keeps of a query result: entities are replaced by their type and
+   * id, and rows are copied, so that no entity manager's entities are shared. Returns {@link
+   * #UNCACHEABLE} if the result holds values that can't be kept this way, such as mutable values
+   * or entities without a single {@code @Id} attribute.
+   */
+  private Object toCached(EntityManager em, Object result) {
+    if (result instanceof List) {
+      List<Object> cached = Lists.newArrayListWithCapacity(((List<?>) result).size());
+      for (Object element : (List<?>) result) {
+        Object cachedElement = toCached(em, element);
+        if (UNCACHEABLE == cachedElement) {
+          return UNCACHEABLE;
+        }
+        cached.add(cachedElement);
+      }
+      return new CachedRows(cached);
+    } else if (result instanceof Object[]) {
+      return toCached(em, Arrays.asList((Object[]) result)); // a row of a projection
+    } else if (null == result || isImmutableValue(result)) {
+      return result;
+    } else if (em.contains(result)) {
+      Class<?> entityType = getEntityType(result.getClass());
+      Object id = null == entityType ? null : getId(entityType, result);
+      return null == id ? UNCACHEABLE : new CachedEntity(entityType, id);
+    }
+    return UNCACHEABLE;
+  }
+
+  /**
+   * Returns a cached result with its entities found again in the given entity manager, or {@link
+   * #UNCACHEABLE} if one of them no longer exists. The entities of each type are found with a
+   * single query (per {@link #MAX_IDS_PER_QUERY} ids), rather than one query per entity.
+   */
+  private Object fromCached(EntityManager em, Object cached) {
+    SetMultimap<Class<?>, Object> cachedIds = LinkedHashMultimap.create();
+    collectCachedIds(cached, cachedIds);
+
+    Map<Class<?>, Map<Object, Object>> entitiesById = Maps.newHashMap();
+    for (Map.Entry<Class<?>, Collection<Object>> entry : cachedIds.asMap().entrySet()) {
+      Class<?> entityType = entry.getKey();
+      Map<Object, Object> entities = Maps.newHashMap();
+      Query query =
+          em.createQuery(
+              "select e from "
+                  + getEntityName(entityType)
+                  + " e where e."
+                  + getIdAttribute(idMembers.get(entityType).get())
+                  + " in (:ids)");
+      for (List<Object> ids : Iterables.partition(entry.getValue(), MAX_IDS_PER_QUERY)) {
+        for (Object entity : query.setParameter("ids", ids).getResultList()) {
+          entities.put(getId(entityType, entity), entity);
+        }
+      }
+      entitiesById.put(entityType, entities);
+    }
+    return fromCached(em, entitiesById, cached);
+  }
+
+  private static void collectCachedIds(Object cached, SetMultimap<Class<?>, Object> cachedIds) {
+    if (cached instanceof CachedRows) {
+      for (Object row : ((CachedRows) cached).rows) {
+        collectCachedIds(row, cachedIds);
+      }
+    } else if (cached instanceof CachedEntity) {
+      CachedEntity entity = (CachedEntity) cached;
+      cachedIds.put(entity.type, entity.id);
+    }
+  }
+
+  private static Object fromCached(
+      EntityManager em, Map<Class<?>, Map<Object, Object>> entitiesById, Object cached) {
+    if (cached instanceof CachedRows) {
+      List<Object> rows = ((CachedRows) cached).rows;
+      List<Object> results = Lists.newArrayListWithCapacity(rows.size());
+      for (Object row : rows) {
+        Object result = fromCached(em, entitiesById, row);
+        if (UNCACHEABLE == result) {
+          return UNCACHEABLE;
+        }
+        results.add(result instanceof List ? ((List<?>) result).toArray() : result);
+      }
+      return results;
+    } else if (cached instanceof CachedEntity) {
+      CachedEntity entity = (CachedEntity) cached;
+      Object result = entitiesById.get(entity.type).get(entity.id);
+      if (null == result) {
+        //the query returned an uninitialized proxy we couldn't read the id of, or nothing at all
+        result = em.find(entity.type, entity.id);
+      }
+      return null == result ? UNCACHEABLE : result;
+    }
+    return cached;
+  }
+
+  private static boolean isImmutableValue(Object value) {
+    return value instanceof String
+        || value instanceof Boolean
+        || value instanceof Character
+        || value instanceof Byte
+        || value instanceof Short
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof Float
+        || value instanceof Double
+        || value instanceof BigInteger
+        || value instanceof BigDecimal
+        || value instanceof Enum;
+  }
+
+  /** Returns the entity class of an instance, which may be a subclass generated by the provider. */
+  private static Class<?> getEntityType(Class<?> type) {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      if (c.isAnnotationPresent(Entity.class)) {
+        return c;
+      }
+    }
+    return null;
+  }
+
+  /** Returns the name queries refer to an entity type by. */
+  private static String getEntityName(Class<?> entityType) {
+    String name = entityType.getAnnotation(Entity.class).name();
+    return name.isEmpty() ? entityType.getSimpleName() : name;
+  }
+
+  /** Returns the name of the attribute mapped by an id getter or field. */
+  private static String getIdAttribute(AccessibleObject idMember) {
+    if (idMember instanceof Field) {
+      return ((Field) idMember).getName();
+    }
+    String getter = ((Method) idMember).getName();
+    return Introspector.decapitalize(getter.substring(getter.startsWith("is") ? 2 : 3));
+  }
+
+  /** Returns the id of an entity mapped with a single id attribute, or null. */
+  private Object getId(Class<?> entityType, Object entity) {
+    Optional<AccessibleObject> idMember = idMembers.get(entityType);
+    if (null == idMember) {
+      idMember = findIdMember(entityType);
+      idMembers.put(entityType, idMember);
+    }
+    try {
+      if (idMember.orNull() instanceof Method) {
+        return ((Method) idMember.get()).invoke(entity);
+      } else if (idMember.orNull() instanceof Field) {
+        return ((Field) idMember.get()).get(entity);
+      }
+      return null;
+    } catch (IllegalAccessException e) {
+      return null;
+    } catch (InvocationTargetException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the getter or field annotated with {@code @Id}, or nothing if there isn't exactly one.
+   */
+  private static Optional<AccessibleObject> findIdMember(Class<?> entityType) {
+    List<AccessibleObject> candidates = Lists.newArrayList();
+    for (Class<?> c = entityType; c != null; c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        if (isId(method) && method.getParameterTypes().length == 0) {
+          candidates.add(method);
+        }
+      }
+      for (Field field : c.getDeclaredFields()) {
+        if (isId(field)) {
+          candidates.add(field);
+        }
+      }
+    }
+    if (candidates.size() != 1) {
+      return Optional.absent();
+    }
+    AccessibleObject idMember = candidates.get(0);
+    idMember.setAccessible(true);
+    return Optional.of(idMember);
+  }
+
+  private static boolean isId(AccessibleObject member) {
+    return member.isAnnotationPresent(Id.class);
+  }
+
+  /** The most ids bound to a single query when cached entities are found again. */
+  private static final int MAX_IDS_PER_QUERY = 500;
+
+  /** Stands for results that can't be cached, or cached results that can't be used. */
+  private static final Object UNCACHEABLE = new Object();
+
+  /** The cached rows of a list result. Rows that are arrays are cached as lists. */
+  private static class CachedRows {
+    final List<Object> rows;
+
+    CachedRows(List<Object> rows) {
+      this.rows = rows;
+    }
+  }
+
+  /** A cached entity, to be found again in whichever entity manager reads the cache. */
+  private static class CachedEntity {
+    final Class<?> type;
+    final Object id;
+
+    CachedEntity(Class<?> type, Object id) {
+      this.type = type;
+      this.id = id;
+    }
+  }
+
+  @Override
+  public CacheStats stats(Method finderMethod) {
+    FinderDescriptor finderDescriptor = finderCache.get(finderMethod);
+    return null == finderDescriptor || null == finderDescriptor.resultCache
+        ? null
+        : finderDescriptor.resultCache.stats();
+  }
+
+  @Override
+  public void invalidateAll() {
+    invalidateCachedResults();
+  }
+
+  /** Discards all cached finder results. */
+  void invalidateCachedResults() {
+    for (JpaFinderProxy.FinderDescriptor finderDescriptor : finderCache.values()) {
+      finderDescriptor.invalidateCachedResults();
+    }
+  }
+
+  /**
+   * Discards the cached results of finders querying any of the given entity types, or of every
+   * finder if no types are given, because a transaction writing them has committed.
+   */
+  void invalidateCachedResults(Set<Class<?>> writtenTypes) {
+    if (writtenTypes.isEmpty()) {
+      //nothing was recorded, maybe because FinderCacheListener isn't registered
+      invalidateCachedResults();
+      return;
     }
 
+    //queries name an entity type or any of its entity superclasses
+    Set<String> writtenEntityNames = Sets.newHashSet();
+    for (Class<?> writtenType : writtenTypes) {
+      Class<?> entityType = getEntityType(writtenType);
+      while (null != entityType) {
+        writtenEntityNames.add(getEntityName(entityType));
+        entityType = getEntityType(entityType.getSuperclass());
+      }
+    }
+    for (JpaFinderProxy.FinderDescriptor finderDescriptor : finderCache.values()) {
+      Set<String> queriedEntityNames = finderDescriptor.queriedEntityNames;
+      if (null == queriedEntityNames
+          || !Collections.disjoint(queriedEntityNames, writtenEntityNames)) {
+        finderDescriptor.invalidateCachedResults();
+      }
+    }
+  }
+
+  /**
+   * Returns the names in a query that may refer to the entity types it reads, or null if the query
+   * may also read entity types it doesn't name, by navigating associations.
+   */
+  private static Set<String> getQueriedEntityNames(String query) {
+    if (ASSOCIATION_NAVIGATION.matcher(query).find()) {
+      return null;
+    }
+    Set<String> names = Sets.newHashSet();
+    Matcher identifiers = IDENTIFIER.matcher(query);
+    while (identifiers.find()) {
+      names.add(identifiers.group());
+    }
+    return names;
+  }
+
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][\\w$]*");
+
+  /**
+   * Matches joins, paths through more than one attribute, and the operators applying to
+   * collection-valued attributes.
+   */
+  private static final Pattern ASSOCIATION_NAVIGATION =
+      Pattern.compile(
+          "\\b(join|fetch|member|empty|size|elements|indices)\\b"
+              + "|\\bin\\s*\\(\\s*[\\w$]+\\s*\\."
+              + "|[\\w$]\\s*\\.\\s*[\\w$]+\\s*\\.",
+          Pattern.CASE_INSENSITIVE);
+
+  private Object decorateResults(JpaFinderProxy.FinderDescriptor finderDescriptor, Object results) {
     //depending upon return type, decorate or return the result as is
     if (JpaFinderProxy.ReturnType.PLAIN.equals(finderDescriptor.returnType)) {
-      result = jpaQuery.getSingleResult();
+      return results;
     } else if (JpaFinderProxy.ReturnType.COLLECTION.equals(finderDescriptor.returnType)) {
-      result = getAsCollection(finderDescriptor, jpaQuery.getResultList());
+      return getAsCollection(finderDescriptor, (List) results);
     } else if (JpaFinderProxy.ReturnType.ARRAY.equals(finderDescriptor.returnType)) {
-      result = jpaQuery.getResultList().toArray();
+      return ((List) results).toArray();
     }
 
-    return result;
+    return null;
   }
 
   private Object getAsCollection(JpaFinderProxy.FinderDescriptor finderDescriptor, List results) {
@@ -105,6 +480,26 @@ class JpaFinderProxy implements MethodInterceptor {
     return collection;
   }
 
+  private Iterator<?> getAsIterator(
+      JpaFinderProxy.FinderDescriptor descriptor,
+      EntityManager em,
+      Query jpaQuery,
+      Object[] arguments) {
+    //the paging arguments (if any) bound the window that is walked chunk by chunk
+    int firstResult = 0;
+    int maxResults = Integer.MAX_VALUE;
+    for (int i = 0; i < arguments.length; i++) {
+      Object annotation = descriptor.parameterAnnotations[i];
+      if (annotation instanceof FirstResult) {
+        firstResult = (Integer) arguments[i];
+      } else if (annotation instanceof MaxResults) {
+        maxResults = (Integer) arguments[i];
+      }
+    }
+
+    return new ChunkedResultIterator(descriptor, em, jpaQuery, arguments, firstResult, maxResults);
+  }
+
   private void bindQueryNamedParameters(
       Query jpaQuery, JpaFinderProxy.FinderDescriptor descriptor, Object[] arguments) {
     for (int i = 0; i < arguments.length; i++) {
@@ -147,8 +542,8 @@ class JpaFinderProxy implements MethodInterceptor {
     }
   }
 
-  private JpaFinderProxy.FinderDescriptor getFinderDescriptor(MethodInvocation invocation) {
-    Method method = invocation.getMethod();
+  /** Returns the descriptor of a finder method, reflecting on the method the first time. */
+  FinderDescriptor getFinderDescriptor(Method method) {
     JpaFinderProxy.FinderDescriptor finderDescriptor = finderCache.get(method);
     if (null != finderDescriptor) {
       return finderDescriptor;
@@ -158,14 +553,15 @@ class JpaFinderProxy implements MethodInterceptor {
     finderDescriptor = new JpaFinderProxy.FinderDescriptor();
 
     //determine return type
-    finderDescriptor.returnClass = invocation.getMethod().getReturnType();
+    finderDescriptor.returnClass = method.getReturnType();
     finderDescriptor.returnType = determineReturnType(finderDescriptor.returnClass);
 
     //determine finder query characteristics
-    Finder finder = invocation.getMethod().getAnnotation(Finder.class);
+    Finder finder = method.getAnnotation(Finder.class);
     String query = finder.query();
     if (!"".equals(query.trim())) {
       finderDescriptor.setQuery(query);
+      finderDescriptor.queriedEntityNames = getQueriedEntityNames(query);
     } else {
       finderDescriptor.setNamedQuery(finder.namedQuery());
     }
@@ -212,12 +608,81 @@ class JpaFinderProxy implements MethodInterceptor {
       }
     }
 
+    //discover the chunk size if this finder returns a lazily fetched iterator
+    if (JpaFinderProxy.ReturnType.ITERATOR.equals(finderDescriptor.returnType)) {
+      if (finder.fetchSize() < 1) {
+        throw new RuntimeException(
+            "Finder's fetchSize must be a positive number, but was: " + finder.fetchSize());
+      }
+      finderDescriptor.fetchSize = finder.fetchSize();
+
+      //page by id rather than by offset where the query orders by what may be the id
+      Matcher orderBy =
+          null == finderDescriptor.query
+              ? null
+              : ORDER_BY_SINGLE_ATTRIBUTE.matcher(finderDescriptor.query);
+      if (null != orderBy
+          && orderBy.matches()
+          && !GROUP_BY_OR_HAVING.matcher(orderBy.group(1)).find()
+          && !hasRawParameters(finderDescriptor)) {
+        String prefix = orderBy.group(1);
+        String path = orderBy.group(2);
+        String keysetCondition = path + " > :" + LAST_ID_PARAMETER;
+        Matcher where = WHERE.matcher(prefix);
+        finderDescriptor.keysetQuery =
+            (where.find()
+                    ? prefix.substring(0, where.end())
+                        + " ("
+                        + prefix.substring(where.end())
+                        + ") and "
+                        + keysetCondition
+                    : prefix + " where " + keysetCondition)
+                + " order by "
+                + path;
+        finderDescriptor.orderedByAttribute = orderBy.group(3);
+      }
+    }
+
+    //build a result cache if this finder asks for one
+    if (finder.cacheSeconds() > 0) {
+      if (JpaFinderProxy.ReturnType.ITERATOR.equals(finderDescriptor.returnType)) {
+        throw new RuntimeException(
+            "Finders returning an Iterator cannot cache their results: " + method);
+      }
+      finderDescriptor.resultCache =
+          CacheBuilder.newBuilder()
+              .expireAfterWrite(finder.cacheSeconds(), TimeUnit.SECONDS)
+              .maximumSize(finder.cacheSize())
+              .recordStats()
+              .build();
+    }
+
     //cache it
     cacheFinderDescriptor(method, finderDescriptor);
 
     return finderDescriptor;
   }
 
+  /** Returns whether some arguments of a finder are bound to positional parameters. */
+  private static boolean hasRawParameters(FinderDescriptor finderDescriptor) {
+    return finderDescriptor.isBindAsRawParameters
+        && Arrays.asList(finderDescriptor.parameterAnnotations).contains(null);
+  }
+
+  /** Matches a query ordered by a single attribute, ascending. */
+  private static final Pattern ORDER_BY_SINGLE_ATTRIBUTE =
+      Pattern.compile(
+          "(.*)\\border\\s+by\\s+((?:[\\w$]+\\.)?([\\w$]+))(?:\\s+asc)?\\s*",
+          Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private static final Pattern GROUP_BY_OR_HAVING =
+      Pattern.compile("\\b(group\\s+by|having)\\b", Pattern.CASE_INSENSITIVE);
+
+  private static final Pattern WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+
+  /** The parameter of a keyset query bound to the id of the last result iterated. */
+  private static final String LAST_ID_PARAMETER = "lastIteratedId";
+
   /**
    * writes to a chm (used to provide copy-on-write but this is bettah!)
    *
@@ -230,7 +695,9 @@ class JpaFinderProxy implements MethodInterceptor {
   }
 
   private JpaFinderProxy.ReturnType determineReturnType(Class<?> returnClass) {
-    if (Collection.class.isAssignableFrom(returnClass)) {
+    if (Iterator.class.equals(returnClass)) {
+      return JpaFinderProxy.ReturnType.ITERATOR;
+    } else if (Collection.class.isAssignableFrom(returnClass)) {
       return JpaFinderProxy.ReturnType.COLLECTION;
     } else if (returnClass.isArray()) {
       return JpaFinderProxy.ReturnType.ARRAY;
@@ -240,7 +707,7 @@ class JpaFinderProxy implements MethodInterceptor {
   }
 
   /** A wrapper data class that caches information about a finder method. */
-  private static class FinderDescriptor {
+  static class FinderDescriptor {
     private volatile boolean isKeyedQuery = false;
     volatile boolean isBindAsRawParameters = true;
     //should we treat the query as having ? instead of :named params
@@ -248,6 +715,21 @@ class JpaFinderProxy implements MethodInterceptor {
     volatile Class<?> returnClass;
     volatile Class<? extends Collection> returnCollectionType;
     volatile Constructor returnCollectionTypeConstructor;
+    volatile int fetchSize;
+    volatile String keysetQuery;
+    //null = iterators page by offset, otherwise the query restricted to ids beyond the last chunk
+    volatile String orderedByAttribute;
+    //the attribute the query orders by, which keyset paging requires to be the results' id
+    volatile Cache<List<Object>, Object> resultCache;
+    //null = results are not cached
+    volatile Set<String> queriedEntityNames;
+    //null = any entity type may be read by the query (named queries are opaque to us)
+
+    /**
+     * Incremented whenever cached results are invalidated, so that results queried before then are
+     * not cached afterwards.
+     */
+    final AtomicLong cacheGeneration = new AtomicLong();
     volatile Object[] parameterAnnotations;
     //contract is: null = no bind, @Named = param, @FirstResult/@MaxResults for paging
 
@@ -270,11 +752,113 @@ class JpaFinderProxy implements MethodInterceptor {
     Query createQuery(EntityManager em) {
       return isKeyedQuery ? em.createNamedQuery(name) : em.createQuery(query);
     }
+
+    void invalidateCachedResults() {
+      if (null != resultCache) {
+        cacheGeneration.incrementAndGet();
+        resultCache.invalidateAll();
+      }
+    }
+  }
+
+  /**
+   * Walks a query's results lazily, issuing one query per chunk of {@code fetchSize} results
+   * within the window starting at {@code firstResult} and spanning at most {@code maxResults}.
+   *
+   * <p>When the query orders its entities by id, each chunk after the first is queried for the ids
+   * following the last one iterated, which the database can seek to directly. Other queries are
+   * paged by offset. Outside transactions, the finder's entity manager is cleared before each
+   * chunk after the first, so that the entities already iterated can be garbage collected.
+   */
+  private class ChunkedResultIterator extends AbstractIterator<Object> {
+    private final FinderDescriptor descriptor;
+    private final EntityManager em;
+    private final Query query;
+    private final Object[] arguments;
+    private Query keysetQuery;
+    private Object lastId;
+    private boolean started;
+    private int position;
+    private int remaining;
+    private boolean exhausted;
+    private Iterator<?> chunk = ImmutableList.of().iterator();
+
+    ChunkedResultIterator(
+        FinderDescriptor descriptor,
+        EntityManager em,
+        Query query,
+        Object[] arguments,
+        int firstResult,
+        int maxResults) {
+      this.descriptor = descriptor;
+      this.em = em;
+      this.query = query;
+      this.arguments = arguments;
+      this.position = firstResult;
+      this.remaining = maxResults;
+    }
+
+    @Override
+    protected Object computeNext() {
+      while (!chunk.hasNext()) {
+        if (exhausted || remaining <= 0) {
+          return endOfData();
+        }
+
+        int size = Math.min(descriptor.fetchSize, remaining);
+        List<?> results = nextChunkQuery().setMaxResults(size).getResultList();
+        position += results.size();
+        remaining -= results.size();
+
+        //a short chunk means the database has nothing more to give us
+        exhausted = results.size() < size;
+        lastId = exhausted ? null : getKeysetId(results.get(results.size() - 1));
+        chunk = results.iterator();
+      }
+      return chunk.next();
+    }
+
+    private Query nextChunkQuery() {
+      if (!started) {
+        started = true;
+        return query.setFirstResult(position);
+      }
+
+      //nothing can be pending outside a transaction, so let go of the chunks already iterated
+      if (!em.getTransaction().isActive()) {
+        em.clear();
+      }
+
+      if (null == lastId) {
+        return query.setFirstResult(position);
+      }
+      if (null == keysetQuery) {
+        keysetQuery = em.createQuery(descriptor.keysetQuery);
+        bindQueryNamedParameters(keysetQuery, descriptor, arguments);
+      }
+      return keysetQuery.setParameter(LAST_ID_PARAMETER, lastId).setFirstResult(0);
+    }
+
+    /** Returns the id to page from after the given result, or null to page by offset. */
+    private Object getKeysetId(Object result) {
+      if (null == descriptor.keysetQuery || null == result) {
+        return null;
+      }
+      Class<?> entityType = getEntityType(result.getClass());
+      Object id = null == entityType ? null : getId(entityType, result);
+      if (null == id
+          || !descriptor.orderedByAttribute.equals(
+              getIdAttribute(idMembers.get(entityType).get()))) {
+        return null;
+      }
+      return id;
+    }
   }
 
   private static enum ReturnType {
     PLAIN,
     COLLECTION,
-    ARRAY
+    ARRAY,
+    ITERATOR
   }
 }
@@ -18,10 +18,10 @@ package com.google.inject.persist.jpa;
 
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
-import com.google.inject.persist.UnitOfWork;
 import java.lang.reflect.Method;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
+import javax.persistence.FlushModeType;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
@@ -31,7 +31,7 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
   // TODO(gak): Move these args to the cxtor & make these final.
   @Inject private JpaPersistService emProvider = null;
 
-  @Inject private UnitOfWork unitOfWork = null;
+  @Inject private JpaFinderProxy finderProxy = null;
 
   @Transactional
   private static class Internal {}
@@ -39,8 +39,25 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
   // Tracks if the unit of work was begun implicitly by this transaction.
   private final ThreadLocal<Boolean> didWeStartWork = new ThreadLocal<Boolean>();
 
+  // Tracks if a read-only transaction begun by this interceptor is in progress.
+  private final ThreadLocal<Boolean> inReadOnlyTransaction = new ThreadLocal<Boolean>();
+
   @Override
   public Object invoke(MethodInvocation methodInvocation) throws Throwable {
+    Transactional transactional = readTransactionMetadata(methodInvocation);
+    if (transactional.readOnly()) {
+      return invokeReadOnly(methodInvocation);
+    }
+
+    // An enclosing read-only transaction would silently discard our writes.
+    if (emProvider.isReadOnlyWorking() || null != inReadOnlyTransaction.get()) {
+      throw new IllegalStateException(
+          "@Transactional method "
+              + methodInvocation.getMethod()
+              + " cannot be called from within a read-only transaction, which would discard its"
+              + " changes. Mark it @Transactional(readOnly = true), or call it outside the"
+              + " read-only transaction.");
+    }
 
     // Should we start a unit of work?
     if (!emProvider.isWorking()) {
@@ -48,7 +65,6 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
       didWeStartWork.set(true);
     }
 
-    Transactional transactional = readTransactionMetadata(methodInvocation);
     EntityManager em = this.emProvider.get();
 
     // Allow 'joining' of transactions if there is an enclosing @Transactional method.
@@ -57,6 +73,8 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
     }
 
     final EntityTransaction txn = em.getTransaction();
+    // Forget whatever was written on this thread outside of @Transactional methods.
+    FinderCacheListener.takeWrittenTypes();
     txn.begin();
 
     Object result;
@@ -67,6 +85,7 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
       //commit transaction only if rollback didnt occur
       if (rollbackIfNecessary(transactional, e, txn)) {
         txn.commit();
+        finderProxy.invalidateCachedResults(FinderCacheListener.takeWrittenTypes());
       }
 
       //propagate whatever exception is thrown anyway
@@ -75,7 +94,7 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
       // Close the em if necessary (guarded so this code doesn't run unless catch fired).
       if (null != didWeStartWork.get() && !txn.isActive()) {
         didWeStartWork.remove();
-        unitOfWork.end();
+        emProvider.end();
       }
     }
 
@@ -83,11 +102,12 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
     //  interferes with the advised method's throwing semantics)
     try {
       txn.commit();
+      finderProxy.invalidateCachedResults(FinderCacheListener.takeWrittenTypes());
     } finally {
       //close the em if necessary
       if (null != didWeStartWork.get()) {
         didWeStartWork.remove();
-        unitOfWork.end();
+        emProvider.end();
       }
     }
 
@@ -95,6 +115,48 @@ class JpaLocalTxnInterceptor implements MethodInterceptor {
     return result;
   }
 
+  private Object invokeReadOnly(MethodInvocation methodInvocation) throws Throwable {
+    // Join any enclosing transaction, be it read-only or not.
+    if (emProvider.isReadOnlyWorking()
+        || (emProvider.isWorking() && emProvider.get().getTransaction().isActive())) {
+      return methodInvocation.proceed();
+    }
+
+    // Prefer the read-only unit, falling back to a (possibly new) unit of work on the primary one.
+    boolean didWeStartReadOnlyWork = emProvider.beginReadOnly();
+    boolean didWeStartWork = false;
+    if (!didWeStartReadOnlyWork && !emProvider.isWorking()) {
+      emProvider.begin();
+      didWeStartWork = true;
+    }
+
+    EntityManager em = emProvider.get();
+    FlushModeType flushMode = em.getFlushMode();
+    EntityTransaction txn = em.getTransaction();
+    try {
+      // Nothing is written, so skip flushing (and the dirty checking it entails) before queries.
+      em.setFlushMode(FlushModeType.COMMIT);
+      txn.begin();
+      inReadOnlyTransaction.set(true);
+      return methodInvocation.proceed();
+    } finally {
+      inReadOnlyTransaction.remove();
+      try {
+        // ...and roll back rather than flushing on commit.
+        if (txn.isActive()) {
+          txn.rollback();
+        }
+        em.setFlushMode(flushMode);
+      } finally {
+        if (didWeStartReadOnlyWork) {
+          emProvider.endReadOnly();
+        } else if (didWeStartWork) {
+          emProvider.end();
+        }
+      }
+    }
+  }
+
   // TODO(dhanji): Cache this method's results.
   private Transactional readTransactionMetadata(MethodInvocation methodInvocation) {
     Transactional transactional;
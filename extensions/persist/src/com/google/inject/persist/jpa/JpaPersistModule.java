@@ -17,25 +17,30 @@
 package com.google.inject.persist.jpa;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.inject.BindingAnnotation;
 import com.google.inject.Inject;
-import com.google.inject.Provides;
+import com.google.inject.Key;
+import com.google.inject.PrivateModule;
 import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
 import com.google.inject.persist.PersistModule;
 import com.google.inject.persist.PersistService;
 import com.google.inject.persist.UnitOfWork;
 import com.google.inject.persist.finder.DynamicFinder;
-import com.google.inject.persist.finder.Finder;
-import java.lang.reflect.AccessibleObject;
+import com.google.inject.persist.finder.FinderCacheStats;
+import com.google.inject.util.Providers;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.List;
 import java.util.Map;
+import javax.inject.Qualifier;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import org.aopalliance.intercept.MethodInterceptor;
-import org.aopalliance.intercept.MethodInvocation;
 
 /**
  * JPA provider for guice persist.
@@ -44,35 +49,49 @@ import org.aopalliance.intercept.MethodInvocation;
  */
 public final class JpaPersistModule extends PersistModule {
   private final String jpaUnit;
+  private final Class<? extends Annotation> annotation;
 
   public JpaPersistModule(String jpaUnit) {
     Preconditions.checkArgument(
         null != jpaUnit && jpaUnit.length() > 0, "JPA unit name must be a non-empty string.");
     this.jpaUnit = jpaUnit;
+    this.annotation = null;
+  }
+
+  /**
+   * Creates a module for the given JPA unit whose {@link PersistService}, {@link UnitOfWork},
+   * {@link EntityManager} and {@link EntityManagerFactory} are bound with a binding annotation, so
+   * that several persistence units can be installed in one injector. Each unit gets its own units
+   * of work and transactions: its transaction interceptor applies to {@code @Transactional}
+   * methods that (or whose class) are also annotated with {@code annotation}. Dynamic finders added
+   * to this module query this unit and are bound without the annotation.
+   *
+   * @param jpaUnit The name of the persistence unit.
+   * @param annotation A binding annotation that may be applied to methods and types.
+   * @since 4.2
+   */
+  public JpaPersistModule(String jpaUnit, Class<? extends Annotation> annotation) {
+    Preconditions.checkArgument(
+        null != jpaUnit && jpaUnit.length() > 0, "JPA unit name must be a non-empty string.");
+    Preconditions.checkArgument(
+        null != annotation
+            && (annotation.isAnnotationPresent(BindingAnnotation.class)
+                || annotation.isAnnotationPresent(Qualifier.class)),
+        "%s is not a binding annotation.",
+        annotation);
+    this.jpaUnit = jpaUnit;
+    this.annotation = annotation;
   }
 
   private Map<?, ?> properties;
+  private String readOnlyUnit;
+  private Map<?, ?> readOnlyProperties;
   private MethodInterceptor transactionInterceptor;
 
   @Override
   protected void configurePersistence() {
-    bindConstant().annotatedWith(Jpa.class).to(jpaUnit);
-
-    bind(JpaPersistService.class).in(Singleton.class);
-
-    bind(PersistService.class).to(JpaPersistService.class);
-    bind(UnitOfWork.class).to(JpaPersistService.class);
-    bind(EntityManager.class).toProvider(JpaPersistService.class);
-    bind(EntityManagerFactory.class)
-        .toProvider(JpaPersistService.EntityManagerFactoryProvider.class);
-
     transactionInterceptor = new JpaLocalTxnInterceptor();
-    requestInjection(transactionInterceptor);
-
-    // Bind dynamic finders.
-    for (Class<?> finder : dynamicFinders) {
-      bindFinder(finder);
-    }
+    install(new UnitModule());
   }
 
   @Override
@@ -80,10 +99,13 @@ public final class JpaPersistModule extends PersistModule {
     return transactionInterceptor;
   }
 
-  @Provides
-  @Jpa
-  Map<?, ?> provideProperties() {
-    return properties;
+  @Override
+  protected Class<? extends Annotation> getBindingAnnotation() {
+    return annotation;
+  }
+
+  private <T> Key<T> unitKey(Class<T> type) {
+    return null == annotation ? Key.get(type) : Key.get(type, annotation);
   }
 
   /**
@@ -98,6 +120,33 @@ public final class JpaPersistModule extends PersistModule {
     return this;
   }
 
+  /**
+   * Routes units of work begun by {@code @Transactional(readOnly = true)} methods to a secondary
+   * persistence unit, typically one connected to a read replica of the primary database.
+   *
+   * @param jpaUnit The name of the read-only persistence unit.
+   * @since 4.2
+   */
+  public JpaPersistModule readOnlyUnit(String jpaUnit) {
+    Preconditions.checkArgument(
+        null != jpaUnit && jpaUnit.length() > 0, "JPA unit name must be a non-empty string.");
+    this.readOnlyUnit = jpaUnit;
+    return this;
+  }
+
+  /**
+   * Configures the JPA persistence provider of the {@link #readOnlyUnit read-only unit} with a set
+   * of properties.
+   *
+   * @param properties A set of name value pairs that configure a JPA persistence provider as per
+   *     the specification.
+   * @since 4.2
+   */
+  public JpaPersistModule readOnlyProperties(Map<?, ?> properties) {
+    this.readOnlyProperties = properties;
+    return this;
+  }
+
   private final List<Class<?>> dynamicFinders = Lists.newArrayList();
 
   /**
@@ -110,88 +159,132 @@ public final class JpaPersistModule extends PersistModule {
     return this;
   }
 
-  private <T> void bindFinder(Class<T> iface) {
-    if (!isDynamicFinderValid(iface)) {
-      return;
+  /**
+   * Binds everything that makes up the persistence unit. Only the unit's public types are exposed,
+   * so other units can be installed alongside it.
+   */
+  private class UnitModule extends PrivateModule {
+    @Override
+    protected void configure() {
+      bindConstant().annotatedWith(Jpa.class).to(jpaUnit);
+      bind(new TypeLiteral<Map<?, ?>>() {})
+          .annotatedWith(Jpa.class)
+          .toProvider(Providers.<Map<?, ?>>of(properties));
+      if (null != readOnlyUnit) {
+        bindConstant().annotatedWith(JpaReadOnly.class).to(readOnlyUnit);
+        bind(new TypeLiteral<Map<?, ?>>() {})
+            .annotatedWith(JpaReadOnly.class)
+            .toProvider(Providers.<Map<?, ?>>of(readOnlyProperties));
+      }
+
+      bind(JpaPersistService.class).in(Singleton.class);
+
+      bind(unitKey(PersistService.class)).to(JpaPersistService.class);
+      bind(unitKey(UnitOfWork.class)).to(JpaPersistService.class);
+      bind(unitKey(EntityManager.class)).toProvider(JpaPersistService.class);
+      bind(unitKey(EntityManagerFactory.class))
+          .toProvider(JpaPersistService.EntityManagerFactoryProvider.class);
+
+      bind(JpaFinderProxy.class);
+      bind(unitKey(FinderCacheStats.class)).to(JpaFinderProxy.class);
+
+      expose(unitKey(PersistService.class));
+      expose(unitKey(UnitOfWork.class));
+      expose(unitKey(EntityManager.class));
+      expose(unitKey(EntityManagerFactory.class));
+      expose(unitKey(FinderCacheStats.class));
+
+      requestInjection(transactionInterceptor);
+
+      // Bind dynamic finders.
+      for (Class<?> finder : dynamicFinders) {
+        bindFinder(finder);
+      }
     }
 
-    InvocationHandler finderInvoker =
-        new InvocationHandler() {
-          @Inject JpaFinderProxy finderProxy;
-
-          @Override
-          public Object invoke(final Object thisObject, final Method method, final Object[] args)
-              throws Throwable {
-
-            // Don't intercept non-finder methods like equals and hashcode.
-            if (!method.isAnnotationPresent(Finder.class)) {
-              // NOTE(dhanji): This is not ideal, we are using the invocation handler's equals
-              // and hashcode as a proxy (!) for the proxy's equals and hashcode.
-              return method.invoke(this, args);
-            }
-
-            return finderProxy.invoke(
-                new MethodInvocation() {
-                  @Override
-                  public Method getMethod() {
-                    return method;
-                  }
-
-                  @Override
-                  public Object[] getArguments() {
-                    return null == args ? new Object[0] : args;
-                  }
-
-                  @Override
-                  public Object proceed() throws Throwable {
-                    return method.invoke(thisObject, args);
-                  }
-
-                  @Override
-                  public Object getThis() {
-                    throw new UnsupportedOperationException(
-                        "Bottomless proxies don't expose a this.");
-                  }
-
-                  @Override
-                  public AccessibleObject getStaticPart() {
-                    throw new UnsupportedOperationException();
-                  }
-                });
-          }
-        };
-    requestInjection(finderInvoker);
-
-    @SuppressWarnings("unchecked") // Proxy must produce instance of type given.
-    T proxy =
-        (T)
-            Proxy.newProxyInstance(
-                Thread.currentThread().getContextClassLoader(),
-                new Class<?>[] {iface},
-                finderInvoker);
-
-    bind(iface).toInstance(proxy);
-  }
+    private <T> void bindFinder(Class<T> iface) {
+      if (!isDynamicFinderValid(iface)) {
+        return;
+      }
+
+      InvocationHandler finderInvoker = new FinderInvoker(iface);
+      requestInjection(finderInvoker);
 
-  private boolean isDynamicFinderValid(Class<?> iface) {
-    boolean valid = true;
-    if (!iface.isInterface()) {
-      addError(iface + " is not an interface. Dynamic Finders must be interfaces.");
-      valid = false;
+      @SuppressWarnings("unchecked") // Proxy must produce instance of type given.
+      T proxy =
+          (T)
+              Proxy.newProxyInstance(
+                  Thread.currentThread().getContextClassLoader(),
+                  new Class<?>[] {iface},
+                  finderInvoker);
+
+      bind(iface).toInstance(proxy);
+      expose(iface);
     }
 
-    for (Method method : iface.getMethods()) {
-      DynamicFinder finder = DynamicFinder.from(method);
-      if (null == finder) {
-        addError(
-            "Dynamic Finder methods must be annotated with @Finder, but "
-                + iface
-                + "."
-                + method.getName()
-                + " was not");
+    private boolean isDynamicFinderValid(Class<?> iface) {
+      boolean valid = true;
+      if (!iface.isInterface()) {
+        addError(iface + " is not an interface. Dynamic Finders must be interfaces.");
         valid = false;
       }
+
+      for (Method method : iface.getMethods()) {
+        DynamicFinder finder = DynamicFinder.from(method);
+        if (null == finder) {
+          addError(
+              "Dynamic Finder methods must be annotated with @Finder, but "
+                  + iface
+                  + "."
+                  + method.getName()
+                  + " was not");
+          valid = false;
+        }
+      }
+      return valid;
+    }
+  }
+
+  /**
+   * Invokes the methods of a dynamic finder. The descriptor of each finder method is resolved once,
+   * when the finder is injected, so that calls neither reflect on the method nor look it up in the
+   * finder proxy's cache.
+   */
+  private static class FinderInvoker implements InvocationHandler {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Class<?> iface;
+    private JpaFinderProxy finderProxy;
+    private ImmutableMap<Method, JpaFinderProxy.FinderDescriptor> finderDescriptors;
+
+    FinderInvoker(Class<?> iface) {
+      this.iface = iface;
+    }
+
+    @Inject
+    void setFinderProxy(JpaFinderProxy finderProxy) {
+      ImmutableMap.Builder<Method, JpaFinderProxy.FinderDescriptor> finderDescriptors =
+          ImmutableMap.builder();
+      for (Method method : iface.getMethods()) {
+        finderDescriptors.put(method, finderProxy.getFinderDescriptor(method));
+      }
+      this.finderDescriptors = finderDescriptors.build();
+      this.finderProxy = finderProxy;
+    }
+
+    @Override
+    public Object invoke(Object thisObject, Method method, Object[] args) throws Throwable {
+      JpaFinderProxy.FinderDescriptor finderDescriptor = finderDescriptors.get(method);
+
+      // Don't intercept non-finder methods like equals and hashcode.
+      if (null == finderDescriptor) {
+        // NOTE(dhanji): This is not ideal, we are using the invocation handler's equals
+        // and hashcode as a proxy (!) for the proxy's equals and hashcode.
+        return method.invoke(this, args);
+      }
+
+      // Dispatch straight to the query, without wrapping the call in a MethodInvocation.
+      return finderProxy.invoke(finderDescriptor, null == args ? NO_ARGUMENTS : args);
     }
-    return valid;
   }
 }
@@ -37,6 +37,8 @@ import javax.persistence.Persistence;
 @Singleton
 class JpaPersistService implements Provider<EntityManager>, UnitOfWork, PersistService {
   private final ThreadLocal<EntityManager> entityManager = new ThreadLocal<EntityManager>();
+  private final ThreadLocal<EntityManager> readOnlyEntityManager =
+      new ThreadLocal<EntityManager>();
 
   private final String persistenceUnitName;
   private final Map<?, ?> persistenceProperties;
@@ -48,8 +50,23 @@ class JpaPersistService implements Provider<EntityManager>, UnitOfWork, PersistS
     this.persistenceProperties = persistenceProperties;
   }
 
+  private String readOnlyUnitName;
+  private Map<?, ?> readOnlyProperties;
+
+  @Inject(optional = true)
+  void setReadOnlyUnit(
+      @JpaReadOnly String readOnlyUnitName, @Nullable @JpaReadOnly Map<?, ?> readOnlyProperties) {
+    this.readOnlyUnitName = readOnlyUnitName;
+    this.readOnlyProperties = readOnlyProperties;
+  }
+
   @Override
   public EntityManager get() {
+    EntityManager readOnlyEm = readOnlyEntityManager.get();
+    if (null != readOnlyEm) {
+      return readOnlyEm;
+    }
+
     if (!isWorking()) {
       begin();
     }
@@ -94,7 +111,41 @@ class JpaPersistService implements Provider<EntityManager>, UnitOfWork, PersistS
     }
   }
 
+  /**
+   * Routes this thread's requests for an entity manager to a new entity manager of the read-only
+   * unit, until {@link #endReadOnly} is called. Does nothing and returns false if no read-only unit
+   * is configured.
+   */
+  boolean beginReadOnly() {
+    if (null == readOnlyEmFactory) {
+      return false;
+    }
+
+    Preconditions.checkState(
+        null == readOnlyEntityManager.get(), "Read-only work already begun on this thread.");
+    readOnlyEntityManager.set(readOnlyEmFactory.createEntityManager());
+    return true;
+  }
+
+  boolean isReadOnlyWorking() {
+    return readOnlyEntityManager.get() != null;
+  }
+
+  void endReadOnly() {
+    EntityManager em = readOnlyEntityManager.get();
+    if (null == em) {
+      return;
+    }
+
+    try {
+      em.close();
+    } finally {
+      readOnlyEntityManager.remove();
+    }
+  }
+
   private volatile EntityManagerFactory emFactory;
+  private volatile EntityManagerFactory readOnlyEmFactory;
 
   @VisibleForTesting
   synchronized void start(EntityManagerFactory emFactory) {
@@ -111,12 +162,24 @@ class JpaPersistService implements Provider<EntityManager>, UnitOfWork, PersistS
     } else {
       this.emFactory = Persistence.createEntityManagerFactory(persistenceUnitName);
     }
+
+    if (null != readOnlyUnitName) {
+      if (null != readOnlyProperties) {
+        this.readOnlyEmFactory =
+            Persistence.createEntityManagerFactory(readOnlyUnitName, readOnlyProperties);
+      } else {
+        this.readOnlyEmFactory = Persistence.createEntityManagerFactory(readOnlyUnitName);
+      }
+    }
   }
 
   @Override
   public synchronized void stop() {
     Preconditions.checkState(emFactory.isOpen(), "Persistence service was already shut down.");
     emFactory.close();
+    if (null != readOnlyEmFactory) {
+      readOnlyEmFactory.close();
+    }
   }
 
   @Singleton
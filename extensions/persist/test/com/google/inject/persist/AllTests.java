@@ -27,6 +27,8 @@ import com.google.inject.persist.jpa.ManagedLocalTransactionsAcrossRequestTest;
 import com.google.inject.persist.jpa.ManagedLocalTransactionsTest;
 import com.google.inject.persist.jpa.ManualLocalTransactionsTest;
 import com.google.inject.persist.jpa.ManualLocalTransactionsWithCustomMatcherTest;
+import com.google.inject.persist.jpa.MultiplePersistenceUnitsTest;
+import com.google.inject.persist.jpa.ReadOnlyTransactionsTest;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -37,6 +39,7 @@ public class AllTests {
     TestSuite suite = new TestSuite();
 
     suite.addTestSuite(EdslTest.class);
+    suite.addTestSuite(PersistFilterTest.class);
     suite.addTestSuite(ClassLevelManagedLocalTransactionsTest.class);
     suite.addTestSuite(CustomPropsEntityManagerFactoryProvisionTest.class);
     suite.addTestSuite(EntityManagerFactoryProvisionTest.class);
@@ -48,6 +51,8 @@ public class AllTests {
     suite.addTestSuite(ManagedLocalTransactionsTest.class);
     suite.addTestSuite(ManualLocalTransactionsTest.class);
     suite.addTestSuite(ManualLocalTransactionsWithCustomMatcherTest.class);
+    suite.addTestSuite(MultiplePersistenceUnitsTest.class);
+    suite.addTestSuite(ReadOnlyTransactionsTest.class);
 
     return suite;
   }
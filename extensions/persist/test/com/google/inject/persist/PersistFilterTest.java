@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.persist;
+
+import com.google.common.collect.Lists;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import java.util.List;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import junit.framework.TestCase;
+
+public class PersistFilterTest extends TestCase {
+  private final List<String> calls = Lists.newArrayList();
+
+  public void testFilterManagesUnitBoundWithoutPersistModule() throws Exception {
+    PersistFilter filter =
+        Guice.createInjector(
+                new AbstractModule() {
+                  @Override
+                  protected void configure() {
+                    bind(UnitOfWork.class).toInstance(new RecordingUnit());
+                    bind(PersistService.class).toInstance(new RecordingUnit());
+                  }
+                })
+            .getInstance(PersistFilter.class);
+
+    filter.init(null);
+    filter.doFilter(
+        null,
+        null,
+        new FilterChain() {
+          @Override
+          public void doFilter(ServletRequest request, ServletResponse response) {
+            calls.add("doFilter");
+          }
+        });
+    filter.destroy();
+    assertEquals(Lists.newArrayList("start", "begin", "doFilter", "end", "stop"), calls);
+  }
+
+  private class RecordingUnit implements UnitOfWork, PersistService {
+    @Override
+    public void begin() {
+      calls.add("begin");
+    }
+
+    @Override
+    public void end() {
+      calls.add("end");
+    }
+
+    @Override
+    public void start() {
+      calls.add("start");
+    }
+
+    @Override
+    public void stop() {
+      calls.add("stop");
+    }
+  }
+}
@@ -22,13 +22,21 @@ import com.google.inject.Injector;
 import com.google.inject.Provider;
 import com.google.inject.persist.PersistService;
 import com.google.inject.persist.Transactional;
+import com.google.inject.persist.UnitOfWork;
 import com.google.inject.persist.finder.Finder;
+import com.google.inject.persist.finder.FinderCacheStats;
+import com.google.inject.persist.finder.FirstResult;
+import com.google.inject.persist.finder.MaxResults;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Properties;
 import java.util.UUID;
 import javax.persistence.EntityManager;
 import junit.framework.TestCase;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 
 /**
  * A test around providing sessions (starting, closing etc.)
@@ -41,7 +49,11 @@ public class DynamicFinderTest extends TestCase {
 
   @Override
   public void setUp() {
-    injector = Guice.createInjector(new JpaPersistModule("testUnit").addFinder(JpaFinder.class));
+    Properties properties = new Properties();
+    properties.setProperty("hibernate.generate_statistics", "true");
+    injector =
+        Guice.createInjector(
+            new JpaPersistModule("testUnit").properties(properties).addFinder(JpaFinder.class));
 
     //startup persistence
     injector.getInstance(PersistService.class).start();
@@ -74,9 +86,191 @@ public class DynamicFinderTest extends TestCase {
     assertEquals(te, list.get(0));
   }
 
+  public void testDynamicFinderIteratesInChunks() {
+    JpaDao dao = injector.getInstance(JpaDao.class);
+    List<JpaTestEntity> persisted = new ArrayList<JpaTestEntity>();
+    for (int i = 0; i < 5; i++) {
+      JpaTestEntity te = new JpaTestEntity();
+      te.setText("chunk" + i);
+      dao.persist(te);
+      persisted.add(te);
+    }
+
+    List<JpaTestEntity> iterated = new ArrayList<JpaTestEntity>();
+    Iterator<JpaTestEntity> iterator = injector.getInstance(JpaFinder.class).iterateAll();
+    while (iterator.hasNext()) {
+      iterated.add(iterator.next());
+    }
+    assertEquals(persisted, iterated);
+
+    iterated.clear();
+    iterator = injector.getInstance(JpaFinder.class).iteratePage(1, 3);
+    while (iterator.hasNext()) {
+      iterated.add(iterator.next());
+    }
+    assertEquals(persisted.subList(1, 4), iterated);
+  }
+
+  public void testDynamicFinderIteratesByIdDespiteRemovals() {
+    JpaDao dao = injector.getInstance(JpaDao.class);
+    List<JpaTestEntity> persisted = new ArrayList<JpaTestEntity>();
+    for (int i = 0; i < 5; i++) {
+      JpaTestEntity te = new JpaTestEntity();
+      te.setText("chunk" + i);
+      dao.persist(te);
+      persisted.add(te);
+    }
+
+    List<JpaTestEntity> iterated = new ArrayList<JpaTestEntity>();
+    Iterator<JpaTestEntity> iterator = injector.getInstance(JpaFinder.class).iterateAll();
+    iterated.add(iterator.next());
+    iterated.add(iterator.next());
+
+    // Paging by offset would now skip the third entity.
+    dao.remove(iterated.get(0));
+    while (iterator.hasNext()) {
+      iterated.add(iterator.next());
+    }
+    assertEquals(persisted, iterated);
+  }
+
+  public void testDynamicFinderLetsGoOfIteratedChunks() {
+    JpaDao dao = injector.getInstance(JpaDao.class);
+    for (int i = 0; i < 3; i++) {
+      JpaTestEntity te = new JpaTestEntity();
+      te.setText("chunk" + i);
+      dao.persist(te);
+    }
+
+    EntityManager em = injector.getInstance(EntityManager.class);
+    Iterator<JpaTestEntity> iterator = injector.getInstance(JpaFinder.class).iterateAll();
+    JpaTestEntity first = iterator.next();
+    iterator.next();
+    assertTrue(em.contains(first));
+    JpaTestEntity third = iterator.next();
+    assertFalse(em.contains(first));
+    assertTrue(em.contains(third));
+  }
+
+  public void testDynamicFinderCachesResultsUntilCommit() throws Exception {
+    JpaDao dao = injector.getInstance(JpaDao.class);
+    JpaTestEntity first = new JpaTestEntity();
+    first.setText("cached");
+    dao.persist(first);
+
+    JpaFinder finder = injector.getInstance(JpaFinder.class);
+    assertEquals(1, finder.listAllCached().size());
+    assertEquals(1, finder.listAllCached().size());
+
+    FinderCacheStats cacheStats = injector.getInstance(FinderCacheStats.class);
+    assertEquals(1, cacheStats.stats(JpaFinder.class.getMethod("listAllCached")).hitCount());
+    assertEquals(1, cacheStats.stats(JpaFinder.class.getMethod("listAllCached")).missCount());
+    assertNull(cacheStats.stats(JpaFinder.class.getMethod("listAll")));
+
+    // Committing a transaction discards the cached results.
+    JpaTestEntity second = new JpaTestEntity();
+    second.setText("cached");
+    dao.persist(second);
+    assertEquals(2, finder.listAllCached().size());
+    assertEquals(2, cacheStats.stats(JpaFinder.class.getMethod("listAllCached")).missCount());
+  }
+
+  public void testCachedEntitiesAreFoundAgainInEachUnitOfWork() throws Exception {
+    JpaTestEntity entity = new JpaTestEntity();
+    entity.setText("cached");
+    injector.getInstance(JpaDao.class).persist(entity);
+
+    JpaFinder finder = injector.getInstance(JpaFinder.class);
+    UnitOfWork unitOfWork = injector.getInstance(UnitOfWork.class);
+    unitOfWork.end();
+    unitOfWork.begin();
+    JpaTestEntity queried = finder.listAllCached().get(0);
+    unitOfWork.end();
+
+    unitOfWork.begin();
+    JpaTestEntity cached = finder.listAllCached().get(0);
+    FinderCacheStats cacheStats = injector.getInstance(FinderCacheStats.class);
+    assertEquals(1, cacheStats.stats(JpaFinder.class.getMethod("listAllCached")).hitCount());
+    assertNotSame(queried, cached);
+    assertEquals(queried, cached);
+    assertTrue(injector.getInstance(EntityManager.class).contains(cached));
+    unitOfWork.end();
+  }
+
+  public void testCachedEntitiesAreFoundAgainWithOneQuery() throws Exception {
+    JpaDao dao = injector.getInstance(JpaDao.class);
+    for (int i = 0; i < 3; i++) {
+      JpaTestEntity entity = new JpaTestEntity();
+      entity.setText("cached" + i);
+      dao.persist(entity);
+    }
+
+    JpaFinder finder = injector.getInstance(JpaFinder.class);
+    UnitOfWork unitOfWork = injector.getInstance(UnitOfWork.class);
+    unitOfWork.end();
+    unitOfWork.begin();
+    assertEquals(3, finder.listAllCached().size());
+    unitOfWork.end();
+
+    unitOfWork.begin();
+    Statistics statistics =
+        ((Session) injector.getInstance(EntityManager.class).getDelegate())
+            .getSessionFactory()
+            .getStatistics();
+    statistics.clear();
+    assertEquals(3, finder.listAllCached().size());
+    FinderCacheStats cacheStats = injector.getInstance(FinderCacheStats.class);
+    assertEquals(1, cacheStats.stats(JpaFinder.class.getMethod("listAllCached")).hitCount());
+    assertEquals(1, statistics.getPrepareStatementCount());
+    unitOfWork.end();
+  }
+
+  public void testCommitsOnlyDiscardResultsOfFindersQueryingWrittenTypes() throws Exception {
+    JpaFinder finder = injector.getInstance(JpaFinder.class);
+    assertEquals(0, finder.listAllCached().size());
+    assertEquals(0, finder.listAllCachedByName().size());
+
+    injector.getInstance(JpaDao.class).persist(new JpaParentTestEntity());
+    assertEquals(0, finder.listAllCached().size());
+    assertEquals(0, finder.listAllCachedByName().size());
+
+    FinderCacheStats cacheStats = injector.getInstance(FinderCacheStats.class);
+    assertEquals(1, cacheStats.stats(JpaFinder.class.getMethod("listAllCached")).hitCount());
+    // Named queries could read any entity type.
+    assertEquals(0, cacheStats.stats(JpaFinder.class.getMethod("listAllCachedByName")).hitCount());
+  }
+
+  public void testCachedResultsCanBeInvalidatedAfterManualCommits() {
+    JpaFinder finder = injector.getInstance(JpaFinder.class);
+    assertEquals(0, finder.listAllCached().size());
+
+    EntityManager em = injector.getInstance(EntityManager.class);
+    JpaTestEntity entity = new JpaTestEntity();
+    entity.setText("cached");
+    em.getTransaction().begin();
+    em.persist(entity);
+    em.getTransaction().commit();
+    assertEquals(0, finder.listAllCached().size());
+
+    injector.getInstance(FinderCacheStats.class).invalidateAll();
+    assertEquals(1, finder.listAllCached().size());
+  }
+
   public static interface JpaFinder {
     @Finder(query = "from JpaTestEntity", returnAs = ArrayList.class)
     public List<JpaTestEntity> listAll();
+
+    @Finder(query = "from JpaTestEntity order by id", fetchSize = 2)
+    public Iterator<JpaTestEntity> iterateAll();
+
+    @Finder(query = "from JpaTestEntity order by id", fetchSize = 2)
+    public Iterator<JpaTestEntity> iteratePage(@FirstResult int first, @MaxResults int max);
+
+    @Finder(query = "from JpaTestEntity", returnAs = ArrayList.class, cacheSeconds = 60)
+    public List<JpaTestEntity> listAllCached();
+
+    @Finder(namedQuery = "JpaTestEntity.all", returnAs = ArrayList.class, cacheSeconds = 60)
+    public List<JpaTestEntity> listAllCachedByName();
   }
 
   public static class JpaDao {
@@ -98,6 +292,11 @@ public class DynamicFinderTest extends TestCase {
       assertTrue("Persisting object failed", lastEm.contains(t));
     }
 
+    @Transactional
+    public <T> void remove(T t) {
+      em.get().remove(t);
+    }
+
     @Transactional
     public <T> boolean contains(T t) {
       if (null == lastEm) {
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2016 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.persist.jpa;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import com.google.inject.BindingAnnotation;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.persist.PersistFilter;
+import com.google.inject.persist.PersistService;
+import com.google.inject.persist.Transactional;
+import com.google.inject.persist.UnitOfWork;
+import com.google.inject.persist.finder.Finder;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import junit.framework.TestCase;
+
+public class MultiplePersistenceUnitsTest extends TestCase {
+  private static final String UNIQUE_TEXT = "multiple units text" + new Date();
+
+  @Retention(RUNTIME)
+  @Target({FIELD, PARAMETER, METHOD, TYPE})
+  @BindingAnnotation
+  @interface Second {}
+
+  @Retention(RUNTIME)
+  @Target({FIELD, PARAMETER, METHOD, TYPE})
+  @BindingAnnotation
+  @interface Unrelated {}
+
+  private Injector injector;
+
+  @Override
+  public void setUp() {
+    injector =
+        Guice.createInjector(
+            new JpaPersistModule("testUnit"),
+            new JpaPersistModule("testSecondUnit", Second.class).addFinder(SecondFinder.class));
+
+    injector.getInstance(PersistService.class).start();
+    injector.getInstance(Key.get(PersistService.class, Second.class)).start();
+  }
+
+  @Override
+  public final void tearDown() {
+    injector.getInstance(UnitOfWork.class).end();
+    injector.getInstance(Key.get(UnitOfWork.class, Second.class)).end();
+    injector.getInstance(PersistService.class).stop();
+    injector.getInstance(Key.get(PersistService.class, Second.class)).stop();
+  }
+
+  public void testUnitsAreIndependent() {
+    TransactionalObject object = injector.getInstance(TransactionalObject.class);
+    object.persist(UNIQUE_TEXT);
+    assertEquals(1, object.find(UNIQUE_TEXT).size());
+    assertTrue(object.findInSecond(UNIQUE_TEXT).isEmpty());
+    assertTrue(injector.getInstance(SecondFinder.class).findAll().isEmpty());
+
+    SecondTransactionalObject second = injector.getInstance(SecondTransactionalObject.class);
+    second.persist(UNIQUE_TEXT);
+    assertEquals(1, object.find(UNIQUE_TEXT).size());
+    assertEquals(1, object.findInSecond(UNIQUE_TEXT).size());
+    assertEquals(1, injector.getInstance(SecondFinder.class).findAll().size());
+  }
+
+  public void testQualifiedTransactionCommitsOnlyItsUnit() {
+    injector.getInstance(TransactionalObject.class).persistInBoth(UNIQUE_TEXT);
+
+    EntityManager em = injector.getInstance(EntityManager.class);
+    EntityManager secondEm = injector.getInstance(Key.get(EntityManager.class, Second.class));
+    assertFalse(em.getTransaction().isActive());
+    assertFalse(secondEm.getTransaction().isActive());
+    assertEquals(1, injector.getInstance(TransactionalObject.class).find(UNIQUE_TEXT).size());
+    assertEquals(1, injector.getInstance(SecondFinder.class).findAll().size());
+  }
+
+  public void testUnrelatedBindingAnnotationsDoNotChangeTheUnit() {
+    injector.getInstance(TransactionalObject.class).persistWithUnrelatedAnnotation(UNIQUE_TEXT);
+    assertEquals(1, injector.getInstance(TransactionalObject.class).find(UNIQUE_TEXT).size());
+
+    injector.getInstance(UnrelatedTransactionalObject.class).persist(UNIQUE_TEXT);
+    assertEquals(2, injector.getInstance(TransactionalObject.class).find(UNIQUE_TEXT).size());
+  }
+
+  public void testPersistFilterManagesEveryUnit() throws Exception {
+    injector.getInstance(UnitOfWork.class).end();
+    injector.getInstance(Key.get(UnitOfWork.class, Second.class)).end();
+
+    final EntityManager[] ems = new EntityManager[2];
+    injector
+        .getInstance(PersistFilter.class)
+        .doFilter(
+            null,
+            null,
+            new FilterChain() {
+              @Override
+              public void doFilter(ServletRequest request, ServletResponse response) {
+                ems[0] = injector.getInstance(EntityManager.class);
+                ems[1] = injector.getInstance(Key.get(EntityManager.class, Second.class));
+                assertSame(ems[0], injector.getInstance(EntityManager.class));
+                assertSame(
+                    ems[1], injector.getInstance(Key.get(EntityManager.class, Second.class)));
+              }
+            });
+
+    assertFalse(ems[0].isOpen());
+    assertFalse(ems[1].isOpen());
+  }
+
+  public static interface SecondFinder {
+    @Finder(query = "from JpaTestEntity", returnAs = ArrayList.class)
+    List<JpaTestEntity> findAll();
+  }
+
+  public static class TransactionalObject {
+    private final Provider<EntityManager> em;
+    private final Provider<EntityManager> secondEm;
+    private final SecondTransactionalObject second;
+
+    @Inject
+    public TransactionalObject(
+        Provider<EntityManager> em,
+        @Second Provider<EntityManager> secondEm,
+        SecondTransactionalObject second) {
+      this.em = em;
+      this.secondEm = secondEm;
+      this.second = second;
+    }
+
+    @Transactional
+    public void persist(String text) {
+      JpaTestEntity entity = new JpaTestEntity();
+      entity.setText(text);
+      em.get().persist(entity);
+    }
+
+    @Transactional
+    public void persistInBoth(String text) {
+      persist(text);
+      second.persist(text);
+      assertTrue(em.get().getTransaction().isActive());
+      assertFalse(secondEm.get().getTransaction().isActive());
+    }
+
+    @Transactional
+    public List<?> find(String text) {
+      return em.get()
+          .createQuery("from JpaTestEntity where text = :text")
+          .setParameter("text", text)
+          .getResultList();
+    }
+
+    @Transactional
+    @Unrelated
+    public void persistWithUnrelatedAnnotation(String text) {
+      assertTrue(em.get().getTransaction().isActive());
+      persist(text);
+    }
+
+    @Transactional
+    @Second
+    public List<?> findInSecond(String text) {
+      return secondEm
+          .get()
+          .createQuery("from JpaTestEntity where text = :text")
+          .setParameter("text", text)
+          .getResultList();
+    }
+  }
+
+  @Unrelated
+  public static class UnrelatedTransactionalObject {
+    @Inject Provider<EntityManager> em;
+
+    @Transactional
+    public void persist(String text) {
+      assertTrue(em.get().getTransaction().isActive());
+      JpaTestEntity entity = new JpaTestEntity();
+      entity.setText(text);
+      em.get().persist(entity);
+    }
+  }
+
+  @Second
+  public static class SecondTransactionalObject {
+    @Inject @Second Provider<EntityManager> em;
+
+    @Transactional
+    public void persist(String text) {
+      JpaTestEntity entity = new JpaTestEntity();
+      entity.setText(text);
+      em.get().persist(entity);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2016 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.persist.jpa;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.persist.PersistService;
+import com.google.inject.persist.Transactional;
+import com.google.inject.persist.UnitOfWork;
+import java.util.Date;
+import java.util.List;
+import javax.persistence.EntityManager;
+import junit.framework.TestCase;
+
+public class ReadOnlyTransactionsTest extends TestCase {
+  private static final String UNIQUE_TEXT = "read only text" + new Date();
+
+  private Injector injector;
+
+  @Override
+  public void setUp() {
+    injector =
+        Guice.createInjector(new JpaPersistModule("testUnit").readOnlyUnit("testReadOnlyUnit"));
+
+    //startup persistence
+    injector.getInstance(PersistService.class).start();
+  }
+
+  @Override
+  public final void tearDown() {
+    injector.getInstance(UnitOfWork.class).end();
+    injector.getInstance(PersistService.class).stop();
+  }
+
+  public void testReadOnlyTransactionUsesReadOnlyUnit() {
+    TransactionalObject object = injector.getInstance(TransactionalObject.class);
+    object.persist(UNIQUE_TEXT);
+    assertEquals(1, object.find(UNIQUE_TEXT).size());
+
+    // The read-only unit is a separate database, which never saw the write.
+    assertTrue(object.findReadOnly(UNIQUE_TEXT).isEmpty());
+  }
+
+  public void testReadOnlyTransactionDiscardsWrites() {
+    TransactionalObject object = injector.getInstance(TransactionalObject.class);
+    object.persistReadOnly(UNIQUE_TEXT);
+    assertTrue(object.findReadOnly(UNIQUE_TEXT).isEmpty());
+    assertTrue(object.find(UNIQUE_TEXT).isEmpty());
+  }
+
+  public void testReadWriteTransactionCannotRunInReadOnlyTransaction() {
+    TransactionalObject object = injector.getInstance(TransactionalObject.class);
+    try {
+      object.persistFromReadOnly(UNIQUE_TEXT);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains("read-only transaction"));
+    }
+    assertTrue(object.find(UNIQUE_TEXT).isEmpty());
+  }
+
+  public void testReadOnlyTransactionJoinsEnclosingTransaction() {
+    TransactionalObject object = injector.getInstance(TransactionalObject.class);
+    assertEquals(1, object.persistThenFindReadOnly(UNIQUE_TEXT).size());
+  }
+
+  public void testReadOnlyTransactionWithoutReadOnlyUnit() {
+    injector.getInstance(PersistService.class).stop();
+    injector = Guice.createInjector(new JpaPersistModule("testUnit"));
+    injector.getInstance(PersistService.class).start();
+
+    TransactionalObject object = injector.getInstance(TransactionalObject.class);
+    object.persist(UNIQUE_TEXT);
+    assertEquals(1, object.findReadOnly(UNIQUE_TEXT).size());
+
+    object.persistReadOnly(UNIQUE_TEXT);
+    assertEquals(1, object.find(UNIQUE_TEXT).size());
+
+    try {
+      object.persistFromReadOnly(UNIQUE_TEXT);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains("read-only transaction"));
+    }
+    assertEquals(1, object.find(UNIQUE_TEXT).size());
+  }
+
+  public static class TransactionalObject {
+    private final Provider<EntityManager> em;
+
+    @Inject
+    public TransactionalObject(Provider<EntityManager> em) {
+      this.em = em;
+    }
+
+    @Transactional
+    public void persist(String text) {
+      doPersist(text);
+    }
+
+    @Transactional(readOnly = true)
+    public void persistReadOnly(String text) {
+      doPersist(text);
+    }
+
+    @Transactional(readOnly = true)
+    public void persistFromReadOnly(String text) {
+      persist(text);
+    }
+
+    @Transactional
+    public List<?> find(String text) {
+      return doFind(text);
+    }
+
+    @Transactional(readOnly = true)
+    public List<?> findReadOnly(String text) {
+      return doFind(text);
+    }
+
+    @Transactional
+    public List<?> persistThenFindReadOnly(String text) {
+      persist(text);
+      return findReadOnly(text);
+    }
+
+    void doPersist(String text) {
+      JpaTestEntity entity = new JpaTestEntity();
+      entity.setText(text);
+      em.get().persist(entity);
+    }
+
+    List<?> doFind(String text) {
+      return em.get()
+          .createQuery("from JpaTestEntity where text = :text")
+          .setParameter("text", text)
+          .getResultList();
+    }
+  }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.producers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Binder;
+import com.google.inject.Exposed;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.PrivateBinder;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.google.inject.binder.ScopedBindingBuilder;
+import com.google.inject.internal.util.StackTraceElements;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.ProviderWithDependencies;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A provider that starts a producer method once its inputs are available and returns the future
+ * of its result.
+ *
+ * <p>Each request for a producer's future starts a production: the graph of producers it needs,
+ * in which every producer runs at most once. Producers needed by several others in the same
+ * graph share one future even when they are unscoped.
+ */
+class ProducerMethod<T> implements ProviderWithDependencies<ListenableFuture<T>> {
+  /**
+   * The futures of the producers started by the production being started on this thread, or null
+   * if there is none. Inputs are requested on the calling thread, so the producers of one graph
+   * are all started before the request that started it returns.
+   */
+  private static final ThreadLocal<Map<ProducerMethod<?>, ListenableFuture<?>>> production =
+      new ThreadLocal<Map<ProducerMethod<?>, ListenableFuture<?>>>();
+
+  private final Key<ListenableFuture<T>> key;
+  private final Class<? extends Annotation> scopeAnnotation;
+  private final Object instance;
+  private final Method method;
+  private final boolean returnsFuture;
+  private final ImmutableList<Key<?>> parameterKeys;
+  private final ImmutableSet<Dependency<?>> dependencies;
+  private final Provider<Executor> executorProvider;
+  private final boolean exposed;
+
+  /**
+   * Whether this producer is a singleton. Singletons are memoized here rather than by their scope,
+   * which would keep a failed future forever.
+   */
+  private final boolean singleton;
+
+  /** The future of this singleton's last run; guarded by {@code this}. */
+  private ListenableFuture<T> singletonFuture;
+
+  /** Providers of each parameter, or of its future if the parameter is produced. */
+  private List<Provider<?>> parameterProviders;
+
+  /** Whether each parameter is produced and must be awaited before the method runs. */
+  private boolean[] awaited;
+
+  ProducerMethod(
+      Key<ListenableFuture<T>> key,
+      Method method,
+      Object instance,
+      boolean returnsFuture,
+      ImmutableList<Key<?>> parameterKeys,
+      ImmutableSet<Dependency<?>> dependencies,
+      Provider<Executor> executorProvider,
+      Class<? extends Annotation> scopeAnnotation) {
+    this.key = key;
+    this.scopeAnnotation = scopeAnnotation;
+    this.instance = instance;
+    this.method = method;
+    this.returnsFuture = returnsFuture;
+    this.parameterKeys = parameterKeys;
+    this.dependencies = dependencies;
+    this.executorProvider = executorProvider;
+    this.exposed = method.isAnnotationPresent(Exposed.class);
+    this.singleton =
+        scopeAnnotation == Singleton.class || scopeAnnotation == javax.inject.Singleton.class;
+
+    method.setAccessible(true);
+  }
+
+  void configure(Binder binder) {
+    binder = binder.withSource(method);
+
+    ScopedBindingBuilder sbbuilder = binder.bind(key).toProvider(this);
+    if (scopeAnnotation != null && !singleton) {
+      sbbuilder.in(scopeAnnotation);
+    }
+
+    if (exposed) {
+      // the cast is safe 'cause the only binder we have implements PrivateBinder. If there's a
+      // misplaced @Exposed, calling this will add an error to the binder's error queue
+      ((PrivateBinder) binder).expose(key);
+    }
+  }
+
+  /**
+   * Decides how to supply each parameter. Other modules may produce the values this method
+   * consumes, so this can only be done once all bindings are known.
+   */
+  @Inject
+  void initialize(Injector injector) {
+    List<Provider<?>> providers = Lists.newArrayListWithCapacity(parameterKeys.size());
+    boolean[] produced = new boolean[parameterKeys.size()];
+    for (int i = 0; i < parameterKeys.size(); i++) {
+      Key<?> parameterKey = parameterKeys.get(i);
+      Key<?> futureKey = parameterKey.ofType(futureOf(parameterKey));
+      if (parameterKey.getTypeLiteral().getRawType() != ListenableFuture.class
+          && injector.getExistingBinding(futureKey) != null) {
+        providers.add(injector.getProvider(futureKey));
+        produced[i] = true;
+      } else {
+        providers.add(injector.getProvider(parameterKey));
+      }
+    }
+    this.parameterProviders = providers;
+    this.awaited = produced;
+  }
+
+  private static Type futureOf(Key<?> key) {
+    return ProducerMethodsModule.futureOf(key.getTypeLiteral().getType());
+  }
+
+  /**
+   * Returns this producer's future in the current production, starting a new production if there
+   * is none.
+   */
+  @Override
+  public ListenableFuture<T> get() {
+    Map<ProducerMethod<?>, ListenableFuture<?>> started = production.get();
+    if (started != null) {
+      return getOrStart(started);
+    }
+
+    started = Maps.newIdentityHashMap();
+    production.set(started);
+    try {
+      return getOrStart(started);
+    } finally {
+      production.remove();
+    }
+  }
+
+  private ListenableFuture<T> getOrStart(Map<ProducerMethod<?>, ListenableFuture<?>> started) {
+    // We know this cast is safe because only this producer's future is stored under this key.
+    @SuppressWarnings("unchecked")
+    ListenableFuture<T> future = (ListenableFuture<T>) started.get(this);
+    if (future == null) {
+      future = singleton ? getOrStartSingleton() : start();
+      started.put(this, future);
+    }
+    return future;
+  }
+
+  /** Returns the singleton's future, starting it again if its last run failed. */
+  private synchronized ListenableFuture<T> getOrStartSingleton() {
+    if (singletonFuture == null || hasFailed(singletonFuture)) {
+      singletonFuture = start();
+    }
+    return singletonFuture;
+  }
+
+  private static boolean hasFailed(ListenableFuture<?> future) {
+    if (!future.isDone()) {
+      return false;
+    }
+    try {
+      Uninterruptibles.getUninterruptibly(future);
+      return false;
+    } catch (ExecutionException e) {
+      return true;
+    } catch (CancellationException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Starts this producer. Inputs are requested on the calling thread so that scoped inputs resolve
+   * in the caller's scope; the method itself runs on the executor once the produced inputs are
+   * done.
+   */
+  private ListenableFuture<T> start() {
+    final Object[] parameters = new Object[parameterProviders.size()];
+    List<ListenableFuture<?>> inputs = Lists.newArrayList();
+    for (int i = 0; i < parameters.length; i++) {
+      Object value = parameterProviders.get(i).get();
+      if (awaited[i]) {
+        inputs.add((ListenableFuture<?>) value);
+      } else {
+        parameters[i] = value;
+      }
+    }
+
+    return Futures.transformAsync(
+        Futures.<Object>allAsList(inputs),
+        new AsyncFunction<List<Object>, T>() {
+          @Override
+          public ListenableFuture<T> apply(List<Object> values) throws Exception {
+            int next = 0;
+            for (int i = 0; i < parameters.length; i++) {
+              if (awaited[i]) {
+                parameters[i] = values.get(next++);
+              }
+            }
+            return invoke(parameters);
+          }
+        },
+        executorProvider.get());
+  }
+
+  private ListenableFuture<T> invoke(Object[] parameters) throws Exception {
+    Object result;
+    try {
+      result = method.invoke(instance, parameters);
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    } catch (InvocationTargetException e) {
+      Throwable t = e.getCause();
+      if (t instanceof Exception) {
+        throw (Exception) t;
+      } else if (t instanceof Error) {
+        throw (Error) t;
+      } else {
+        throw new IllegalStateException(t);
+      }
+    }
+
+    if (!returnsFuture) {
+      // We know this cast is safe becase T is the method's return type.
+      @SuppressWarnings("unchecked")
+      T value = (T) result;
+      return Futures.immediateFuture(value);
+    }
+    if (result == null) {
+      throw new NullPointerException(this + " returned a null future");
+    }
+    // We know this cast is safe becase the method returns ListenableFuture<T>.
+    @SuppressWarnings("unchecked")
+    ListenableFuture<T> future = (ListenableFuture<T>) result;
+    return future;
+  }
+
+  @Override
+  public Set<Dependency<?>> getDependencies() {
+    return dependencies;
+  }
+
+  @Override
+  public String toString() {
+    return "@Produces " + StackTraceElements.forMember(method);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.producers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Primitives;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Binder;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
+import com.google.inject.internal.Annotations;
+import com.google.inject.internal.Errors;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.Message;
+import com.google.inject.util.Modules;
+import com.google.inject.util.Types;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates bindings to methods annotated with {@literal @}{@link Produces}. Use the scope and
+ * binding annotations on the producer method to configure the binding.
+ */
+final class ProducerMethodsModule implements Module {
+  static final Key<Executor> EXECUTOR_KEY = Key.get(Executor.class, ProductionExecutor.class);
+
+  private final Object delegate;
+  private final TypeLiteral<?> typeLiteral;
+
+  private ProducerMethodsModule(Object delegate) {
+    this.delegate = checkNotNull(delegate, "delegate");
+    this.typeLiteral = TypeLiteral.get(this.delegate.getClass());
+  }
+
+  /** Returns a module which creates bindings for producer methods from the given module. */
+  static Module forModule(Module module) {
+    // avoid infinite recursion, since installing a module always installs itself
+    if (module instanceof ProducerMethodsModule) {
+      return Modules.EMPTY_MODULE;
+    }
+
+    return new ProducerMethodsModule(module);
+  }
+
+  @Override
+  public synchronized void configure(Binder binder) {
+    for (ProducerMethod<?> producerMethod : getProducerMethods(binder)) {
+      producerMethod.configure(binder);
+    }
+  }
+
+  List<ProducerMethod<?>> getProducerMethods(Binder binder) {
+    List<ProducerMethod<?>> result = Lists.newArrayList();
+    for (Class<?> c = delegate.getClass(); c != Object.class; c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        if (method.isAnnotationPresent(Produces.class)) {
+          result.add(createProducerMethod(binder, method));
+        }
+      }
+    }
+    return result;
+  }
+
+  <T> ProducerMethod<T> createProducerMethod(Binder binder, Method method) {
+    binder = binder.withSource(method);
+    Errors errors = new Errors(method);
+
+    List<Key<?>> parameterKeys = Lists.newArrayList();
+    List<Dependency<?>> dependencies = Lists.newArrayList();
+    List<TypeLiteral<?>> parameterTypes = typeLiteral.getParameterTypes(method);
+    Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      Key<?> key = getKey(errors, parameterTypes.get(i), method, parameterAnnotations[i]);
+      parameterKeys.add(key);
+      dependencies.add(Dependency.get(key));
+    }
+    dependencies.add(Dependency.get(EXECUTOR_KEY));
+
+    TypeLiteral<?> returnType = typeLiteral.getReturnType(method);
+    boolean returnsFuture = returnType.getRawType() == ListenableFuture.class;
+    Type valueType = returnType.getType();
+    if (returnsFuture) {
+      if (valueType instanceof ParameterizedType) {
+        valueType = ((ParameterizedType) valueType).getActualTypeArguments()[0];
+      } else {
+        errors.addMessage("@Produces method %s must not return a raw ListenableFuture", method);
+      }
+    } else if (valueType == void.class) {
+      errors.addMessage("@Produces method %s must return a value", method);
+    }
+
+    @SuppressWarnings("unchecked") // Define T as the type of the method's produced value.
+    TypeLiteral<ListenableFuture<T>> futureType =
+        (TypeLiteral<ListenableFuture<T>>) TypeLiteral.get(futureOf(valueType));
+    Key<ListenableFuture<T>> key = getKey(errors, futureType, method, method.getAnnotations());
+    Class<? extends Annotation> scopeAnnotation =
+        Annotations.findScopeAnnotation(errors, method.getAnnotations());
+
+    for (Message message : errors.getMessages()) {
+      binder.addError(message);
+    }
+
+    return new ProducerMethod<T>(
+        key,
+        method,
+        delegate,
+        returnsFuture,
+        ImmutableList.copyOf(parameterKeys),
+        ImmutableSet.copyOf(dependencies),
+        binder.getProvider(EXECUTOR_KEY),
+        scopeAnnotation);
+  }
+
+  /** Returns the type of a {@code ListenableFuture} of {@code type}. */
+  static Type futureOf(Type type) {
+    if (type instanceof Class) {
+      type = Primitives.wrap((Class<?>) type);
+    }
+    return Types.newParameterizedType(ListenableFuture.class, type);
+  }
+
+  <T> Key<T> getKey(Errors errors, TypeLiteral<T> type, Member member, Annotation[] annotations) {
+    Annotation bindingAnnotation = Annotations.findBindingAnnotation(errors, member, annotations);
+    return bindingAnnotation == null ? Key.get(type) : Key.get(type, bindingAnnotation);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ProducerMethodsModule && ((ProducerMethodsModule) o).delegate == delegate;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.producers;
+
+import com.google.inject.Module;
+
+/**
+ * Static utility methods for installing {@literal @}{@link Produces} methods.
+ *
+ * <p>A producer binding is a node in a graph of asynchronous computations. Each node is bound as a
+ * {@code ListenableFuture<T>} and starts as soon as the nodes it depends on complete, so
+ * independent nodes run concurrently and the whole graph finishes in the time of its critical path.
+ * For example, given
+ *
+ * <pre>
+ * class SearchProducers extends AbstractModule {
+ *   protected void configure() {}
+ *
+ *   {@literal @}Produces ListenableFuture&lt;Profile&gt; profile(UserId id, ProfileService s) {
+ *     return s.fetch(id);
+ *   }
+ *
+ *   {@literal @}Produces ListenableFuture&lt;History&gt; history(UserId id, HistoryService s) {
+ *     return s.fetch(id);
+ *   }
+ *
+ *   {@literal @}Produces Results results(Profile profile, History history) {
+ *     return rank(profile, history);
+ *   }
+ * }</pre>
+ *
+ * installing {@code Producers.forModule(new SearchProducers())} binds {@code
+ * ListenableFuture<Profile>}, {@code ListenableFuture<History>} and {@code
+ * ListenableFuture<Results>}. Injecting the last one starts both fetches at once and ranks the
+ * results when both have arrived.
+ *
+ * <p>Each request for a produced future, such as injecting {@code ListenableFuture<Results>}
+ * above, starts one production. A production runs each producer it needs at most once, so a node
+ * that several others consume is shared within it without being scoped. The next request starts a
+ * new production, which runs the unscoped producers again. {@literal @}{@link
+ * com.google.inject.Singleton Singleton} producers are shared by all productions until they fail,
+ * and then run again in the next production that needs them. Producers in other scopes, such as
+ * {@literal @}{@code RequestScoped}, are shared as their scope decides.
+ *
+ * @since 4.2
+ */
+public final class Producers {
+  private Producers() {}
+
+  /**
+   * Returns a module that creates bindings for the {@literal @}Produces methods declared by {@code
+   * module}.
+   */
+  public static Module forModule(Module module) {
+    return ProducerMethodsModule.forModule(module);
+  }
+}
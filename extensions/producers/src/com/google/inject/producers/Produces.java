@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.producers;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotates methods of a {@link com.google.inject.Module} to create a producer binding. The method
+ * may return either {@code T} or {@code ListenableFuture<T>}; in both cases {@code
+ * ListenableFuture<T>} is bound, using the scope and binding annotations on the method. Install
+ * {@literal @}Produces methods by using {@link Producers#forModule(com.google.inject.Module)} on
+ * the module where the methods are declared.
+ *
+ * <p>Parameters of type {@code T} where {@code ListenableFuture<T>} is produced are passed once
+ * that future completes, so a producer runs as soon as all of its inputs are ready. Parameters of
+ * type {@code ListenableFuture<T>} receive the future itself, and all other parameters are
+ * injected as usual. The method runs on the {@literal @}{@link ProductionExecutor} executor.
+ *
+ * <p>Each request for a produced future runs the producers it needs at most once, so a producer
+ * that several others consume in the same request is shared even if it is unscoped. A
+ * {@literal @}{@link com.google.inject.Singleton Singleton} producer is shared by all requests
+ * until it fails; the next request after a failure runs it again.
+ *
+ * @since 4.2
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface Produces {}
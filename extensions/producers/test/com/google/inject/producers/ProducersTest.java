@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.producers;
+
+import static com.google.inject.Asserts.assertContains;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.AbstractModule;
+import com.google.inject.CreationException;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+public class ProducersTest extends TestCase {
+  private ExecutorService executor;
+
+  @Override
+  protected void setUp() throws Exception {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  private class ExecutorModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      bind(Executor.class).annotatedWith(ProductionExecutor.class).toInstance(executor);
+    }
+  }
+
+  /** A diamond: {@code sum} needs {@code left} and {@code right}, which both need {@code root}. */
+  static class DiamondModule extends AbstractModule {
+    final AtomicInteger rootCalls = new AtomicInteger();
+    final CountDownLatch bothSidesRunning = new CountDownLatch(2);
+
+    @Override
+    protected void configure() {
+      bindConstant().annotatedWith(Names.named("offset")).to(100);
+    }
+
+    @Produces
+    @Singleton
+    Integer root() {
+      rootCalls.incrementAndGet();
+      return 1;
+    }
+
+    @Produces
+    @Named("left")
+    Integer left(Integer root) throws InterruptedException {
+      return awaitOtherSide() ? root + 10 : -1;
+    }
+
+    @Produces
+    @Named("right")
+    ListenableFuture<Integer> right(Integer root) throws InterruptedException {
+      return Futures.immediateFuture(awaitOtherSide() ? root + 20 : -1);
+    }
+
+    @Produces
+    String sum(
+        @Named("left") Integer left,
+        @Named("right") ListenableFuture<Integer> right,
+        @Named("offset") int offset)
+        throws Exception {
+      return "sum=" + (left + right.get() + offset);
+    }
+
+    /** Returns true only if both sides of the diamond run at the same time. */
+    private boolean awaitOtherSide() throws InterruptedException {
+      bothSidesRunning.countDown();
+      return bothSidesRunning.await(10, TimeUnit.SECONDS);
+    }
+  }
+
+  public void testProducersRunConcurrently() throws Exception {
+    DiamondModule producers = new DiamondModule();
+    Injector injector =
+        Guice.createInjector(producers, Producers.forModule(producers), new ExecutorModule());
+    ListenableFuture<String> sum =
+        injector.getInstance(new Key<ListenableFuture<String>>() {});
+    assertEquals("sum=132", sum.get(10, TimeUnit.SECONDS));
+    assertEquals(1, producers.rootCalls.get());
+  }
+
+  public void testProducedInputsFromOtherModules() throws Exception {
+    final SettableFuture<String> name = SettableFuture.create();
+    Injector injector =
+        Guice.createInjector(
+            new ExecutorModule(),
+            new AbstractModule() {
+              @Override
+              protected void configure() {
+                bind(new TypeLiteral<ListenableFuture<String>>() {}).toInstance(name);
+              }
+            },
+            Producers.forModule(
+                new AbstractModule() {
+                  @Override
+                  protected void configure() {}
+
+                  @Produces
+                  Integer length(String name) {
+                    return name.length();
+                  }
+                }));
+    ListenableFuture<Integer> length =
+        injector.getInstance(new Key<ListenableFuture<Integer>>() {});
+    assertFalse(length.isDone());
+    name.set("guice");
+    assertEquals(5, (int) length.get(10, TimeUnit.SECONDS));
+  }
+
+  public void testFailuresPropagate() throws Exception {
+    Injector injector =
+        Guice.createInjector(
+            new ExecutorModule(),
+            Producers.forModule(
+                new AbstractModule() {
+                  @Override
+                  protected void configure() {}
+
+                  @Produces
+                  Integer broken() {
+                    throw new IllegalStateException("broken producer");
+                  }
+
+                  @Produces
+                  String dependent(Integer broken) {
+                    throw new AssertionError("should not run");
+                  }
+                }));
+    ListenableFuture<String> dependent =
+        injector.getInstance(new Key<ListenableFuture<String>>() {});
+    try {
+      dependent.get(10, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof IllegalStateException);
+      assertEquals("broken producer", expected.getCause().getMessage());
+    }
+  }
+
+  /** A diamond whose shared {@code root} is unscoped. */
+  static class UnscopedDiamondModule extends AbstractModule {
+    final AtomicInteger rootCalls = new AtomicInteger();
+
+    @Override
+    protected void configure() {}
+
+    @Produces
+    Integer root() {
+      return rootCalls.incrementAndGet();
+    }
+
+    @Produces
+    @Named("left")
+    Integer left(Integer root) {
+      return root;
+    }
+
+    @Produces
+    @Named("right")
+    Integer right(Integer root) {
+      return root;
+    }
+
+    @Produces
+    String both(@Named("left") Integer left, @Named("right") Integer right) {
+      return left + "," + right;
+    }
+  }
+
+  public void testUnscopedProducersRunOncePerRequest() throws Exception {
+    UnscopedDiamondModule producers = new UnscopedDiamondModule();
+    Injector injector =
+        Guice.createInjector(producers, Producers.forModule(producers), new ExecutorModule());
+    Key<ListenableFuture<String>> bothKey = new Key<ListenableFuture<String>>() {};
+    assertEquals("1,1", injector.getInstance(bothKey).get(10, TimeUnit.SECONDS));
+    assertEquals("2,2", injector.getInstance(bothKey).get(10, TimeUnit.SECONDS));
+    assertEquals(2, producers.rootCalls.get());
+  }
+
+  public void testFailedSingletonProducersRunAgain() throws Exception {
+    final AtomicInteger calls = new AtomicInteger();
+    Injector injector =
+        Guice.createInjector(
+            new ExecutorModule(),
+            Producers.forModule(
+                new AbstractModule() {
+                  @Override
+                  protected void configure() {}
+
+                  @Produces
+                  @Singleton
+                  Integer flaky() {
+                    if (calls.incrementAndGet() == 1) {
+                      throw new IllegalStateException("first call fails");
+                    }
+                    return calls.get();
+                  }
+                }));
+    Key<ListenableFuture<Integer>> key = new Key<ListenableFuture<Integer>>() {};
+    try {
+      injector.getInstance(key).get(10, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException expected) {
+      assertEquals("first call fails", expected.getCause().getMessage());
+    }
+    assertEquals(2, (int) injector.getInstance(key).get(10, TimeUnit.SECONDS));
+    assertEquals(2, (int) injector.getInstance(key).get(10, TimeUnit.SECONDS));
+    assertEquals(2, calls.get());
+  }
+
+  public void testExecutorIsRequired() {
+    try {
+      Guice.createInjector(
+          Producers.forModule(
+              new AbstractModule() {
+                @Override
+                protected void configure() {}
+
+                @Produces
+                Integer value() {
+                  return 1;
+                }
+              }));
+      fail();
+    } catch (CreationException expected) {
+      assertContains(expected.getMessage(), "java.util.concurrent.Executor", "ProductionExecutor");
+    }
+  }
+
+  public void testVoidProducerIsAnError() {
+    try {
+      Guice.createInjector(
+          new ExecutorModule(),
+          Producers.forModule(
+              new AbstractModule() {
+                @Override
+                protected void configure() {}
+
+                @Produces
+                void nothing() {}
+              }));
+      fail();
+    } catch (CreationException expected) {
+      assertContains(expected.getMessage(), "must return a value");
+    }
+  }
+}